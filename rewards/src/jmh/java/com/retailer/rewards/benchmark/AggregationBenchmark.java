@@ -0,0 +1,51 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.service.AggregationMode;
+import com.retailer.rewards.service.RewardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks RewardService.calculateRewardsForAllCustomers over synthetic in-memory transactions,
+ * served by a stubbed TransactionRepository so only the aggregation itself is measured.
+ * The 10M case needs a large heap; run with "-prof gc" to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int transactionCount;
+
+    @Param({"10000"})
+    private int customerCount;
+
+    @Param({"IN_MEMORY", "STREAMING", "PARALLEL"})
+    private AggregationMode mode;
+
+    private RewardService rewardService;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> transactions = BenchmarkData.transactions(transactionCount, customerCount);
+        rewardService = BenchmarkData.rewardService(BenchmarkData.repository(transactions), mode);
+    }
+
+    @TearDown
+    public void tearDown() {
+        rewardService.shutdown();
+    }
+
+    @Benchmark
+    public List<RewardSummary> calculateRewardsForAllCustomers() {
+        return rewardService.calculateRewardsForAllCustomers();
+    }
+}
@@ -0,0 +1,166 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.TransactionView;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.repository.TransactionRepository;
+import com.retailer.rewards.service.AggregationMode;
+import com.retailer.rewards.service.RewardColumnStore;
+import com.retailer.rewards.service.RewardMetrics;
+import com.retailer.rewards.service.RewardService;
+import com.retailer.rewards.service.RewardQueryCoalescer;
+import com.retailer.rewards.service.RewardRuleService;
+import com.retailer.rewards.service.RewardSummaryCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic, reproducible data and in-memory stubs shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42L;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 730; // Two years of transactions
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return Amounts between $0.00 and $250.00, so all reward tiers are exercised.
+     */
+    static double[] amounts(int count) {
+        Random random = new Random(SEED);
+        double[] amounts = new double[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = random.nextInt(25_000) / 100.0;
+        }
+        return amounts;
+    }
+
+    /**
+     * @return The same amounts as amounts(count), in cents.
+     */
+    static long[] amountsCents(int count) {
+        Random random = new Random(SEED);
+        long[] amountsCents = new long[count];
+        for (int i = 0; i < count; i++) {
+            amountsCents[i] = random.nextInt(25_000);
+        }
+        return amountsCents;
+    }
+
+    static LocalDate[] dates(int count) {
+        Random random = new Random(SEED);
+        LocalDate[] dates = new LocalDate[count];
+        for (int i = 0; i < count; i++) {
+            dates[i] = FIRST_DATE.plusDays(random.nextInt(DAYS));
+        }
+        return dates;
+    }
+
+    /**
+     * @return Transactions spread uniformly over the given number of customers and two years.
+     */
+    static List<Transaction> transactions(int count, int customerCount) {
+        Random random = new Random(SEED);
+        Customer[] customers = new Customer[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            customers[i] = new Customer(String.format("CUST%07d", i), "Customer " + i);
+            customers[i].setId(i + 1);
+        }
+
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction(customers[random.nextInt(customerCount)],
+                    random.nextInt(25_000) / 100.0, FIRST_DATE.plusDays(random.nextInt(DAYS)));
+            transaction.setId(i + 1);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    /**
+     * @return A TransactionRepository serving the given list from memory; only the methods used by
+     * the all-customers aggregation and the column store load are supported.
+     */
+    static TransactionRepository repository(List<Transaction> transactions) {
+        List<TransactionView> views = transactions.stream()
+                .map(t -> new TransactionView(t.getId(), t.getCustomer().getCustomerId(), t.getAmountCents(), t.getTransactionDate()))
+                .toList();
+        return (TransactionRepository) Proxy.newProxyInstance(
+                TransactionRepository.class.getClassLoader(),
+                new Class<?>[]{TransactionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllViews" -> views;
+                    case "streamAll" -> views.stream();
+                    case "findViewsAfter" -> { // Ids are 1..n, so the next chunk starts at index afterId
+                        int from = (int) Math.min(Math.max((long) args[0], 0), views.size());
+                        yield views.subList(from, Math.min(from + ((Pageable) args[1]).getPageSize(), views.size()));
+                    }
+                    case "toString" -> "InMemoryTransactionRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * @return A TransactionRepository generating transactions 1..count on demand, each derived from its id alone,
+     * so that tens of millions of rows can be served without holding them; only findViewsAfter is supported.
+     */
+    static TransactionRepository generatedRepository(int count, int customerCount) {
+        return (TransactionRepository) Proxy.newProxyInstance(
+                TransactionRepository.class.getClassLoader(),
+                new Class<?>[]{TransactionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findViewsAfter" -> {
+                        long from = Math.max((long) args[0], 0) + 1;
+                        long to = Math.min(from + ((Pageable) args[1]).getPageSize(), count + 1L);
+                        List<TransactionView> chunk = new ArrayList<>((int) Math.max(to - from, 0));
+                        for (long id = from; id < to; id++) {
+                            SplittableRandom random = new SplittableRandom(SEED ^ id);
+                            chunk.add(new TransactionView(id, String.format("CUST%08d", random.nextInt(customerCount)),
+                                    random.nextInt(25_000), FIRST_DATE.plusDays(random.nextInt(DAYS))));
+                        }
+                        yield chunk;
+                    }
+                    case "toString" -> "GeneratedTransactionRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static RewardService rewardService(TransactionRepository transactionRepository, AggregationMode mode) {
+        return rewardService(transactionRepository, mode, 0);
+    }
+
+    static RewardService rewardService(TransactionRepository transactionRepository, AggregationMode mode, int parallelism) {
+        // A composite registry without children hands out no-op meters
+        return rewardService(transactionRepository, mode, parallelism, new CompositeMeterRegistry());
+    }
+
+    static RewardService rewardService(TransactionRepository transactionRepository, AggregationMode mode, int parallelism,
+                                       MeterRegistry meterRegistry) {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getAggregation().setMode(mode);
+        rewardProperties.getAggregation().setParallelism(parallelism);
+        RewardQueryCoalescer rewardQueryCoalescer = new RewardQueryCoalescer(rewardProperties);
+        RewardSummaryCache rewardSummaryCache = new RewardSummaryCache(rewardProperties, rewardQueryCoalescer);
+        RewardRuleService rewardRuleService = new RewardRuleService(null, rewardSummaryCache, null, event -> { });
+        return new RewardService(transactionRepository, null, null, null, null, null, rewardSummaryCache,
+                rewardQueryCoalescer, rewardRuleService,
+                new RewardColumnStore(transactionRepository, rewardRuleService, rewardProperties),
+                new RewardMetrics(meterRegistry), rewardProperties);
+    }
+}
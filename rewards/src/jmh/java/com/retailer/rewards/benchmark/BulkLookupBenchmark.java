@@ -0,0 +1,149 @@
+package com.retailer.rewards.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading one quarter of transactions for a page of customers: one period query per customer,
+ * as the front end does through /rewards/calculate/{customerId}, against chunked IN-list queries as used by
+ * /rewards/calculate/bulk. Runs on an embedded H2 database in MySQL mode with result reuse disabled, so no
+ * network round trip is counted; on MySQL each saved query also saves a round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkLookupBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+    private static final int TRANSACTIONS_PER_CUSTOMER = 50;
+    private static final String PERIOD_SQL = "select t.id, c.customer_id, t.amount_cents, t.transaction_date from transaction t " +
+            "join customer c on c.id = t.customer_db_id where c.customer_id = ? and t.transaction_date between ? and ?";
+
+    @Param({"200", "500"})
+    private int pageCustomers;
+
+    @Param({"50", "100", "500"})
+    private int chunkSize;
+
+    private Connection connection;
+    private String[] customerIds;
+    private Date startDate;
+    private Date endDate;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bulk_lookup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table customer (id bigint primary key, customer_id varchar(255) not null unique, name varchar(255))");
+            statement.execute("create table transaction (id bigint auto_increment primary key, customer_db_id bigint not null, " +
+                    "amount_cents bigint not null, transaction_date date, foreign key (customer_db_id) references customer (id))");
+        }
+
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDate firstDate = LocalDate.of(2023, 1, 1);
+        connection.setAutoCommit(false);
+        try (PreparedStatement customer = connection.prepareStatement("insert into customer values (?, ?, ?)");
+             PreparedStatement transaction = connection.prepareStatement(
+                     "insert into transaction (customer_db_id, amount_cents, transaction_date) values (?, ?, ?)")) {
+            for (int i = 1; i <= CUSTOMERS; i++) {
+                customer.setLong(1, i);
+                customer.setString(2, String.format("CUST%07d", i));
+                customer.setString(3, "Customer " + i);
+                customer.addBatch();
+            }
+            customer.executeBatch();
+            for (int i = 0; i < CUSTOMERS * TRANSACTIONS_PER_CUSTOMER; i++) {
+                transaction.setLong(1, random.nextInt(CUSTOMERS) + 1);
+                transaction.setLong(2, random.nextInt(25_000));
+                transaction.setDate(3, Date.valueOf(firstDate.plusDays(random.nextInt(2 * 365))));
+                transaction.addBatch();
+                if (i % 10_000 == 0) {
+                    transaction.executeBatch();
+                }
+            }
+            transaction.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create index idx_transaction_customer_date on transaction (customer_db_id, transaction_date)");
+            statement.execute("analyze");
+        }
+
+        // Distinct customers spread over the table, as on a page of the front end
+        customerIds = new String[pageCustomers];
+        for (int i = 0; i < pageCustomers; i++) {
+            customerIds[i] = String.format("CUST%07d", i * (CUSTOMERS / pageCustomers) + 1);
+        }
+        startDate = Date.valueOf(LocalDate.of(2024, 1, 1));
+        endDate = Date.valueOf(LocalDate.of(2024, 3, 31));
+        long perCustomer = queryPerCustomer();
+        long inList = inListQueries();
+        if (perCustomer != inList) {
+            throw new IllegalStateException("Queries disagree: " + perCustomer + " != " + inList);
+        }
+        System.out.println("Amount read for the page: " + perCustomer);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long queryPerCustomer() throws SQLException {
+        long sum = 0;
+        try (PreparedStatement statement = connection.prepareStatement(PERIOD_SQL)) {
+            for (String customerId : customerIds) {
+                statement.setString(1, customerId);
+                statement.setDate(2, startDate);
+                statement.setDate(3, endDate);
+                sum += sumAmounts(statement);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long inListQueries() throws SQLException {
+        long sum = 0;
+        for (int from = 0; from < customerIds.length; from += chunkSize) {
+            int size = Math.min(chunkSize, customerIds.length - from);
+            String sql = "select t.id, c.customer_id, t.amount_cents, t.transaction_date from transaction t " +
+                    "join customer c on c.id = t.customer_db_id where c.customer_id in (" +
+                    "?,".repeat(size - 1) + "?) and t.transaction_date between ? and ?";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < size; i++) {
+                    statement.setString(i + 1, customerIds[from + i]);
+                }
+                statement.setDate(size + 1, startDate);
+                statement.setDate(size + 2, endDate);
+                sum += sumAmounts(statement);
+            }
+        }
+        return sum;
+    }
+
+    private static long sumAmounts(PreparedStatement statement) throws SQLException {
+        long sum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getLong(3);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.service.AggregationMode;
+import com.retailer.rewards.service.RewardPoints;
+import com.retailer.rewards.service.RewardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the reward points calculation over a fixed set of amounts covering all tiers:
+ * the previous double implementation, the dollar API of RewardService, and the cents kernel of
+ * RewardPoints one amount at a time and in bulk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculatePointsBenchmark {
+
+    private static final int AMOUNTS = 1024;
+
+    private RewardService rewardService;
+    private double[] amounts;
+    private long[] amountsCents;
+    private int[] intAmountsCents;
+    private int[] points;
+
+    @Setup
+    public void setUp() {
+        rewardService = BenchmarkData.rewardService(null, AggregationMode.IN_MEMORY);
+        amounts = BenchmarkData.amounts(AMOUNTS);
+        amountsCents = BenchmarkData.amountsCents(AMOUNTS);
+        intAmountsCents = new int[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            intAmountsCents[i] = (int) amountsCents[i];
+        }
+        points = new int[AMOUNTS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int doubleFloor() {
+        int total = 0;
+        for (double amount : amounts) {
+            total += doubleFloorPoints(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int calculatePoints() {
+        int total = 0;
+        for (double amount : amounts) {
+            total += rewardService.calculatePoints(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int forCents() {
+        int total = 0;
+        for (long amountCents : amountsCents) {
+            total += RewardPoints.forCents(amountCents);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int[] forCentsBulkLong() {
+        RewardPoints.forCents(amountsCents, points);
+        return points;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int[] forCentsBulkInt() {
+        RewardPoints.forCents(intAmountsCents, points);
+        return points;
+    }
+
+    /** RewardService.calculatePoints before amounts were held in cents, kept as the baseline. */
+    private static int doubleFloorPoints(double amount) {
+        int points = 0;
+        int dollars = (int) Math.floor(amount);
+        if (dollars > 100) {
+            points += (dollars - 100) * 2;
+        }
+        if (dollars > 50) {
+            int dollarsBetween50And100 = Math.min(dollars, 100) - 50;
+            if (dollarsBetween50And100 > 0) {
+                points += dollarsBetween50And100;
+            }
+        }
+        return points;
+    }
+}
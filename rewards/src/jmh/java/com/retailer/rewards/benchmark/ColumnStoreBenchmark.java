@@ -0,0 +1,92 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.TransactionRepository;
+import com.retailer.rewards.service.RewardColumnStore;
+import com.retailer.rewards.service.RewardQueryCoalescer;
+import com.retailer.rewards.service.RewardRulePlan;
+import com.retailer.rewards.service.RewardRuleService;
+import com.retailer.rewards.service.RewardSummaryCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks period queries answered by the RewardColumnStore, for random customers, and the recording of
+ * transactions dated anywhere in the last two years. The store is loaded from a stubbed repository before each
+ * iteration; its footprint is printed once per fork. Compare with PeriodQueryBenchmark for the database path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ColumnStoreBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    private int transactions;
+
+    @Param({"10000"})
+    private int customers;
+
+    @Param({"90", "730"})
+    private int periodDays;
+
+    private TransactionRepository repository;
+    private RewardProperties rewardProperties;
+    private RewardRuleService rewardRuleService;
+    private RewardColumnStore store;
+    private String[] customerIds;
+    private LocalDate[] startDates;
+    private long[] amountsCents;
+    private int next;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        rewardProperties = new RewardProperties();
+        rewardProperties.getColumnStore().setEnabled(true);
+        rewardRuleService = new RewardRuleService(null, new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties)), null, event -> { });
+        repository = BenchmarkData.repository(BenchmarkData.transactions(transactions, customers));
+
+        amountsCents = BenchmarkData.amountsCents(QUERIES);
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDate[] dates = BenchmarkData.dates(QUERIES);
+        customerIds = new String[QUERIES];
+        startDates = new LocalDate[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            customerIds[i] = String.format("CUST%07d", random.nextInt(customers));
+            startDates[i] = dates[i];
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void loadStore() {
+        store = new RewardColumnStore(repository, rewardRuleService, rewardProperties);
+        store.load();
+        nextId = transactions + 1L;
+        if (next == 0) {
+            System.out.println("Column store: " + store.stats());
+        }
+    }
+
+    @Benchmark
+    public RewardSummary periodQuery() {
+        int i = next++ & (QUERIES - 1);
+        return store.summarize(customerIds[i], startDates[i], startDates[i].plusDays(periodDays), RewardRulePlan.DEFAULT);
+    }
+
+    @Benchmark
+    public long recordBackdatedTransaction() {
+        int i = next++ & (QUERIES - 1);
+        store.onTransactionRecorded(new TransactionRecordedEvent(nextId, customerIds[i], amountsCents[i], startDates[i]));
+        return nextId++;
+    }
+}
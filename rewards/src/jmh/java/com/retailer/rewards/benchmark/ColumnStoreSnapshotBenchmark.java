@@ -0,0 +1,80 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.repository.TransactionRepository;
+import com.retailer.rewards.service.RewardColumnStore;
+import com.retailer.rewards.service.RewardQueryCoalescer;
+import com.retailer.rewards.service.RewardRuleService;
+import com.retailer.rewards.service.RewardSummaryCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the time for the RewardColumnStore to become ready at startup: restored from a snapshot file
+ * and caught up with the transactions recorded after it, against a full load from the repository.
+ * The snapshot is written once per fork from a store that is then discarded; the repository generates its
+ * rows on demand, so only the store under test is held in memory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ColumnStoreSnapshotBenchmark {
+
+    private static final int TRANSACTIONS_PER_CUSTOMER = 2;
+    private static final int CATCH_UP_PERCENT = 1; // Transactions recorded after the snapshot was written
+
+    @Param({"1000000", "5000000"}) // 10M customers needs about 6 GB of heap for the full load
+    private int customers;
+
+    private Path snapshotFile;
+    private TransactionRepository repository;
+
+    @Setup
+    public void setUp() throws IOException {
+        int transactions = customers * TRANSACTIONS_PER_CUSTOMER;
+        snapshotFile = Files.createTempFile("column-store", ".bin");
+        RewardColumnStore source = store(BenchmarkData.generatedRepository(transactions, customers), snapshotFile.toString());
+        Files.delete(snapshotFile);
+        source.load();
+        System.out.println("Full load: " + source.stats());
+        System.out.println("Snapshot: " + source.writeSnapshot());
+        repository = BenchmarkData.generatedRepository(transactions + transactions / 100 * CATCH_UP_PERCENT, customers);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public Map<String, Object> restoreFromSnapshot() {
+        RewardColumnStore store = store(repository, snapshotFile.toString());
+        store.load();
+        return store.stats();
+    }
+
+    @Benchmark
+    public Map<String, Object> fullLoad() {
+        RewardColumnStore store = store(repository, "");
+        store.load();
+        return store.stats();
+    }
+
+    private static RewardColumnStore store(TransactionRepository repository, String snapshotFile) {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getColumnStore().setEnabled(true);
+        rewardProperties.getColumnStore().setSnapshotFile(snapshotFile);
+        rewardProperties.getColumnStore().setCommitLag(Duration.ZERO); // No transaction of the generated table is in flight
+        RewardRuleService rewardRuleService = new RewardRuleService(null, new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties)), null, event -> { });
+        return new RewardColumnStore(repository, rewardRuleService, rewardProperties);
+    }
+}
@@ -0,0 +1,126 @@
+package com.retailer.rewards.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the ingest and reporting endpoints of a running application, used to compare profiles:
+ * start the application once with the default profile and once with "prod-perf" against the same database,
+ * and run this benchmark against each, e.g. -p baseUrl=http://localhost:8080.
+ * Customers are created on first use; every ingest call adds batchSize transactions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class EndpointLoadBenchmark {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2025, 12, 31);
+
+    @Param({"http://localhost:8080"})
+    private String baseUrl;
+
+    @Param({"1000"})
+    private int customerCount;
+
+    @Param({"500"})
+    private int batchSize;
+
+    private HttpClient client;
+
+    private byte[] batchBody;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int i = 0; i < customerCount; i++) {
+            String body = "{\"customerId\":\"" + customerId(i) + "\",\"name\":\"Load " + i + "\"}";
+            int status = send(HttpRequest.newBuilder(URI.create(baseUrl + "/customers"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+            if (status != 201 && status != 409) { // 409: created by an earlier run
+                throw new IllegalStateException("POST /customers returned " + status);
+            }
+        }
+
+        double[] amounts = BenchmarkData.amounts(batchSize);
+        LocalDate[] dates = BenchmarkData.dates(batchSize);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < batchSize; i++) {
+            ndjson.append("{\"customerId\":\"").append(customerId(i % customerCount))
+                    .append("\",\"amount\":").append(amounts[i])
+                    .append(",\"transactionDate\":\"").append(dates[i]).append("\"}\n");
+        }
+        batchBody = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+        ingestBatch(); // Reporting benchmarks need at least one batch of transactions
+    }
+
+    /**
+     * POST /transactions/batch with batchSize NDJSON rows.
+     */
+    @Benchmark
+    public int ingestBatch() throws IOException, InterruptedException {
+        return expectOk(send(HttpRequest.newBuilder(URI.create(baseUrl + "/transactions/batch"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(batchBody))
+                .build()));
+    }
+
+    /**
+     * GET /rewards/calculate/{customerId} for a random customer over two years.
+     */
+    @Benchmark
+    public int calculateCustomerInPeriod() throws IOException, InterruptedException {
+        String customerId = customerId(ThreadLocalRandom.current().nextInt(customerCount));
+        int status = send(HttpRequest.newBuilder(URI.create(baseUrl + "/rewards/calculate/" + customerId +
+                "?startDate=" + PERIOD_START + "&endDate=" + PERIOD_END)).GET().build());
+        if (status != 200 && status != 404) { // 404: the customer has no transactions yet
+            throw new IllegalStateException("GET /rewards/calculate/{customerId} returned " + status);
+        }
+        return status;
+    }
+
+    /**
+     * GET /rewards/calculate/all/stream, reading the whole response.
+     */
+    @Benchmark
+    @Threads(4)
+    public int streamAllCustomers() throws IOException, InterruptedException {
+        return expectOk(send(HttpRequest.newBuilder(URI.create(baseUrl + "/rewards/calculate/all/stream")).GET().build()));
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        return response.statusCode();
+    }
+
+    private static int expectOk(int status) {
+        if (status != 200) {
+            throw new IllegalStateException("Unexpected status " + status);
+        }
+        return status;
+    }
+
+    private static String customerId(int index) {
+        return String.format("LOAD%06d", index);
+    }
+}
@@ -0,0 +1,65 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.service.AggregationMode;
+import com.retailer.rewards.service.RewardService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calculateRewardsForAllCustomers with no-op meters and with a Prometheus registry publishing
+ * percentile histograms, as configured in application.properties. The small transaction count exposes
+ * the fixed cost per call, the large one any cost per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"100", "1000000"})
+    private int transactionCount;
+
+    @Param({"none", "prometheus"})
+    private String registry;
+
+    private RewardService rewardService;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> transactions = BenchmarkData.transactions(transactionCount, Math.max(1, transactionCount / 100));
+        rewardService = BenchmarkData.rewardService(BenchmarkData.repository(transactions), AggregationMode.IN_MEMORY, 0,
+                meterRegistry());
+    }
+
+    @Benchmark
+    public List<RewardSummary> calculateRewardsForAllCustomers() {
+        return rewardService.calculateRewardsForAllCustomers();
+    }
+
+    private MeterRegistry meterRegistry() {
+        if (registry.equals("none")) {
+            return new CompositeMeterRegistry();
+        }
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        prometheus.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        return prometheus;
+    }
+}
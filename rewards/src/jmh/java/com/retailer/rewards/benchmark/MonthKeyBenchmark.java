@@ -0,0 +1,70 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.dto.MonthlyPoints;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ways of turning a transaction date into its month bucket: "YYYY-MM" strings
+ * versus the epoch-month int used by RewardService.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonthKeyBenchmark {
+
+    private static final int DATES = 1024;
+
+    private LocalDate[] dates;
+    private DateTimeFormatter sharedFormatter;
+
+    @Setup
+    public void setUp() {
+        dates = BenchmarkData.dates(DATES);
+        sharedFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
+    }
+
+    /** One formatter per aggregation call. */
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void sharedFormatter(Blackhole blackhole) {
+        for (LocalDate date : dates) {
+            blackhole.consume(date.format(sharedFormatter));
+        }
+    }
+
+    /** A new formatter for every transaction. */
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void formatterPerCall(Blackhole blackhole) {
+        for (LocalDate date : dates) {
+            blackhole.consume(date.format(DateTimeFormatter.ofPattern("yyyy-MM")));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public int epochMonth() {
+        int sum = 0;
+        for (LocalDate date : dates) {
+            sum += MonthlyPoints.epochMonth(date);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void yearMonthToString(Blackhole blackhole) {
+        for (LocalDate date : dates) {
+            blackhole.consume(YearMonth.from(date).toString());
+        }
+    }
+}
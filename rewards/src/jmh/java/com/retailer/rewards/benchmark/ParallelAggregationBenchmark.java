@@ -0,0 +1,50 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.service.AggregationMode;
+import com.retailer.rewards.service.RewardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks how the parallel aggregation scales with "rewards.aggregation.parallelism".
+ * Override the levels to match the machine, e.g. -p parallelism=1,2,4,8,16,32.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class ParallelAggregationBenchmark {
+
+    @Param({"1000000"})
+    private int transactionCount;
+
+    @Param({"10000"})
+    private int customerCount;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private RewardService rewardService;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> transactions = BenchmarkData.transactions(transactionCount, customerCount);
+        rewardService = BenchmarkData.rewardService(BenchmarkData.repository(transactions), AggregationMode.PARALLEL, parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        rewardService.shutdown();
+    }
+
+    @Benchmark
+    public List<RewardSummary> calculateRewardsForAllCustomers() {
+        return rewardService.calculateRewardsForAllCustomers();
+    }
+}
@@ -0,0 +1,119 @@
+package com.retailer.rewards.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-customer period query for a customer with 100k transactions, with and without the
+ * transaction indexes, comparing the join on the business ID with the lookup by database ID.
+ * Runs on an embedded H2 database in MySQL mode; repeat on MySQL for production figures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PeriodQueryBenchmark {
+
+    private static final String BY_BUSINESS_ID_SQL = "select t.id, t.amount_cents, t.transaction_date from transaction t " +
+            "join customer c on c.id = t.customer_db_id where c.customer_id = ? and t.transaction_date between ? and ?";
+    private static final String BY_DB_ID_SQL = "select t.id, t.amount_cents, t.transaction_date from transaction t " +
+            "where t.customer_db_id = ? and t.transaction_date between ? and ?";
+
+    @Param({"100000"})
+    private int customerTransactions;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement byBusinessId;
+    private PreparedStatement byDbId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:period_query;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table customer (id bigint primary key, customer_id varchar(255) not null unique, name varchar(255))");
+            statement.execute("create table transaction (id bigint auto_increment primary key, customer_db_id bigint not null, " +
+                    "amount_cents bigint not null, transaction_date date, foreign key (customer_db_id) references customer (id))");
+            statement.execute("insert into customer values (1, 'CUST0000001', 'Customer 1'), (2, 'CUST0000002', 'Customer 2')");
+        }
+
+        // The measured customer plus as many transactions of another customer
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDate firstDate = LocalDate.of(2020, 1, 1);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into transaction (customer_db_id, amount_cents, transaction_date) values (?, ?, ?)")) {
+            for (int i = 0; i < customerTransactions * 2; i++) {
+                insert.setLong(1, i % 2 + 1);
+                insert.setLong(2, random.nextInt(25_000));
+                insert.setDate(3, Date.valueOf(firstDate.plusDays(random.nextInt(5 * 365))));
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            if (indexed) {
+                statement.execute("create index idx_transaction_customer_date on transaction (customer_db_id, transaction_date)");
+                statement.execute("create index idx_transaction_date on transaction (transaction_date)");
+            }
+            statement.execute("analyze");
+        }
+
+        // One quarter of the customer's five years
+        Date startDate = Date.valueOf(LocalDate.of(2023, 1, 1));
+        Date endDate = Date.valueOf(LocalDate.of(2023, 3, 31));
+        byBusinessId = connection.prepareStatement(BY_BUSINESS_ID_SQL);
+        byBusinessId.setString(1, "CUST0000001");
+        byBusinessId.setDate(2, startDate);
+        byBusinessId.setDate(3, endDate);
+        byDbId = connection.prepareStatement(BY_DB_ID_SQL);
+        byDbId.setLong(1, 1L);
+        byDbId.setDate(2, startDate);
+        byDbId.setDate(3, endDate);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public double byBusinessId() throws SQLException {
+        return sumAmounts(byBusinessId);
+    }
+
+    @Benchmark
+    public double byDatabaseId() throws SQLException {
+        return sumAmounts(byDbId);
+    }
+
+    private static double sumAmounts(PreparedStatement statement) throws SQLException {
+        double sum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getDouble(2);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,83 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.entity.RewardRule;
+import com.retailer.rewards.service.RewardPoints;
+import com.retailer.rewards.service.RewardRulePlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks evaluating a compiled rule plan against the hardcoded RewardPoints kernel:
+ * the built-in plan, and a plan with an extra tier, tiers for one segment and three multipliers,
+ * two of them date-bounded promotions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewardRulePlanBenchmark {
+
+    private static final int AMOUNTS = 1024;
+    private static final String[] SEGMENTS = {null, null, "GOLD", "SILVER"};
+
+    private RewardRulePlan defaultPlan;
+    private RewardRulePlan promotionPlan;
+    private long[] amountsCents;
+    private LocalDate[] dates;
+    private String[] segments;
+
+    @Setup
+    public void setUp() {
+        defaultPlan = RewardRulePlan.DEFAULT;
+        promotionPlan = RewardRulePlan.compile(List.of(
+                RewardRule.tier(null, 50, 1),
+                RewardRule.tier(null, 100, 2),
+                RewardRule.tier(null, 200, 3),
+                RewardRule.tier("GOLD", 25, 2),
+                RewardRule.tier("GOLD", 100, 3),
+                RewardRule.multiplier(null, 200, LocalDate.of(2024, 11, 25), LocalDate.of(2024, 12, 2)),
+                RewardRule.multiplier("GOLD", 150, null, null),
+                RewardRule.multiplier("SILVER", 300, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30))), 1);
+        amountsCents = BenchmarkData.amountsCents(AMOUNTS);
+        dates = BenchmarkData.dates(AMOUNTS);
+        segments = new String[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            segments[i] = SEGMENTS[i % SEGMENTS.length];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int hardcoded() {
+        int total = 0;
+        for (long amountCents : amountsCents) {
+            total += RewardPoints.forCents(amountCents);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int defaultPlan() {
+        int total = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            total += defaultPlan.points(amountsCents[i], dates[i], segments[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int promotionPlan() {
+        int total = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            total += promotionPlan.points(amountsCents[i], dates[i], segments[i]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,66 @@
+package com.retailer.rewards.benchmark;
+
+import com.retailer.rewards.dto.MonthlyPoints;
+import com.retailer.rewards.dto.RewardSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks RewardSummary.addPoints for a customer with two years of monthly keys, by "YYYY-MM"
+ * string and by epoch month, against the boxed HashMap merge it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RewardSummaryBenchmark {
+
+    private static final int MONTHS = 24;
+
+    private String[] monthKeys;
+    private int[] epochMonths;
+    private RewardSummary summary;
+    private Map<String, Integer> boxedMonths;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        monthKeys = new String[MONTHS];
+        epochMonths = new int[MONTHS];
+        YearMonth month = YearMonth.of(2024, 1);
+        for (int i = 0; i < MONTHS; i++) {
+            monthKeys[i] = month.plusMonths(i).toString();
+            epochMonths[i] = MonthlyPoints.epochMonth(month.plusMonths(i).atDay(1));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpSummary() {
+        summary = new RewardSummary("CUST0000001");
+        boxedMonths = new HashMap<>();
+    }
+
+    @Benchmark
+    public RewardSummary addPointsByMonthKey() {
+        summary.addPoints(monthKeys[next++ % MONTHS], 90);
+        return summary;
+    }
+
+    @Benchmark
+    public RewardSummary addPointsByEpochMonth() {
+        summary.addPoints(epochMonths[next++ % MONTHS], 90);
+        return summary;
+    }
+
+    @Benchmark
+    public Map<String, Integer> boxedHashMapMerge() {
+        boxedMonths.merge(monthKeys[next++ % MONTHS], 90, Integer::sum);
+        return boxedMonths;
+    }
+}
@@ -0,0 +1,13 @@
+package com.retailer.rewards.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables Spring's annotation-driven caching, used for customer lookups by business ID.
+ * The cache provider and its bounds are configured with the "spring.cache.*" properties.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,432 @@
+package com.retailer.rewards.config;
+
+import com.retailer.rewards.service.AggregationMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Externalized configuration for the rewards application, bound from the "rewards.*" properties.
+ */
+@ConfigurationProperties(prefix = "rewards")
+public class RewardProperties {
+
+    private final Aggregation aggregation = new Aggregation();
+    private final Pagination pagination = new Pagination();
+    private final Bulk bulk = new Bulk();
+    private final Ledger ledger = new Ledger();
+    private final Ingest ingest = new Ingest();
+    private final Cache cache = new Cache();
+    private final Coalescing coalescing = new Coalescing();
+    private final CustomerCache customerCache = new CustomerCache();
+    private final Partitioning partitioning = new Partitioning();
+    private final Snapshot snapshot = new Snapshot();
+    private final Jobs jobs = new Jobs();
+    private final ColumnStore columnStore = new ColumnStore();
+    private final Events events = new Events();
+
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public Ingest getIngest() {
+        return ingest;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public CustomerCache getCustomerCache() {
+        return customerCache;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public ColumnStore getColumnStore() {
+        return columnStore;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    /** Settings for the all-customers reward aggregation. */
+    public static class Aggregation {
+
+        private AggregationMode mode = AggregationMode.IN_MEMORY; // Engine used by calculateRewardsForAllCustomers
+        private int fetchSize = 1000; // JDBC fetch size used when streaming transactions; MySQL needs useCursorFetch=true
+        private int parallelism = 0; // Threads used in parallel mode; 0 means one per available processor
+
+        public AggregationMode getMode() {
+            return mode;
+        }
+
+        public void setMode(AggregationMode mode) {
+            this.mode = mode;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /** Settings for the keyset-paginated and streamed all-customers reward responses. */
+    public static class Pagination {
+
+        private int defaultLimit = 1000; // Customers per page when no limit is given, and per streamed chunk
+        private int maxLimit = 10000; // Largest limit a client may request
+
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    /** Settings for the multi-customer period reward lookup. */
+    public static class Bulk {
+
+        private int maxCustomers = 1000; // Largest number of customer IDs a request may contain
+        private int chunkSize = 100; // Customer IDs per IN-list query
+
+        public int getMaxCustomers() {
+            return maxCustomers;
+        }
+
+        public void setMaxCustomers(int maxCustomers) {
+            this.maxCustomers = maxCustomers;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /** Settings for the customer monthly points ledger. */
+    public static class Ledger {
+
+        private boolean enabled = false; // Maintain the ledger as transactions are recorded
+        private int chunkSize = 10000; // Transactions read per query when verifying, rows per JDBC batch when rebuilding
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /** Settings for bulk transaction ingestion. */
+    public static class Ingest {
+
+        private int batchSize = 1000; // Rows inserted per JDBC batch and database transaction; listeners still run per row
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /** Settings for the per-customer period reward summary cache. */
+    public static class Cache {
+
+        private boolean enabled = false; // Cache results of calculateRewardsForCustomerInPeriod
+        private long maximumSize = 10000; // Maximum number of cached summaries
+        private Duration expireAfterWrite = Duration.ofMinutes(10); // Bounds staleness from writes on other nodes
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+
+    /** Settings for the customer lookup cache. */
+    public static class CustomerCache {
+
+        private int warmUpSize = 10000; // Customers loaded into the cache at startup; 0 disables warm-up
+
+        public int getWarmUpSize() {
+            return warmUpSize;
+        }
+
+        public void setWarmUpSize(int warmUpSize) {
+            this.warmUpSize = warmUpSize;
+        }
+    }
+
+    /** Settings for maintaining the monthly partitions of the transaction table. */
+    public static class Partitioning {
+
+        private boolean enabled = false; // Maintain partitions; requires the table to be converted first
+        private int monthsAhead = 3; // Months after the current one that always have a partition
+        private int retentionMonths = 0; // Months kept before the current one; 0 keeps all history
+        private boolean archive = true; // Copy expired partitions to transaction_archive before dropping them
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public boolean isArchive() {
+            return archive;
+        }
+
+        public void setArchive(boolean archive) {
+            this.archive = archive;
+        }
+    }
+
+    /** Settings for the single-flight coalescing of identical period reward queries. */
+    public static class Coalescing {
+
+        private boolean enabled = true; // Share one computation between concurrent identical queries
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /** Settings for the month-close reward snapshots. */
+    public static class Snapshot {
+
+        private boolean enabled = false; // Close past months on schedule and mark them dirty on late transactions
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /** Settings for the asynchronous recalculation jobs. */
+    public static class Jobs {
+
+        private int retainedJobs = 20; // Jobs whose status and result file are kept
+        private String resultDir = System.getProperty("java.io.tmpdir") + "/rewards-jobs"; // Where result files are written
+
+        public int getRetainedJobs() {
+            return retainedJobs;
+        }
+
+        public void setRetainedJobs(int retainedJobs) {
+            this.retainedJobs = retainedJobs;
+        }
+
+        public String getResultDir() {
+            return resultDir;
+        }
+
+        public void setResultDir(String resultDir) {
+            this.resultDir = resultDir;
+        }
+    }
+
+    /** Settings for the in-process columnar store of transactions used by period reward queries. */
+    public static class ColumnStore {
+
+        private boolean enabled = false; // Load all transactions at startup and answer period queries from memory
+        private int loadChunkSize = 10000; // Transactions read per query while loading
+        private String snapshotFile = ""; // Snapshot written on "rewards.column-store.snapshot-cron" and restored at startup; empty disables it
+        private Duration commitLag = Duration.ofMinutes(1); // Longest time a transaction takes to commit after its id is allocated; bounds the ids read again after a restore
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLoadChunkSize() {
+            return loadChunkSize;
+        }
+
+        public void setLoadChunkSize(int loadChunkSize) {
+            this.loadChunkSize = loadChunkSize;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public Duration getCommitLag() {
+            return commitLag;
+        }
+
+        public void setCommitLag(Duration commitLag) {
+            this.commitLag = commitLag;
+        }
+    }
+
+    /** Settings for the reward event outbox, its change feed and the relay publishing it to sinks. */
+    public static class Events {
+
+        private boolean enabled = false; // Write a reward_event row in the database transaction of each recorded transaction
+        private Duration settleTime = Duration.ofMinutes(1); // Age of the next event before a missing id counts as rolled back; longer than any transaction writing events
+        private int relayBatchSize = 1000; // Events read and published per sink batch
+        private String fileSink = ""; // NDJSON file the file sink appends to; empty disables it
+        private int queueCapacity = 0; // Events the in-process queue sink holds; 0 disables it
+        private Duration queueOfferTimeout = Duration.ofSeconds(1); // Wait for room per event before the queue sink refuses the batch
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getSettleTime() {
+            return settleTime;
+        }
+
+        public void setSettleTime(Duration settleTime) {
+            this.settleTime = settleTime;
+        }
+
+        public int getRelayBatchSize() {
+            return relayBatchSize;
+        }
+
+        public void setRelayBatchSize(int relayBatchSize) {
+            this.relayBatchSize = relayBatchSize;
+        }
+
+        public String getFileSink() {
+            return fileSink;
+        }
+
+        public void setFileSink(String fileSink) {
+            this.fileSink = fileSink;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getQueueOfferTimeout() {
+            return queueOfferTimeout;
+        }
+
+        public void setQueueOfferTimeout(Duration queueOfferTimeout) {
+            this.queueOfferTimeout = queueOfferTimeout;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.retailer.rewards.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's annotation-driven scheduling, used for periodic maintenance jobs
+ * such as transaction partition maintenance.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
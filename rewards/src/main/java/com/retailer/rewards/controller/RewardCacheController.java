@@ -0,0 +1,34 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.service.RewardSummaryCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST controller exposing statistics of the reward summary cache.
+ */
+
+@RestController
+@RequestMapping("/rewards/cache")
+public class RewardCacheController {
+
+    private final RewardSummaryCache rewardSummaryCache;
+
+    @Autowired
+    public RewardCacheController(RewardSummaryCache rewardSummaryCache) {
+        this.rewardSummaryCache = rewardSummaryCache;
+    }
+
+    /**
+     * Endpoint to read the hit, miss, invalidation and eviction counts of the reward summary cache.
+     *
+     * @return The cache statistics since startup.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Long>> getCacheStats() {
+        return ResponseEntity.ok(rewardSummaryCache.stats());
+    }
+}
@@ -0,0 +1,70 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.RewardEvent;
+import com.retailer.rewards.exception.InvalidRequestException;
+import com.retailer.rewards.service.RewardEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller exposing the reward event outbox as a change feed, and relaying it to the event sinks on demand.
+ */
+
+@RestController
+@RequestMapping("/rewards/changes")
+public class RewardChangeController {
+
+    private final RewardEventService rewardEventService;
+    private final RewardProperties rewardProperties;
+
+    @Autowired
+    public RewardChangeController(RewardEventService rewardEventService, RewardProperties rewardProperties) {
+        this.rewardEventService = rewardEventService;
+        this.rewardProperties = rewardProperties;
+    }
+
+    /**
+     * Endpoint to read the reward point changes recorded after a given event.
+     * Consumers apply each event's points to the customer's month, then ask again with "since" set to "next".
+     * Example: /rewards/changes?since=1200&limit=500
+     *
+     * @param since The id of the last event applied by the caller; 0 (default) reads from the beginning.
+     * @param limit The maximum number of events (optional; defaults to "rewards.pagination.default-limit").
+     * @return The "events" in id order and the "next" value of "since"; "next" equals "since" when no event is new.
+     * @throws InvalidRequestException if "since" is negative or the limit is outside 1 to "rewards.pagination.max-limit".
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                          @RequestParam(required = false) Integer limit) {
+        if (since < 0) {
+            throw new InvalidRequestException("Parameter 'since' must not be negative.");
+        }
+        int pageSize = limit != null ? limit : rewardProperties.getPagination().getDefaultLimit();
+        int maxLimit = rewardProperties.getPagination().getMaxLimit();
+        if (pageSize < 1 || pageSize > maxLimit) {
+            throw new InvalidRequestException("Parameter 'limit' must be between 1 and " + maxLimit + ".");
+        }
+        List<RewardEvent> events = rewardEventService.changes(since, pageSize);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("events", events);
+        body.put("next", events.isEmpty() ? since : events.get(events.size() - 1).getId());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Endpoint to publish the pending events to the enabled sinks now, rather than on the relay schedule.
+     *
+     * @return The id of the last event accepted by each enabled sink.
+     */
+    @PostMapping("/relay")
+    public ResponseEntity<Map<String, Long>> relayChanges() {
+        return ResponseEntity.ok(rewardEventService.relay());
+    }
+}
@@ -0,0 +1,34 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.service.RewardQueryCoalescer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST controller exposing statistics of the single-flight coalescing of period reward queries.
+ */
+
+@RestController
+@RequestMapping("/rewards/coalescing")
+public class RewardCoalescingController {
+
+    private final RewardQueryCoalescer rewardQueryCoalescer;
+
+    @Autowired
+    public RewardCoalescingController(RewardQueryCoalescer rewardQueryCoalescer) {
+        this.rewardQueryCoalescer = rewardQueryCoalescer;
+    }
+
+    /**
+     * Endpoint to read how many period queries were executed and how many calls were collapsed onto them.
+     *
+     * @return The coalescing statistics since startup.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Long>> getCoalescingStats() {
+        return ResponseEntity.ok(rewardQueryCoalescer.stats());
+    }
+}
@@ -0,0 +1,52 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.service.RewardColumnStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * REST controller exposing the state and memory footprint of the reward column store.
+ */
+
+@RestController
+@RequestMapping("/rewards/column-store")
+public class RewardColumnStoreController {
+
+    private final RewardColumnStore rewardColumnStore;
+
+    @Autowired
+    public RewardColumnStoreController(RewardColumnStore rewardColumnStore) {
+        this.rewardColumnStore = rewardColumnStore;
+    }
+
+    /**
+     * Endpoint to read the state, size and estimated memory footprint of the column store.
+     *
+     * @return The column store statistics.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getColumnStoreStats() {
+        return ResponseEntity.ok(rewardColumnStore.stats());
+    }
+
+    /**
+     * Endpoint to write the column store to its snapshot file now, rather than on the snapshot schedule.
+     *
+     * @return The customers, transactions, high-water mark, bytes and milliseconds of the snapshot written,
+     *         or 409 if the store is not ready or no snapshot file is configured.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<Map<String, Long>> writeColumnStoreSnapshot() throws IOException {
+        Map<String, Long> snapshot = rewardColumnStore.writeSnapshot();
+        if (snapshot.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(snapshot);
+    }
+}
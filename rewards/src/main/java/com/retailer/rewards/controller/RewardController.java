@@ -2,20 +2,31 @@ package com.retailer.rewards.controller;
 
 import com.retailer.rewards.exception.CustomerAlreadyExistsException; // Import new exceptions
 import com.retailer.rewards.exception.CustomerNotFoundException;    // Import new exceptions
+import com.retailer.rewards.exception.InvalidRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.BulkRewardRequest;
+import com.retailer.rewards.dto.BulkRewardResult;
 import com.retailer.rewards.dto.RewardSummary;
 import com.retailer.rewards.entity.Customer;
 import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.event.TransactionRecordedEvent;
 import com.retailer.rewards.repository.CustomerRepository;
 import com.retailer.rewards.repository.TransactionRepository;
 import com.retailer.rewards.service.RewardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -26,15 +37,24 @@ import java.util.Optional;
 @RequestMapping
 public class RewardController {
 
+    static final String NEXT_AFTER_HEADER = "X-Next-After";
+
     private final RewardService rewardService;
     private final CustomerRepository customerRepository;
     private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final RewardProperties rewardProperties;
 
     @Autowired
-    public RewardController(RewardService rewardService, CustomerRepository customerRepository, TransactionRepository transactionRepository) {
+    public RewardController(RewardService rewardService, CustomerRepository customerRepository, TransactionRepository transactionRepository,
+                            ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper, RewardProperties rewardProperties) {
         this.rewardService = rewardService;
         this.customerRepository = customerRepository;
         this.transactionRepository = transactionRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.rewardProperties = rewardProperties;
     }
 
     /**
@@ -58,12 +78,14 @@ public class RewardController {
     /**
      * Endpoint to save a new transaction.
      * Assumes the customer already exists in the database.
+     * Publishes a TransactionRecordedEvent within the same database transaction as the save.
      *
      * @param transactionRequest A map containing "customerId", "amount", and "transactionDate".
      * @return The saved Transaction object.
      * @throws CustomerNotFoundException if the customer associated with the transaction is not found.
      */
     @PostMapping("/transactions")
+    @Transactional
     public ResponseEntity<Transaction> createTransaction(@RequestBody Map<String, Object> transactionRequest) {
         String customerId = (String) transactionRequest.get("customerId");
         Double amount = ((Number) transactionRequest.get("amount")).doubleValue();
@@ -74,23 +96,111 @@ public class RewardController {
             throw new CustomerNotFoundException("Customer with ID '" + customerId + "' not found.");
         }
 
-        Transaction transaction = new Transaction(customerOptional.get(), amount, transactionDate);
+        Customer customer = customerOptional.get();
+        Transaction transaction = new Transaction(customer, amount, transactionDate);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionRecordedEvent(savedTransaction.getId(), customerId,
+                savedTransaction.getAmountCents(), savedTransaction.getTransactionDate(), customer.getSegment()));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedTransaction);
     }
 
     /**
      * Endpoint to calculate reward points for all customers based on all transactions in the database.
+     * When "after" or "limit" is given, returns one page of customers in customerId order instead;
+     * the X-Next-After header carries the cursor of the next page and is absent on the last page.
+     * Example: /rewards/calculate/all?after=CUST100&limit=500
      *
+     * @param after The customerId the page starts after (optional).
+     * @param limit The maximum number of customers in the page (optional).
      * @return A list of RewardSummary objects, detailing points per customer per month and total.
+     * @throws InvalidRequestException if the limit is outside 1 to "rewards.pagination.max-limit".
      */
     @GetMapping("/rewards/calculate/all")
-    public ResponseEntity<List<RewardSummary>> calculateAllRewardPoints() {
-        List<RewardSummary> rewardSummaries = rewardService.calculateRewardsForAllCustomers();
-        if (rewardSummaries.isEmpty()) {
-            return ResponseEntity.noContent().build(); // 204 No Content if no rewards calculated
+    public ResponseEntity<List<RewardSummary>> calculateAllRewardPoints(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<RewardSummary> rewardSummaries = rewardService.calculateRewardsForAllCustomers();
+            if (rewardSummaries.isEmpty()) {
+                return ResponseEntity.noContent().build(); // 204 No Content if no rewards calculated
+            }
+            return ResponseEntity.ok(rewardSummaries);
+        }
+
+        int pageSize = limit != null ? limit : rewardProperties.getPagination().getDefaultLimit();
+        int maxLimit = rewardProperties.getPagination().getMaxLimit();
+        if (pageSize < 1 || pageSize > maxLimit) {
+            throw new InvalidRequestException("Parameter 'limit' must be between 1 and " + maxLimit + ".");
+        }
+
+        List<RewardSummary> page = rewardService.calculateRewardsForCustomerPage(after, pageSize);
+        if (page.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_AFTER_HEADER, page.get(page.size() - 1).getCustomerId());
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Endpoint to stream reward points for all customers as newline-delimited JSON, one RewardSummary per line
+     * in customerId order. Customers are computed and written a page at a time, so memory use and the time
+     * to the first line do not grow with the number of customers.
+     *
+     * @return A streamed body of RewardSummary lines; empty if there are no transactions.
+     */
+    @GetMapping(value = "/rewards/calculate/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllRewardPoints() {
+        int pageSize = rewardProperties.getPagination().getDefaultLimit();
+        StreamingResponseBody body = outputStream -> {
+            String after = null;
+            List<RewardSummary> page;
+            do {
+                page = rewardService.calculateRewardsForCustomerPage(after, pageSize);
+                for (RewardSummary summary : page) {
+                    outputStream.write(objectMapper.writeValueAsBytes(summary));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getCustomerId();
+                }
+            } while (page.size() == pageSize);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Endpoint to calculate reward points for many customers within the same date range.
+     * Unlike the per-customer endpoint, customers that are unknown or have no transactions in the period
+     * are listed in "notFound" rather than failing the request.
+     * Example body: {"customerIds": ["CUST001", "CUST002"], "startDate": "2025-01-01", "endDate": "2025-03-31"}
+     *
+     * @param request The customer IDs and the period.
+     * @return The summaries keyed by customer ID, in request order, and the customers not found.
+     * @throws InvalidRequestException if no customer IDs or dates are given, the start date is after the
+     *         end date, or there are more customer IDs than "rewards.bulk.max-customers".
+     */
+    @PostMapping("/rewards/calculate/bulk")
+    public ResponseEntity<BulkRewardResult> calculateBulkRewardPoints(@RequestBody BulkRewardRequest request) {
+        List<String> customerIds = request.getCustomerIds();
+        int maxCustomers = rewardProperties.getBulk().getMaxCustomers();
+        if (customerIds == null || customerIds.isEmpty() || customerIds.size() > maxCustomers) {
+            throw new InvalidRequestException("Field 'customerIds' must contain between 1 and " + maxCustomers + " IDs.");
+        }
+        if (customerIds.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidRequestException("Field 'customerIds' must not contain null.");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new InvalidRequestException("Fields 'startDate' and 'endDate' are required.");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new InvalidRequestException("Field 'startDate' must not be after 'endDate'.");
         }
-        return ResponseEntity.ok(rewardSummaries);
+        return ResponseEntity.ok(rewardService.calculateRewardsForCustomersInPeriod(customerIds,
+                request.getStartDate(), request.getEndDate()));
     }
 
     /**
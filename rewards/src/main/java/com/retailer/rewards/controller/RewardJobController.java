@@ -0,0 +1,76 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.dto.RewardJob;
+import com.retailer.rewards.exception.RewardJobNotCompletedException;
+import com.retailer.rewards.service.RewardJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * REST controller for running the full rewards recalculation as a background job.
+ */
+
+@RestController
+@RequestMapping("/rewards/jobs")
+public class RewardJobController {
+
+    private final RewardJobService rewardJobService;
+
+    @Autowired
+    public RewardJobController(RewardJobService rewardJobService) {
+        this.rewardJobService = rewardJobService;
+    }
+
+    /**
+     * Endpoint to start a full recalculation for all customers.
+     * While a recalculation is queued or running, the same job is returned instead of starting another.
+     *
+     * @return 202 Accepted with the job and its status URL in the Location header.
+     */
+    @PostMapping
+    public ResponseEntity<RewardJob> submitJob() {
+        RewardJob job = rewardJobService.submit();
+        return ResponseEntity.accepted().location(URI.create("/rewards/jobs/" + job.getId())).body(job);
+    }
+
+    /**
+     * Endpoint to follow a job.
+     *
+     * @param jobId The job ID returned on submission.
+     * @return The job status, rows processed, customers done and, once completed, the result URL.
+     * @throws com.retailer.rewards.exception.RewardJobNotFoundException if the job is unknown.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<RewardJob> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(rewardJobService.getJob(jobId));
+    }
+
+    /**
+     * Endpoint to download the result of a completed job as newline-delimited JSON, one RewardSummary
+     * per line in customerId order.
+     *
+     * @param jobId The job ID returned on submission.
+     * @return The result file.
+     * @throws RewardJobNotCompletedException if the job has not completed.
+     */
+    @GetMapping(value = "/{jobId}/result", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Resource> downloadResult(@PathVariable String jobId) {
+        RewardJob job = rewardJobService.getJob(jobId);
+        if (job.getStatus() != RewardJob.Status.COMPLETED) {
+            throw new RewardJobNotCompletedException(jobId, job.getStatus().name());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("rewards-" + jobId + ".ndjson").build().toString())
+                .body(new FileSystemResource(job.getResultFile()));
+    }
+}
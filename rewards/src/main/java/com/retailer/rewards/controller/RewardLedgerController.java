@@ -0,0 +1,47 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.dto.LedgerDiscrepancy;
+import com.retailer.rewards.service.RewardLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for maintaining the customer monthly points ledger.
+ */
+
+@RestController
+@RequestMapping("/rewards/ledger")
+public class RewardLedgerController {
+
+    private final RewardLedgerService rewardLedgerService;
+
+    @Autowired
+    public RewardLedgerController(RewardLedgerService rewardLedgerService) {
+        this.rewardLedgerService = rewardLedgerService;
+    }
+
+    /**
+     * Endpoint to rebuild the ledger from the transaction table.
+     *
+     * @return The number of ledger rows written.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildLedger() {
+        int rows = rewardLedgerService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    /**
+     * Endpoint to check the ledger against a recomputation from the transaction table.
+     *
+     * @return The discrepancies found; an empty list when the ledger is consistent.
+     */
+    @GetMapping("/verify")
+    public ResponseEntity<List<LedgerDiscrepancy>> verifyLedger() {
+        return ResponseEntity.ok(rewardLedgerService.verify());
+    }
+}
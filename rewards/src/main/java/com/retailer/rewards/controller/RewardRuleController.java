@@ -0,0 +1,62 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.entity.RewardRule;
+import com.retailer.rewards.service.RewardRulePlan;
+import com.retailer.rewards.service.RewardRuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for the reward rules.
+ */
+
+@RestController
+@RequestMapping("/rewards/rules")
+public class RewardRuleController {
+
+    private final RewardRuleService rewardRuleService;
+
+    @Autowired
+    public RewardRuleController(RewardRuleService rewardRuleService) {
+        this.rewardRuleService = rewardRuleService;
+    }
+
+    /**
+     * Endpoint to get the rules in effect.
+     *
+     * @return The plan version and the rules it was compiled from; no rules means the built-in tiers.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRules() {
+        return ResponseEntity.ok(describe(rewardRuleService.plan()));
+    }
+
+    /**
+     * Endpoint to replace all reward rules. The new rules apply to calculations started after the response.
+     *
+     * @param rules The new rules; an empty list restores the built-in tiers.
+     * @return The plan version and rules in effect after the change.
+     */
+    @PutMapping
+    public ResponseEntity<Map<String, Object>> replaceRules(@RequestBody List<RewardRule> rules) {
+        return ResponseEntity.ok(describe(rewardRuleService.replaceRules(rules)));
+    }
+
+    /**
+     * Endpoint to reload the rules after the reward_rule table was changed directly.
+     *
+     * @return The plan version and rules in effect after the reload.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadRules() {
+        return ResponseEntity.ok(describe(rewardRuleService.reload()));
+    }
+
+    private static Map<String, Object> describe(RewardRulePlan plan) {
+        return Map.of("version", plan.getVersion(), "rules", plan.getRules());
+    }
+}
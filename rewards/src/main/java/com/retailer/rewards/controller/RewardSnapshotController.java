@@ -0,0 +1,46 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.entity.RewardMonthClose;
+import com.retailer.rewards.service.RewardSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for the month-close reward snapshots.
+ */
+
+@RestController
+@RequestMapping("/rewards/snapshots")
+public class RewardSnapshotController {
+
+    private final RewardSnapshotService rewardSnapshotService;
+
+    @Autowired
+    public RewardSnapshotController(RewardSnapshotService rewardSnapshotService) {
+        this.rewardSnapshotService = rewardSnapshotService;
+    }
+
+    /**
+     * Endpoint to list the close state of each month.
+     *
+     * @return The closed months with their close time and dirty flag.
+     */
+    @GetMapping
+    public ResponseEntity<List<RewardMonthClose>> listClosedMonths() {
+        return ResponseEntity.ok(rewardSnapshotService.listClosedMonths());
+    }
+
+    /**
+     * Endpoint to close past months immediately instead of waiting for the scheduled run.
+     *
+     * @return The months that were closed or re-closed.
+     */
+    @PostMapping("/close")
+    public ResponseEntity<Map<String, List<String>>> closeMonths() {
+        return ResponseEntity.ok(Map.of("months", rewardSnapshotService.closeMonths()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.dto.BatchIngestResult;
+import com.retailer.rewards.service.TransactionIngestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST controller for bulk transaction ingestion.
+ */
+
+@RestController
+@RequestMapping("/transactions")
+public class TransactionIngestController {
+
+    private final TransactionIngestService transactionIngestService;
+
+    @Autowired
+    public TransactionIngestController(TransactionIngestService transactionIngestService) {
+        this.transactionIngestService = transactionIngestService;
+    }
+
+    /**
+     * Endpoint to save many transactions sent as a JSON array.
+     * Each element has the same fields as POST /transactions.
+     *
+     * @param body The request body, read as a stream.
+     * @return The counts of received and inserted rows, and the rows that were rejected.
+     * @throws IOException if the body is not a well-formed JSON array.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchIngestResult> createTransactionsFromJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(transactionIngestService.ingestJsonArray(body));
+    }
+
+    /**
+     * Endpoint to save many transactions sent as newline-delimited JSON, one transaction per line.
+     *
+     * @param body The request body, read line by line as it arrives.
+     * @return The counts of received and inserted rows, and the rows that were rejected.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchIngestResult> createTransactionsFromNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(transactionIngestService.ingestNdjson(body));
+    }
+}
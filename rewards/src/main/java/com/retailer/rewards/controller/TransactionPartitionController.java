@@ -0,0 +1,46 @@
+package com.retailer.rewards.controller;
+
+import com.retailer.rewards.dto.PartitionMaintenanceResult;
+import com.retailer.rewards.dto.TransactionPartition;
+import com.retailer.rewards.service.TransactionPartitionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for inspecting and maintaining the monthly partitions of the transaction table.
+ */
+
+@RestController
+@RequestMapping("/transactions/partitions")
+public class TransactionPartitionController {
+
+    private final TransactionPartitionService transactionPartitionService;
+
+    @Autowired
+    public TransactionPartitionController(TransactionPartitionService transactionPartitionService) {
+        this.transactionPartitionService = transactionPartitionService;
+    }
+
+    /**
+     * Endpoint to list the partitions of the transaction table.
+     *
+     * @return The partitions in range order; an empty list if the table is not partitioned.
+     */
+    @GetMapping
+    public ResponseEntity<List<TransactionPartition>> listPartitions() {
+        return ResponseEntity.ok(transactionPartitionService.listPartitions());
+    }
+
+    /**
+     * Endpoint to run partition maintenance immediately instead of waiting for the scheduled run.
+     *
+     * @return The partitions created, archived and dropped.
+     */
+    @PostMapping("/maintain")
+    public ResponseEntity<PartitionMaintenanceResult> maintainPartitions() {
+        return ResponseEntity.ok(transactionPartitionService.maintain());
+    }
+}
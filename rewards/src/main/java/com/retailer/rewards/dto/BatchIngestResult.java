@@ -0,0 +1,90 @@
+package com.retailer.rewards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Outcome of a batch ingestion request: counts plus the rows that could not be inserted. */
+public class BatchIngestResult {
+
+    private int received;
+    private int inserted;
+    private List<RowFailure> failures = new ArrayList<>();
+
+    // Getters and Setters
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public List<RowFailure> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<RowFailure> failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * Records a row that was rejected.
+     * @param row The 1-based position of the row in the request body.
+     * @param customerId The customer ID of the row, if known.
+     * @param message The reason the row was rejected.
+     */
+    public void addFailure(int row, String customerId, String message) {
+        this.failures.add(new RowFailure(row, customerId, message));
+    }
+
+    /** A rejected row of a batch. */
+    public static class RowFailure {
+
+        private int row;
+        private String customerId;
+        private String message;
+
+        public RowFailure(int row, String customerId, String message) {
+            this.row = row;
+            this.customerId = customerId;
+            this.message = message;
+        }
+
+        // Default constructor for JSON serialization/deserialization
+        public RowFailure() {
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public String getCustomerId() {
+            return customerId;
+        }
+
+        public void setCustomerId(String customerId) {
+            this.customerId = customerId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
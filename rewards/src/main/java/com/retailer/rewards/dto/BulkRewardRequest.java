@@ -0,0 +1,48 @@
+package com.retailer.rewards.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Request for the reward points of many customers over one period. */
+public class BulkRewardRequest {
+
+    private List<String> customerIds;
+    private LocalDate startDate; // "YYYY-MM-DD", inclusive
+    private LocalDate endDate; // "YYYY-MM-DD", inclusive
+
+    // Default constructor for JSON serialization/deserialization
+    public BulkRewardRequest() {
+    }
+
+    public BulkRewardRequest(List<String> customerIds, LocalDate startDate, LocalDate endDate) {
+        this.customerIds = customerIds;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+
+    public List<String> getCustomerIds() {
+        return customerIds;
+    }
+
+    public void setCustomerIds(List<String> customerIds) {
+        this.customerIds = customerIds;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+}
@@ -0,0 +1,34 @@
+package com.retailer.rewards.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk reward request: the summary of every customer with transactions in the period,
+ * keyed by customer ID in request order, plus the customers that are unknown or have no transactions in it.
+ */
+public class BulkRewardResult {
+
+    private Map<String, RewardSummary> summaries = new LinkedHashMap<>();
+    private List<String> notFound = new ArrayList<>();
+
+    // Getters and Setters
+
+    public Map<String, RewardSummary> getSummaries() {
+        return summaries;
+    }
+
+    public void setSummaries(Map<String, RewardSummary> summaries) {
+        this.summaries = summaries;
+    }
+
+    public List<String> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
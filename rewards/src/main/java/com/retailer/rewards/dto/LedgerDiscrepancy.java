@@ -0,0 +1,88 @@
+package com.retailer.rewards.dto;
+
+/** Describes a ledger row whose points or transaction count differ from a recomputation from raw transactions. */
+public class LedgerDiscrepancy {
+
+    private String customerId;
+    private String rewardMonth; // "YYYY-MM"
+    private int ledgerPoints;
+    private int expectedPoints;
+    private long ledgerTransactionCount;
+    private long expectedTransactionCount;
+
+    public LedgerDiscrepancy(String customerId, String rewardMonth, int ledgerPoints, int expectedPoints,
+                             long ledgerTransactionCount, long expectedTransactionCount) {
+        this.customerId = customerId;
+        this.rewardMonth = rewardMonth;
+        this.ledgerPoints = ledgerPoints;
+        this.expectedPoints = expectedPoints;
+        this.ledgerTransactionCount = ledgerTransactionCount;
+        this.expectedTransactionCount = expectedTransactionCount;
+    }
+
+    // Default constructor for JSON serialization/deserialization
+    public LedgerDiscrepancy() {
+    }
+
+    // Getters and Setters
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getRewardMonth() {
+        return rewardMonth;
+    }
+
+    public void setRewardMonth(String rewardMonth) {
+        this.rewardMonth = rewardMonth;
+    }
+
+    public int getLedgerPoints() {
+        return ledgerPoints;
+    }
+
+    public void setLedgerPoints(int ledgerPoints) {
+        this.ledgerPoints = ledgerPoints;
+    }
+
+    public int getExpectedPoints() {
+        return expectedPoints;
+    }
+
+    public void setExpectedPoints(int expectedPoints) {
+        this.expectedPoints = expectedPoints;
+    }
+
+    public long getLedgerTransactionCount() {
+        return ledgerTransactionCount;
+    }
+
+    public void setLedgerTransactionCount(long ledgerTransactionCount) {
+        this.ledgerTransactionCount = ledgerTransactionCount;
+    }
+
+    public long getExpectedTransactionCount() {
+        return expectedTransactionCount;
+    }
+
+    public void setExpectedTransactionCount(long expectedTransactionCount) {
+        this.expectedTransactionCount = expectedTransactionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LedgerDiscrepancy{" +
+                "customerId='" + customerId + '\'' +
+                ", rewardMonth='" + rewardMonth + '\'' +
+                ", ledgerPoints=" + ledgerPoints +
+                ", expectedPoints=" + expectedPoints +
+                ", ledgerTransactionCount=" + ledgerTransactionCount +
+                ", expectedTransactionCount=" + expectedTransactionCount +
+                '}';
+    }
+}
@@ -0,0 +1,191 @@
+package com.retailer.rewards.dto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Primitive accumulator of reward points per month.
+ * Months are held as epoch-month ints (year * 12 + month - 1) in sorted parallel arrays, so adding
+ * points to a month already present allocates nothing. The "YYYY-MM" keys are only built by toMap() and asMap().
+ */
+public final class MonthlyPoints {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] months = new int[INITIAL_CAPACITY];
+    private int[] points = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return The epoch month of the given date.
+     */
+    public static int epochMonth(LocalDate date) {
+        return epochMonth(date.getYear(), date.getMonthValue());
+    }
+
+    /**
+     * @param month The month of the year, 1 to 12.
+     * @return The epoch month of the given year and month.
+     */
+    public static int epochMonth(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * @param monthKey The month in "YYYY-MM" format.
+     * @return The epoch month of the given month key.
+     */
+    public static int epochMonth(String monthKey) {
+        YearMonth yearMonth = YearMonth.parse(monthKey);
+        return epochMonth(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+
+    /**
+     * @return The month in "YYYY-MM" format, identical to YearMonth.toString().
+     */
+    public static String monthKey(int epochMonth) {
+        int year = Math.floorDiv(epochMonth, 12);
+        int month = Math.floorMod(epochMonth, 12) + 1;
+        if (year < 0 || year > 9999) {
+            return YearMonth.of(year, month).toString();
+        }
+        char[] chars = {
+                digit(year / 1000), digit(year / 100), digit(year / 10), digit(year),
+                '-', digit(month / 10), digit(month)
+        };
+        return new String(chars);
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value % 10);
+    }
+
+    /**
+     * Adds points to a month, creating it with the given points if not present.
+     */
+    public void add(int epochMonth, int value) {
+        int index = Arrays.binarySearch(months, 0, size, epochMonth);
+        if (index >= 0) {
+            points[index] += value;
+            return;
+        }
+
+        int insertAt = -index - 1;
+        if (size == months.length) {
+            months = Arrays.copyOf(months, size * 2);
+            points = Arrays.copyOf(points, size * 2);
+        }
+        System.arraycopy(months, insertAt, months, insertAt + 1, size - insertAt);
+        System.arraycopy(points, insertAt, points, insertAt + 1, size - insertAt);
+        months[insertAt] = epochMonth;
+        points[insertAt] = value;
+        size++;
+    }
+
+    /**
+     * Adds every month of another accumulator to this one.
+     */
+    public void addAll(MonthlyPoints other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.months[i], other.points[i]);
+        }
+    }
+
+    /**
+     * @return The points of the month, or 0 if the month is not present.
+     */
+    public int get(int epochMonth) {
+        int index = Arrays.binarySearch(months, 0, size, epochMonth);
+        return index >= 0 ? points[index] : 0;
+    }
+
+    /**
+     * @return The number of months present.
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return An unmodifiable view of "YYYY-MM" keys to points, in month order, that follows later additions.
+     *         The keys are built as the view is read.
+     */
+    public Map<String, Integer> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, Integer>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Integer>> iterator() {
+                        return new Iterator<>() {
+                            private int next;
+
+                            @Override
+                            public boolean hasNext() {
+                                return next < size;
+                            }
+
+                            @Override
+                            public Entry<String, Integer> next() {
+                                if (next >= size) {
+                                    throw new NoSuchElementException();
+                                }
+                                Entry<String, Integer> entry = Map.entry(monthKey(months[next]), points[next]);
+                                next++;
+                                return entry;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+
+            @Override
+            public Integer get(Object monthKey) {
+                if (!(monthKey instanceof String key)) {
+                    return null;
+                }
+                int index;
+                try {
+                    index = Arrays.binarySearch(months, 0, size, epochMonth(key));
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+                return index >= 0 ? points[index] : null;
+            }
+
+            @Override
+            public boolean containsKey(Object monthKey) {
+                return get(monthKey) != null;
+            }
+        };
+    }
+
+    /**
+     * @return A new map of "YYYY-MM" keys to points, in month order.
+     */
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(monthKey(months[i]), points[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,17 @@
+package com.retailer.rewards.dto;
+
+/**
+ * Projection of reward points aggregated by the database for one customer and month.
+ */
+public interface MonthlyPointsProjection {
+
+    String getCustomerId();
+
+    Number getRewardYear();
+
+    Number getRewardMonth();
+
+    Number getPoints();
+
+    Number getTransactionCount();
+}
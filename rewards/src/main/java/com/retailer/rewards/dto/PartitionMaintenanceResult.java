@@ -0,0 +1,47 @@
+package com.retailer.rewards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Result of a transaction partition maintenance run. */
+public class PartitionMaintenanceResult {
+
+    private List<String> created = new ArrayList<>(); // Partitions added for upcoming months
+    private List<String> archived = new ArrayList<>(); // Partitions copied to transaction_archive
+    private List<String> dropped = new ArrayList<>(); // Partitions dropped by the retention policy
+
+    // Getters and Setters
+
+    public List<String> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<String> created) {
+        this.created = created;
+    }
+
+    public List<String> getArchived() {
+        return archived;
+    }
+
+    public void setArchived(List<String> archived) {
+        this.archived = archived;
+    }
+
+    public List<String> getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(List<String> dropped) {
+        this.dropped = dropped;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionMaintenanceResult{" +
+                "created=" + created +
+                ", archived=" + archived +
+                ", dropped=" + dropped +
+                '}';
+    }
+}
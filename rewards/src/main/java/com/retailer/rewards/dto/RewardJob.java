@@ -0,0 +1,119 @@
+package com.retailer.rewards.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * State and progress of an asynchronous full rewards recalculation.
+ * Updated only by the job thread; fields are volatile so status requests see current progress.
+ */
+@JsonPropertyOrder({"id", "status", "submittedAt", "startedAt", "finishedAt", "rowsProcessed", "customersDone", "resultUrl", "error"})
+public class RewardJob {
+
+    /** Lifecycle of a job. */
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final Instant submittedAt;
+    private final Path resultFile; // NDJSON file the summaries are written to
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long rowsProcessed; // Transactions read so far
+    private volatile int customersDone; // Summaries written so far
+    private volatile String error;
+
+    public RewardJob(String id, Instant submittedAt, Path resultFile) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+        this.resultFile = resultFile;
+    }
+
+    public void start(Instant startedAt) {
+        this.startedAt = startedAt;
+        this.status = Status.RUNNING;
+    }
+
+    public void addRowsProcessed(int rows) {
+        rowsProcessed += rows;
+    }
+
+    public void addCustomersDone(int customers) {
+        customersDone += customers;
+    }
+
+    public void complete(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(Instant finishedAt, String error) {
+        this.finishedAt = finishedAt;
+        this.error = error;
+        this.status = Status.FAILED;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // Getters
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public int getCustomersDone() {
+        return customersDone;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return The path the result can be downloaded from, or null until the job has completed.
+     */
+    public String getResultUrl() {
+        return status == Status.COMPLETED ? "/rewards/jobs/" + id + "/result" : null;
+    }
+
+    @JsonIgnore
+    public Path getResultFile() {
+        return resultFile;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardJob{" +
+                "id='" + id + '\'' +
+                ", status=" + status +
+                ", rowsProcessed=" + rowsProcessed +
+                ", customersDone=" + customersDone +
+                '}';
+    }
+}
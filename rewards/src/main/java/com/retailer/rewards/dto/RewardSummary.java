@@ -1,24 +1,25 @@
 package com.retailer.rewards.dto;
 
-import java.util.HashMap;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.util.Map;
 
 /** Represents the reward points summary for a customer. */
+@JsonPropertyOrder({"customerId", "monthlyRewardPoints", "totalRewardPoints"})
 public class RewardSummary {
 
     private String customerId;
-    private Map<String, Integer> monthlyRewardPoints; // Key: "YYYY-MM", Value: points for that month
+    private final MonthlyPoints monthlyPoints = new MonthlyPoints(); // Serialized as "YYYY-MM" -> points
+    private final Map<String, Integer> monthlyRewardPoints = monthlyPoints.asMap();
     private int totalRewardPoints;
 
     public RewardSummary(String customerId) {
         this.customerId = customerId;
-        this.monthlyRewardPoints = new HashMap<>();
         this.totalRewardPoints = 0;
     }
 
     // Default constructor for JSON serialization/deserialization
     public RewardSummary() {
-        this.monthlyRewardPoints = new HashMap<>();
     }
 
     // Getters and Setters
@@ -31,12 +32,31 @@ public class RewardSummary {
         this.customerId = customerId;
     }
 
+    /**
+     * @return An unmodifiable view of "YYYY-MM" keys to points, in month order; use addPoints or
+     *         setMonthlyRewardPoints to change it.
+     */
     public Map<String, Integer> getMonthlyRewardPoints() {
         return monthlyRewardPoints;
     }
 
     public void setMonthlyRewardPoints(Map<String, Integer> monthlyRewardPoints) {
-        this.monthlyRewardPoints = monthlyRewardPoints;
+        if (monthlyRewardPoints == this.monthlyRewardPoints) {
+            return;
+        }
+        this.monthlyPoints.clear();
+        monthlyRewardPoints.forEach(this::putPoints);
+    }
+
+    private void putPoints(String monthKey, Integer points) {
+        this.monthlyPoints.add(MonthlyPoints.epochMonth(monthKey), points);
+    }
+
+    /**
+     * @return The monthly points keyed by epoch month.
+     */
+    public MonthlyPoints monthlyPoints() {
+        return monthlyPoints;
     }
 
     public int getTotalRewardPoints() {
@@ -53,15 +73,35 @@ public class RewardSummary {
      * @param points The points to add.
      */
     public void addPoints(String monthKey, int points){
-        this.monthlyRewardPoints.merge(monthKey, points, Integer::sum);
+        addPoints(MonthlyPoints.epochMonth(monthKey), points);
+    }
+
+    /**
+     * Adds points to a specific month and updates the total, without allocating.
+     * @param epochMonth The month as returned by MonthlyPoints.epochMonth.
+     * @param points The points to add.
+     */
+    public void addPoints(int epochMonth, int points){
+        this.monthlyPoints.add(epochMonth, points);
         this.totalRewardPoints += points;
     }
 
+    /**
+     * Adds the monthly and total points of another summary of the same customer to this one.
+     * @param other The summary to merge in.
+     * @return This summary.
+     */
+    public RewardSummary merge(RewardSummary other){
+        this.monthlyPoints.addAll(other.monthlyPoints);
+        this.totalRewardPoints += other.totalRewardPoints;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "RewardSummary{" +
                 "customerId='" + customerId + '\'' +
-                ", monthlyRewardPoints=" + monthlyRewardPoints +
+                ", monthlyRewardPoints=" + monthlyPoints.toMap() +
                 ", totalRewardPoints=" + totalRewardPoints +
                 '}';
     }
@@ -0,0 +1,56 @@
+package com.retailer.rewards.dto;
+
+import java.time.LocalDate;
+
+/** Describes one monthly range partition of the transaction table. */
+public class TransactionPartition {
+
+    private String name;
+    private LocalDate upperBound; // Exclusive; null for the MAXVALUE partition
+    private long rows; // Estimated by the database
+
+    public TransactionPartition(String name, LocalDate upperBound, long rows) {
+        this.name = name;
+        this.upperBound = upperBound;
+        this.rows = rows;
+    }
+
+    // Default constructor for JSON serialization/deserialization
+    public TransactionPartition() {
+    }
+
+    // Getters and Setters
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDate getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(LocalDate upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionPartition{" +
+                "name='" + name + '\'' +
+                ", upperBound=" + upperBound +
+                ", rows=" + rows +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.retailer.rewards.dto;
+
+/** One transaction in a batch ingestion request. Values are validated per row by the ingest service. */
+public class TransactionRequest {
+
+    private String customerId;
+    private Double amount;
+    private String transactionDate; // "YYYY-MM-DD"
+
+    // Default constructor for JSON serialization/deserialization
+    public TransactionRequest() {
+    }
+
+    public TransactionRequest(String customerId, Double amount, String transactionDate) {
+        this.customerId = customerId;
+        this.amount = amount;
+        this.transactionDate = transactionDate;
+    }
+
+    // Getters and Setters
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public String getTransactionDate() {
+        return transactionDate;
+    }
+
+    public void setTransactionDate(String transactionDate) {
+        this.transactionDate = transactionDate;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionRequest{" +
+                "customerId='" + customerId + '\'' +
+                ", amount=" + amount +
+                ", transactionDate='" + transactionDate + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.retailer.rewards.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a transaction carrying only the fields needed for reward calculation.
+ * Instances are created by constructor expressions and are never managed by the persistence context.
+ */
+public class TransactionView {
+
+    private final long id;
+    private final String customerId;
+    private final long amountCents;
+    private final LocalDate transactionDate;
+    private final String segment;
+
+    public TransactionView(long id, String customerId, long amountCents, LocalDate transactionDate, String segment) {
+        this.id = id;
+        this.customerId = customerId;
+        this.amountCents = amountCents;
+        this.transactionDate = transactionDate;
+        this.segment = segment;
+    }
+
+    // For customers without a segment
+    public TransactionView(long id, String customerId, long amountCents, LocalDate transactionDate) {
+        this(id, customerId, amountCents, transactionDate, null);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public LocalDate getTransactionDate() {
+        return transactionDate;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+}
@@ -16,6 +16,10 @@ public class Customer {
 
     private String name; // Customer's name
 
+    // Segment selecting segment-specific reward rules; null for none. Immutable once the customer has transactions,
+    // as the ledger, the event outbox and the column store keep the segment a transaction was recorded with
+    private String segment;
+
     // Default constructor for JPA
     public Customer(){
 
@@ -51,12 +55,21 @@ public class Customer {
         this.name = name;
     }
 
+    public String getSegment() {
+        return segment;
+    }
+
+    public void setSegment(String segment) {
+        this.segment = segment;
+    }
+
     @Override
     public String toString() {
         return "Customer{" +
                 "id=" + id +
                 ", customerId='" + customerId + '\'' +
                 ", name='" + name + '\'' +
+                ", segment='" + segment + '\'' +
                 '}';
     }
 }
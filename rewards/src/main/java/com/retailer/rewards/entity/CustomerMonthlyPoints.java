@@ -0,0 +1,88 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+
+/** Materialized reward points of one customer for one month, maintained as transactions are recorded. */
+
+@Entity
+@Table(name = "customer_monthly_points",
+        uniqueConstraints = @UniqueConstraint(name = "uk_customer_monthly_points", columnNames = {"customer_id", "reward_month"}))
+public class CustomerMonthlyPoints {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id; // Primary key for the ledger row
+
+    @Column(name = "customer_id", nullable = false)
+    private String customerId; // Business ID of the customer
+
+    @Column(name = "reward_month", nullable = false, length = 7)
+    private String rewardMonth; // Month in "YYYY-MM" format
+
+    private int points;
+    private long transactionCount;
+
+    // Default constructor for JPA
+    public CustomerMonthlyPoints(){
+
+    }
+
+    public CustomerMonthlyPoints(String customerId, String rewardMonth, int points, long transactionCount) {
+        this.customerId = customerId;
+        this.rewardMonth = rewardMonth;
+        this.points = points;
+        this.transactionCount = transactionCount;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getRewardMonth() {
+        return rewardMonth;
+    }
+
+    public void setRewardMonth(String rewardMonth) {
+        this.rewardMonth = rewardMonth;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerMonthlyPoints{" +
+                "id=" + id +
+                ", customerId='" + customerId + '\'' +
+                ", rewardMonth='" + rewardMonth + '\'' +
+                ", points=" + points +
+                ", transactionCount=" + transactionCount +
+                '}';
+    }
+}
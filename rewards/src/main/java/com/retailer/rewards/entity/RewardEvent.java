@@ -0,0 +1,110 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CurrentTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.generator.EventType;
+
+import java.time.Instant;
+
+/**
+ * Outbox row recording a change of reward points: the points a recorded transaction added to one month
+ * of one customer. Written in the database transaction that records the transaction and read back,
+ * in id order, by the change feed and the event relay.
+ */
+
+@Entity
+@Table(name = "reward_event")
+public class RewardEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id; // Position of the event in the change feed
+
+    @Column(name = "customer_id", nullable = false)
+    private String customerId; // Business ID of the customer
+
+    @Column(name = "reward_month", nullable = false, length = 7)
+    private String rewardMonth; // Month in "YYYY-MM" format
+
+    private int points; // Points added to the month
+
+    private long transactionId; // Transaction that added the points; 0 if its id was not returned by the batch insert
+
+    @CurrentTimestamp(event = EventType.INSERT, source = SourceType.DB)
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt; // When the event was written, by the database clock, before its transaction committed
+
+    // Default constructor for JPA
+    public RewardEvent(){
+
+    }
+
+    public RewardEvent(String customerId, String rewardMonth, int points, long transactionId) {
+        this.customerId = customerId;
+        this.rewardMonth = rewardMonth;
+        this.points = points;
+        this.transactionId = transactionId;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getRewardMonth() {
+        return rewardMonth;
+    }
+
+    public void setRewardMonth(String rewardMonth) {
+        this.rewardMonth = rewardMonth;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardEvent{" +
+                "id=" + id +
+                ", customerId='" + customerId + '\'' +
+                ", rewardMonth='" + rewardMonth + '\'' +
+                ", points=" + points +
+                ", transactionId=" + transactionId +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
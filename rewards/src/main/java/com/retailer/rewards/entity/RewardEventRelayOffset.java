@@ -0,0 +1,76 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Position of the event relay in the change feed for one sink: the id of the last event the sink accepted,
+ * and the ids below it that were missing when the relay passed them, because their transaction had not
+ * committed yet or rolled back. The relay reads the missed ids again on every run until they show up or
+ * are old enough to have rolled back.
+ */
+
+@Entity
+@Table(name = "reward_event_relay")
+public class RewardEventRelayOffset {
+
+    @Id
+    @Column(name = "sink", length = 64)
+    private String sink; // Name of the RewardEventSink
+
+    private long lastEventId; // Events up to this id have been published to the sink
+
+    private Instant relayedAt; // When the last batch was published
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "reward_event_relay_missed", joinColumns = @JoinColumn(name = "sink"))
+    @Column(name = "event_id")
+    private Set<Long> missedEventIds = new TreeSet<>(); // Ids below lastEventId not published yet
+
+    // Default constructor for JPA
+    public RewardEventRelayOffset(){
+
+    }
+
+    public RewardEventRelayOffset(String sink, long lastEventId, Instant relayedAt) {
+        this.sink = sink;
+        this.lastEventId = lastEventId;
+        this.relayedAt = relayedAt;
+    }
+
+    // Getters and Setters
+    public String getSink() {
+        return sink;
+    }
+
+    public void setSink(String sink) {
+        this.sink = sink;
+    }
+
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    public Instant getRelayedAt() {
+        return relayedAt;
+    }
+
+    public void setRelayedAt(Instant relayedAt) {
+        this.relayedAt = relayedAt;
+    }
+
+    public Set<Long> getMissedEventIds() {
+        return missedEventIds;
+    }
+
+    public void setMissedEventIds(Set<Long> missedEventIds) {
+        this.missedEventIds = missedEventIds;
+    }
+}
@@ -0,0 +1,68 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * State of the customer monthly points ledger, held in a single row: the rules its rows were last rebuilt with.
+ * Stored in the database, so every node and every restart can tell whether the ledger matches the current rules.
+ */
+
+@Entity
+@Table(name = "reward_ledger_state")
+public class RewardLedgerState {
+
+    public static final int ID = 1; // Id of the single row
+
+    @Id
+    private int id = ID;
+
+    @Column(length = 64)
+    private String rulesHash; // RewardRulePlan.getRulesHash() of the rules of the last completed rebuild
+
+    private Instant rebuiltAt; // When the last rebuild completed
+
+    // Default constructor for JPA
+    public RewardLedgerState(){
+
+    }
+
+    public RewardLedgerState(String rulesHash, Instant rebuiltAt) {
+        this.rulesHash = rulesHash;
+        this.rebuiltAt = rebuiltAt;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getRulesHash() {
+        return rulesHash;
+    }
+
+    public void setRulesHash(String rulesHash) {
+        this.rulesHash = rulesHash;
+    }
+
+    public Instant getRebuiltAt() {
+        return rebuiltAt;
+    }
+
+    public void setRebuiltAt(Instant rebuiltAt) {
+        this.rebuiltAt = rebuiltAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardLedgerState{" +
+                "rulesHash='" + rulesHash + '\'' +
+                ", rebuiltAt=" + rebuiltAt +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Close state of one month. A closed month is served from its snapshot rows unless it is dirty,
+ * i.e. a transaction dated in it was recorded after it was closed.
+ */
+
+@Entity
+@Table(name = "reward_month_close")
+public class RewardMonthClose {
+
+    @Id
+    @Column(name = "reward_month", length = 7)
+    private String rewardMonth; // Month in "YYYY-MM" format
+
+    private Instant closedAt; // When the snapshot was last written
+
+    private boolean dirty; // A late transaction arrived after the snapshot was written
+
+    // Default constructor for JPA
+    public RewardMonthClose(){
+
+    }
+
+    public RewardMonthClose(String rewardMonth, Instant closedAt, boolean dirty) {
+        this.rewardMonth = rewardMonth;
+        this.closedAt = closedAt;
+        this.dirty = dirty;
+    }
+
+    // Getters and Setters
+    public String getRewardMonth() {
+        return rewardMonth;
+    }
+
+    public void setRewardMonth(String rewardMonth) {
+        this.rewardMonth = rewardMonth;
+    }
+
+    public Instant getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(Instant closedAt) {
+        this.closedAt = closedAt;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardMonthClose{" +
+                "rewardMonth='" + rewardMonth + '\'' +
+                ", closedAt=" + closedAt +
+                ", dirty=" + dirty +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+
+/** Frozen reward points of one customer for one closed month, written by the month-close process. */
+
+@Entity
+@Table(name = "reward_month_snapshot",
+        uniqueConstraints = @UniqueConstraint(name = "uk_reward_month_snapshot", columnNames = {"reward_month", "customer_id"}))
+public class RewardMonthSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id; // Primary key for the snapshot row
+
+    @Column(name = "customer_id", nullable = false)
+    private String customerId; // Business ID of the customer
+
+    @Column(name = "reward_month", nullable = false, length = 7)
+    private String rewardMonth; // Month in "YYYY-MM" format
+
+    private int points;
+
+    // Default constructor for JPA
+    public RewardMonthSnapshot(){
+
+    }
+
+    public RewardMonthSnapshot(String customerId, String rewardMonth, int points) {
+        this.customerId = customerId;
+        this.rewardMonth = rewardMonth;
+        this.points = points;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getRewardMonth() {
+        return rewardMonth;
+    }
+
+    public void setRewardMonth(String rewardMonth) {
+        this.rewardMonth = rewardMonth;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardMonthSnapshot{" +
+                "customerId='" + customerId + '\'' +
+                ", rewardMonth='" + rewardMonth + '\'' +
+                ", points=" + points +
+                '}';
+    }
+}
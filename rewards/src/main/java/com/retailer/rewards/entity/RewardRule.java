@@ -0,0 +1,148 @@
+package com.retailer.rewards.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * One rule of the reward rule set. Rules are compiled together into a RewardRulePlan;
+ * when the table is empty the built-in $50 and $100 tiers apply.
+ */
+
+@Entity
+@Table(name = "reward_rule")
+public class RewardRule {
+
+    /** The kind of a rule, which decides the fields it uses. */
+    public enum Type {
+        TIER, // Earn "rate" points per whole dollar above "thresholdDollars", replacing the rate of lower tiers
+        MULTIPLIER // Scale the points of matching transactions by "multiplierPercent"; the highest matching one applies
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id; // Primary key for the rule
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    private String segment; // Customer segment the rule is limited to; null applies it to every customer
+    private Integer thresholdDollars; // TIER: whole dollars above which the rate applies
+    private Integer rate; // TIER: points per whole dollar above the threshold
+    private Integer multiplierPercent; // MULTIPLIER: 200 doubles the points
+    private LocalDate startDate; // MULTIPLIER: first transaction date the rule applies to; null is open-ended
+    private LocalDate endDate; // MULTIPLIER: last transaction date the rule applies to; null is open-ended
+    private String description;
+
+    // Default constructor for JPA
+    public RewardRule(){
+
+    }
+
+    public static RewardRule tier(String segment, int thresholdDollars, int rate) {
+        RewardRule rule = new RewardRule();
+        rule.type = Type.TIER;
+        rule.segment = segment;
+        rule.thresholdDollars = thresholdDollars;
+        rule.rate = rate;
+        return rule;
+    }
+
+    public static RewardRule multiplier(String segment, int multiplierPercent, LocalDate startDate, LocalDate endDate) {
+        RewardRule rule = new RewardRule();
+        rule.type = Type.MULTIPLIER;
+        rule.segment = segment;
+        rule.multiplierPercent = multiplierPercent;
+        rule.startDate = startDate;
+        rule.endDate = endDate;
+        return rule;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    public void setSegment(String segment) {
+        this.segment = segment;
+    }
+
+    public Integer getThresholdDollars() {
+        return thresholdDollars;
+    }
+
+    public void setThresholdDollars(Integer thresholdDollars) {
+        this.thresholdDollars = thresholdDollars;
+    }
+
+    public Integer getRate() {
+        return rate;
+    }
+
+    public void setRate(Integer rate) {
+        this.rate = rate;
+    }
+
+    public Integer getMultiplierPercent() {
+        return multiplierPercent;
+    }
+
+    public void setMultiplierPercent(Integer multiplierPercent) {
+        this.multiplierPercent = multiplierPercent;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardRule{" +
+                "id=" + id +
+                ", type=" + type +
+                ", segment='" + segment + '\'' +
+                ", thresholdDollars=" + thresholdDollars +
+                ", rate=" + rate +
+                ", multiplierPercent=" + multiplierPercent +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.retailer.rewards.entity;
 
+import com.retailer.rewards.util.Money;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
@@ -7,17 +8,22 @@ import java.time.LocalDate;
 /** Represents a single customer transaction. This entity is now mapped to a database table. */
 
 @Entity
+@Table(indexes = {
+        // Serves per-customer period queries as a range scan once the customer's database ID is known
+        @Index(name = "idx_transaction_customer_date", columnList = "customer_db_id, transaction_date"),
+        @Index(name = "idx_transaction_date", columnList = "transaction_date")
+})
 public class Transaction {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id; // Primary key for the transaction
 
-    @ManyToOne // Many transactions can belong to one customer
+    @ManyToOne(fetch = FetchType.LAZY) // Many transactions can belong to one customer; loaded only when accessed
     @JoinColumn(name = "customer_db_id", nullable = false) // Foreign key column
     private Customer customer; // Reference to the Customer entity
 
-    private double amount;
+    private long amountCents; // Integer cents, so tier boundaries and sums are exact
     private LocalDate transactionDate;
 
     // Default constructor for JPA
@@ -25,9 +31,12 @@ public class Transaction {
 
     }
 
+    /**
+     * @param amount The amount in dollars; fractions of a cent are dropped.
+     */
     public Transaction(Customer customer, double amount, LocalDate transactionDate) {
         this.customer = customer;
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
         this.transactionDate = transactionDate;
     }
 
@@ -48,12 +57,21 @@ public class Transaction {
         this.customer = customer;
     }
 
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+
+    // Dollar view of the amount, as accepted and returned by the API
     public double getAmount() {
-        return amount;
+        return Money.toDollars(amountCents);
     }
 
     public void setAmount(double amount) {
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
     }
 
     public LocalDate getTransactionDate() {
@@ -69,7 +87,7 @@ public class Transaction {
         return "Transaction{" +
                 "id=" + id +
                 ", customer=" + customer +
-                ", amount=" + amount +
+                ", amountCents=" + amountCents +
                 ", transactionDate=" + transactionDate +
                 '}';
     }
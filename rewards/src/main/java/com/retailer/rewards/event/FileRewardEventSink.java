@@ -0,0 +1,68 @@
+package com.retailer.rewards.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.RewardEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sink appending reward events to "rewards.events.file-sink" as newline-delimited JSON, one event per line.
+ * Each batch is forced to disk before it is acknowledged.
+ */
+
+@Component
+public class FileRewardEventSink implements RewardEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final RewardProperties rewardProperties;
+
+    @Autowired
+    public FileRewardEventSink(ObjectMapper objectMapper, RewardProperties rewardProperties) {
+        this.objectMapper = objectMapper;
+        this.rewardProperties = rewardProperties;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !rewardProperties.getEvents().getFileSink().isBlank();
+    }
+
+    @Override
+    public void publish(List<RewardEvent> events) {
+        Path file = Path.of(rewardProperties.getEvents().getFileSink());
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+                for (RewardEvent event : events) {
+                    out.write(objectMapper.writeValueAsBytes(event));
+                    out.write('\n');
+                }
+                out.flush();
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reward events not written to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.retailer.rewards.event;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.RewardEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sink handing reward events to in-process consumers through a bounded queue of
+ * "rewards.events.queue-capacity" events; 0 disables it. Events are never dropped: each one waits up to
+ * "rewards.events.queue-offer-timeout" for room, and a batch that still does not fit is refused, so the relay
+ * holds its position and offers the batch again on the next run. Events of a refused batch already queued are
+ * then delivered twice, as the at-least-once contract allows.
+ */
+
+@Component
+public class QueueRewardEventSink implements RewardEventSink {
+
+    private final RewardProperties rewardProperties;
+    private final BlockingQueue<RewardEvent> queue;
+
+    @Autowired
+    public QueueRewardEventSink(RewardProperties rewardProperties) {
+        this.rewardProperties = rewardProperties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(rewardProperties.getEvents().getQueueCapacity(), 1));
+    }
+
+    @Override
+    public String getName() {
+        return "queue";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return rewardProperties.getEvents().getQueueCapacity() > 0;
+    }
+
+    @Override
+    public synchronized void publish(List<RewardEvent> events) {
+        long timeoutNanos = rewardProperties.getEvents().getQueueOfferTimeout().toNanos();
+        for (int i = 0; i < events.size(); i++) {
+            boolean offered;
+            try {
+                offered = queue.offer(events.get(i), timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for room in the reward event queue", e);
+            }
+            if (!offered) {
+                throw new IllegalStateException("Reward event queue is full; " + (events.size() - i)
+                        + " events of the batch not queued");
+            }
+        }
+    }
+
+    /**
+     * @return The queue consumers take events from, in id order.
+     */
+    public BlockingQueue<RewardEvent> getQueue() {
+        return queue;
+    }
+}
@@ -0,0 +1,34 @@
+package com.retailer.rewards.event;
+
+import com.retailer.rewards.entity.RewardEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the reward events published by the event relay. Every Spring bean implementing this
+ * interface receives each event at least once; a Kafka producer is plugged in the same way. Events arrive
+ * in id order, except an event whose transaction committed after events with greater ids were published,
+ * which follows in a later batch.
+ */
+public interface RewardEventSink {
+
+    /**
+     * @return The name under which the relay stores this sink's position; must not change between releases.
+     */
+    String getName();
+
+    /**
+     * @return Whether the relay publishes to this sink.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Publishes a batch of events. Returning normally acknowledges the whole batch; throwing leaves the
+     * relay position unchanged, so the batch is offered again on the next run and may be delivered twice.
+     *
+     * @param events The events, in id order within the batch.
+     */
+    void publish(List<RewardEvent> events);
+}
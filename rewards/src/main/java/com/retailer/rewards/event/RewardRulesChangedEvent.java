@@ -0,0 +1,28 @@
+package com.retailer.rewards.event;
+
+/**
+ * Published after a reload swapped in reward rules that differ from the previous ones.
+ * Listeners use it to stop serving points that were stored under the previous rules.
+ */
+public class RewardRulesChangedEvent {
+
+    private final long planVersion;
+
+    public RewardRulesChangedEvent(long planVersion) {
+        this.planVersion = planVersion;
+    }
+
+    /**
+     * @return The version of the plan now in effect.
+     */
+    public long getPlanVersion() {
+        return planVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "RewardRulesChangedEvent{" +
+                "planVersion=" + planVersion +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.retailer.rewards.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published after a transaction has been saved, inside the same database transaction.
+ * Listeners use it to keep derived reward data in step with the transaction table.
+ */
+public class TransactionRecordedEvent {
+
+    private final long transactionId;
+    private final String customerId;
+    private final long amountCents;
+    private final LocalDate transactionDate;
+    private final String segment;
+
+    public TransactionRecordedEvent(long transactionId, String customerId, long amountCents, LocalDate transactionDate,
+                                    String segment) {
+        this.transactionId = transactionId;
+        this.customerId = customerId;
+        this.amountCents = amountCents;
+        this.transactionDate = transactionDate;
+        this.segment = segment;
+    }
+
+    // For customers without a segment
+    public TransactionRecordedEvent(long transactionId, String customerId, long amountCents, LocalDate transactionDate) {
+        this(transactionId, customerId, amountCents, transactionDate, null);
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public LocalDate getTransactionDate() {
+        return transactionDate;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionRecordedEvent{" +
+                "transactionId=" + transactionId +
+                ", customerId='" + customerId + '\'' +
+                ", amountCents=" + amountCents +
+                ", transactionDate=" + transactionDate +
+                ", segment='" + segment + '\'' +
+                '}';
+    }
+}
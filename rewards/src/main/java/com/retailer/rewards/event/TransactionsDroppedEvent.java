@@ -0,0 +1,30 @@
+package com.retailer.rewards.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published after partition retention has dropped every transaction dated before a given day.
+ * Listeners use it to drop derived reward data of those days, so every engine keeps answering from the same rows.
+ */
+public class TransactionsDroppedEvent {
+
+    private final LocalDate before;
+
+    public TransactionsDroppedEvent(LocalDate before) {
+        this.before = before;
+    }
+
+    /**
+     * @return The first day still held; every transaction dated earlier was dropped.
+     */
+    public LocalDate getBefore() {
+        return before;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionsDroppedEvent{" +
+                "before=" + before +
+                '}';
+    }
+}
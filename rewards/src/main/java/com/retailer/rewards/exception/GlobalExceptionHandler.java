@@ -1,5 +1,6 @@
 package com.retailer.rewards.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -33,6 +34,24 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles RewardJobNotFoundException and returns a 404 Not Found response.
+     * @param ex The RewardJobNotFoundException instance.
+     * @param request The current web request.
+     * @return A ResponseEntity with ErrorResponse and 404 status.
+     */
+    @ExceptionHandler(RewardJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleRewardJobNotFoundException(
+            RewardJobNotFoundException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.NOT_FOUND.value(),
+                HttpStatus.NOT_FOUND.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
     /**
      * Handles CustomerAlreadyExistsException and returns a 409 Conflict response.
      * @param ex The CustomerAlreadyExistsException instance.
@@ -72,6 +91,60 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles JsonProcessingException for malformed request bodies read as a stream (e.g., batch ingestion).
+     * @param ex The JsonProcessingException instance.
+     * @param request The current web request.
+     * @return A ResponseEntity with ErrorResponse and 400 status.
+     */
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<ErrorResponse> handleJsonProcessingException(
+            JsonProcessingException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                "Malformed JSON: " + ex.getOriginalMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidRequestException for request parameters outside their allowed range (e.g., page limit).
+     * @param ex The InvalidRequestException instance.
+     * @param request The current web request.
+     * @return A ResponseEntity with ErrorResponse and 400 status.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(
+            InvalidRequestException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles RewardJobNotCompletedException and returns a 409 Conflict response.
+     * @param ex The RewardJobNotCompletedException instance.
+     * @param request The current web request.
+     * @return A ResponseEntity with ErrorResponse and 409 status.
+     */
+    @ExceptionHandler(RewardJobNotCompletedException.class)
+    public ResponseEntity<ErrorResponse> handleRewardJobNotCompletedException(
+            RewardJobNotCompletedException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles all other unhandled exceptions and returns a 500 Internal Server Error response.
      * @param ex The Exception instance.
@@ -0,0 +1,14 @@
+package com.retailer.rewards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception thrown when a request parameter or body field is missing or outside its allowed range.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST) // Maps this exception to a 400 Bad Request HTTP status
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
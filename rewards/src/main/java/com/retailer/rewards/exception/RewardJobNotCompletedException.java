@@ -0,0 +1,14 @@
+package com.retailer.rewards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception thrown when the result of a reward job is requested before the job has completed.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RewardJobNotCompletedException extends RuntimeException {
+    public RewardJobNotCompletedException(String jobId, String status) {
+        super("Reward job with ID '" + jobId + "' is " + status + "; no result available.");
+    }
+}
@@ -0,0 +1,14 @@
+package com.retailer.rewards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception thrown when a requested reward job does not exist or is no longer retained.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RewardJobNotFoundException extends RuntimeException {
+    public RewardJobNotFoundException(String jobId) {
+        super("Reward job with ID '" + jobId + "' not found.");
+    }
+}
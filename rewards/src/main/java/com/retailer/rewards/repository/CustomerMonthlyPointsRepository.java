@@ -0,0 +1,70 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.CustomerMonthlyPoints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the customer monthly points ledger.
+ */
+
+@Repository
+public interface CustomerMonthlyPointsRepository extends JpaRepository<CustomerMonthlyPoints, Long> {
+
+    /**
+     * Finds the ledger rows of a customer for a range of months.
+     * @param customerId The business ID of the customer.
+     * @param startMonth The first month in "YYYY-MM" format (inclusive).
+     * @param endMonth The last month in "YYYY-MM" format (inclusive).
+     * @return The ledger rows for the customer within the given months.
+     */
+    @Transactional(readOnly = true)
+    List<CustomerMonthlyPoints> findByCustomerIdAndRewardMonthBetween(String customerId, String startMonth, String endMonth);
+
+    /**
+     * @return Every month that has at least one ledger row, in "YYYY-MM" format.
+     */
+    @Transactional(readOnly = true)
+    @Query("select distinct m.rewardMonth from CustomerMonthlyPoints m")
+    List<String> findRewardMonths();
+
+    /**
+     * Finds the customers that have a ledger row for a month.
+     * @param rewardMonth The month in "YYYY-MM" format.
+     * @return The business IDs of the customers.
+     */
+    @Transactional(readOnly = true)
+    @Query("select m.customerId from CustomerMonthlyPoints m where m.rewardMonth = :rewardMonth")
+    List<String> findCustomerIdsByRewardMonth(@Param("rewardMonth") String rewardMonth);
+
+    /**
+     * Atomically adds points and one transaction to a ledger row, creating the row if it does not exist yet.
+     * A single upsert on the unique (customer_id, reward_month) key, so two concurrent first transactions
+     * of a month both count instead of one of them failing on the duplicate insert.
+     * @param customerId The business ID of the customer.
+     * @param rewardMonth The month in "YYYY-MM" format.
+     * @param points The points to add.
+     * @return The number of rows affected.
+     */
+    @Modifying
+    @Query(value = "insert into customer_monthly_points (customer_id, reward_month, points, transaction_count) " +
+            "values (:customerId, :rewardMonth, :points, 1) " +
+            "on duplicate key update points = points + :points, transaction_count = transaction_count + 1",
+            nativeQuery = true)
+    int addPoints(@Param("customerId") String customerId, @Param("rewardMonth") String rewardMonth, @Param("points") int points);
+
+    /**
+     * Deletes the ledger rows of every month before a given month with a single statement.
+     * @param rewardMonth The first month kept, in "YYYY-MM" format.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("delete from CustomerMonthlyPoints m where m.rewardMonth < :rewardMonth")
+    int deleteByRewardMonthBefore(@Param("rewardMonth") String rewardMonth);
+}
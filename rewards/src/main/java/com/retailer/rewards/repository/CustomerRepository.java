@@ -1,18 +1,79 @@
 package com.retailer.rewards.repository;
 
 import com.retailer.rewards.entity.Customer;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Spring Data JPA repository for Customer entities.
  * Provides CRUD operations and custom queries for Transaction.
+ * Lookups by business ID are cached in the "customers" cache; saves refresh it and deletes clear it.
+ * Bulk saves clear the whole cache, as the entries they replace cannot be named one by one.
  */
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    String CUSTOMER_CACHE = "customers";
+
+    // Only found customers are cached, so a customer created on another node is picked up on the next lookup
+    @Cacheable(cacheNames = CUSTOMER_CACHE, unless = "#result == null")
     Optional<Customer> findByCustomerId(String CustomerId);
-}
\ No newline at end of file
+
+    List<Customer> findByCustomerIdIn(Collection<String> customerIds);
+
+    @Override
+    @CachePut(cacheNames = CUSTOMER_CACHE, key = "#result.customerId")
+    <S extends Customer> S save(S entity);
+
+    @Override
+    @CachePut(cacheNames = CUSTOMER_CACHE, key = "#result.customerId")
+    <S extends Customer> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    <S extends Customer> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    <S extends Customer> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, key = "#p0.customerId")
+    void delete(Customer entity);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteAll(Iterable<? extends Customer> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteAllInBatch(Iterable<Customer> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, allEntries = true)
+    void deleteAllInBatch();
+}
@@ -0,0 +1,13 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.RewardEventRelayOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the positions of the event relay, keyed by sink name.
+ */
+
+@Repository
+public interface RewardEventRelayOffsetRepository extends JpaRepository<RewardEventRelayOffset, String> {
+}
@@ -0,0 +1,44 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.RewardEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the reward event outbox.
+ */
+
+@Repository
+public interface RewardEventRepository extends JpaRepository<RewardEvent, Long> {
+
+    /**
+     * Finds the next events of the change feed, walking the primary key from the given id.
+     * @param afterId Only events with a greater id are returned.
+     * @param pageable The maximum number of events, as the page size of the first page.
+     * @return The committed events in id order.
+     */
+    @Transactional(readOnly = true)
+    @Query("select e from RewardEvent e where e.id > :afterId order by e.id")
+    List<RewardEvent> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Finds the highest id in a range of events written at least the settle time ago, comparing against the
+     * database clock that wrote them. A missing id below it belongs to a transaction that has been open for
+     * longer than the settle time, which is taken to mean it rolled back.
+     * @param afterId Only events with a greater id are considered.
+     * @param upToId Only events with this id or a lower one are considered.
+     * @param settleSeconds The settle time in seconds.
+     * @return The highest settled id in the range, or afterId if there is none.
+     */
+    @Transactional(readOnly = true)
+    @Query("select coalesce(max(e.id), :afterId) from RewardEvent e where e.id > :afterId and e.id <= :upToId"
+            + " and timestampadd(second, :settleSeconds, e.createdAt) <= current_timestamp")
+    long findLastSettledId(@Param("afterId") long afterId, @Param("upToId") long upToId,
+                           @Param("settleSeconds") long settleSeconds);
+}
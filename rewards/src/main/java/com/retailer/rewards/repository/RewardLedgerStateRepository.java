@@ -0,0 +1,13 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.RewardLedgerState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the single row of ledger state, keyed by RewardLedgerState.ID.
+ */
+
+@Repository
+public interface RewardLedgerStateRepository extends JpaRepository<RewardLedgerState, Integer> {
+}
@@ -0,0 +1,58 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.RewardMonthClose;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Spring Data JPA repository for the close state of months, keyed by "YYYY-MM".
+ */
+
+@Repository
+public interface RewardMonthCloseRepository extends JpaRepository<RewardMonthClose, String> {
+
+    /**
+     * Marks a month as dirty, so it is computed live until it is closed again, creating its close row if the
+     * month was never closed. A single upsert on the primary key, so two concurrent writers in a month without
+     * a close row both succeed instead of one of them failing on the duplicate insert.
+     * @param rewardMonth The month in "YYYY-MM" format.
+     * @return The number of rows affected.
+     */
+    @Modifying
+    @Query(value = "insert into reward_month_close (reward_month, closed_at, dirty) values (:rewardMonth, null, true) " +
+            "on duplicate key update dirty = true",
+            nativeQuery = true)
+    int markDirty(@Param("rewardMonth") String rewardMonth);
+
+    /**
+     * Marks every closed month as dirty, e.g. after a rule change, so they are computed live until closed again.
+     * @return The number of rows updated.
+     */
+    @Modifying
+    @Query("update RewardMonthClose c set c.dirty = true")
+    int markAllDirty();
+
+    /**
+     * Marks a month as clean and records when it was closed. Locks the row until the closing transaction ends.
+     * @param rewardMonth The month in "YYYY-MM" format.
+     * @param closedAt When the snapshot is written.
+     * @return The number of rows updated; 0 if the month has no close row.
+     */
+    @Modifying
+    @Query("update RewardMonthClose c set c.dirty = false, c.closedAt = :closedAt where c.rewardMonth = :rewardMonth")
+    int markClean(@Param("rewardMonth") String rewardMonth, @Param("closedAt") Instant closedAt);
+
+    /**
+     * Deletes the close rows of every month before a given month with a single statement.
+     * @param rewardMonth The first month kept, in "YYYY-MM" format.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("delete from RewardMonthClose c where c.rewardMonth < :rewardMonth")
+    int deleteByRewardMonthBefore(@Param("rewardMonth") String rewardMonth);
+}
@@ -0,0 +1,46 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.RewardMonthSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the frozen monthly reward snapshots.
+ */
+
+@Repository
+public interface RewardMonthSnapshotRepository extends JpaRepository<RewardMonthSnapshot, Long> {
+
+    /**
+     * Finds the snapshot rows of the given months.
+     * @param rewardMonths Months in "YYYY-MM" format.
+     * @return The snapshot rows of all customers for those months.
+     */
+    @Transactional(readOnly = true)
+    List<RewardMonthSnapshot> findByRewardMonthIn(Collection<String> rewardMonths);
+
+    /**
+     * Deletes the snapshot rows of a month with a single statement.
+     * @param rewardMonth The month in "YYYY-MM" format.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("delete from RewardMonthSnapshot s where s.rewardMonth = :rewardMonth")
+    int deleteByRewardMonth(@Param("rewardMonth") String rewardMonth);
+
+    /**
+     * Deletes the snapshot rows of every month before a given month with a single statement.
+     * @param rewardMonth The first month kept, in "YYYY-MM" format.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("delete from RewardMonthSnapshot s where s.rewardMonth < :rewardMonth")
+    int deleteByRewardMonthBefore(@Param("rewardMonth") String rewardMonth);
+}
@@ -0,0 +1,13 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.entity.RewardRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the reward rules.
+ */
+
+@Repository
+public interface RewardRuleRepository extends JpaRepository<RewardRule, Long> {
+}
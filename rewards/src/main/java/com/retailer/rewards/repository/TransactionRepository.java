@@ -1,11 +1,18 @@
 package com.retailer.rewards.repository;
 
+import com.retailer.rewards.dto.TransactionView;
 import com.retailer.rewards.entity.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for Transaction entities.
@@ -13,7 +20,7 @@ import java.util.List;
  */
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
 
     /**
      * Finds all transactions within a specified date range.
@@ -24,13 +31,38 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByTransactionDateBetween(LocalDate startDate, LocalDate endDate);
 
     /**
-     * Finds all transactions for a given customer within a specified date range.
-     * @param customerId The business ID of the customer.
+     * Finds the reward fields of a customer's transactions within a specified date range, by the customer's database ID.
+     * The customer row is read by primary key and the transactions by a range scan of the
+     * (customer_db_id, transaction_date) index; no entities are loaded.
+     * @param customerDbId The database ID of the customer.
+     * @param startDate The start date (inclusive).
+     * @param endDate The end date (inclusive).
+     * @return Views of the customer's transactions within the given date range.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.retailer.rewards.dto.TransactionView(t.id, c.customerId, t.amountCents, t.transactionDate, c.segment) " +
+            "from Transaction t join t.customer c " +
+            "where c.id = :customerDbId and t.transactionDate between :startDate and :endDate")
+    List<TransactionView> findViewsByCustomerDbIdAndTransactionDateBetween(@Param("customerDbId") long customerDbId,
+                                                                           @Param("startDate") LocalDate startDate,
+                                                                           @Param("endDate") LocalDate endDate);
+
+    /**
+     * Finds the reward fields of the transactions of several customers within a specified date range, in a single query.
+     * Each customer row is found by its business ID and its transactions by a range scan of the
+     * (customer_db_id, transaction_date) index; no entities are loaded.
+     * @param customerIds The business IDs of the customers.
      * @param startDate The start date (inclusive).
      * @param endDate The end date (inclusive).
-     * @return A list of transactions for the specified customer within the given date range.
+     * @return Views of the customers' transactions within the given date range.
      */
-    List<Transaction> findByCustomer_CustomerIdAndTransactionDateBetween(String customerId, LocalDate startDate, LocalDate endDate);
+    @Transactional(readOnly = true)
+    @Query("select new com.retailer.rewards.dto.TransactionView(t.id, c.customerId, t.amountCents, t.transactionDate, c.segment) " +
+            "from Transaction t join t.customer c " +
+            "where c.customerId in :customerIds and t.transactionDate between :startDate and :endDate")
+    List<TransactionView> findViewsByCustomerIdInAndTransactionDateBetween(@Param("customerIds") Collection<String> customerIds,
+                                                                          @Param("startDate") LocalDate startDate,
+                                                                          @Param("endDate") LocalDate endDate);
 
     /**
      * Finds all transactions for a given customer.
@@ -38,4 +70,57 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @return A list of all transactions for the specified customer.
      */
     List<Transaction> findByCustomer_CustomerId(String customerId);
+
+    /**
+     * Reads the reward fields of every transaction in a single query, without loading entities.
+     * @return Views of all transactions.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.retailer.rewards.dto.TransactionView(t.id, c.customerId, t.amountCents, t.transactionDate, c.segment) " +
+            "from Transaction t join t.customer c")
+    List<TransactionView> findAllViews();
+
+    /**
+     * Reads the reward fields of all transactions of the given customers in a single query, without loading entities.
+     * @param customerIds The business IDs of the customers.
+     * @return Views of all transactions of the specified customers.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.retailer.rewards.dto.TransactionView(t.id, c.customerId, t.amountCents, t.transactionDate, c.segment) " +
+            "from Transaction t join t.customer c where c.customerId in :customerIds")
+    List<TransactionView> findViewsByCustomerIdIn(@Param("customerIds") Collection<String> customerIds);
+
+    /**
+     * Reads the next page of business IDs of customers that have at least one transaction, in customerId order.
+     * @param after Only customers with a business ID greater than this are returned.
+     * @param pageable The page size; only the first page is used.
+     * @return Up to the requested number of customer business IDs, ordered by customerId.
+     */
+    @Transactional(readOnly = true)
+    @Query("select c.customerId from Customer c " +
+            "where c.customerId > :after and exists (select t.id from Transaction t where t.customer = c) " +
+            "order by c.customerId")
+    List<String> findCustomerIdsWithTransactionsAfter(@Param("after") String after, Pageable pageable);
+
+    /**
+     * @return The date of the earliest transaction; empty if there are no transactions.
+     */
+    @Query("select min(t.transactionDate) from Transaction t")
+    Optional<LocalDate> findFirstTransactionDate();
+
+    /**
+     * @return The date of the latest transaction; empty if there are no transactions.
+     */
+    @Query("select max(t.transactionDate) from Transaction t")
+    Optional<LocalDate> findLastTransactionDate();
+
+    /**
+     * Reads the next chunk of transactions in id order, as unmanaged views.
+     * @param afterId Only transactions with an id greater than this are returned.
+     * @param pageable The chunk size; only the first page is used.
+     * @return Up to the requested number of transaction views, ordered by id.
+     */
+    @Query("select new com.retailer.rewards.dto.TransactionView(t.id, c.customerId, t.amountCents, t.transactionDate, c.segment) " +
+            "from Transaction t join t.customer c where t.id > :afterId order by t.id")
+    List<TransactionView> findViewsAfter(@Param("afterId") long afterId, Pageable pageable);
 }
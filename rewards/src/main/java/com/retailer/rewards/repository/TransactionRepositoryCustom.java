@@ -0,0 +1,46 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.dto.MonthlyPointsProjection;
+import com.retailer.rewards.dto.TransactionView;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Custom query methods for Transaction entities that cannot be expressed as derived queries.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Streams the reward fields of all transactions through a forward-only cursor.
+     * Rows are read as views rather than entities, so nothing accumulates in the persistence context
+     * and memory usage does not grow with the number of rows. The stream must be consumed inside a transaction and closed.
+     * @param fetchSize The number of rows fetched from the database per round trip.
+     * @return A stream of transaction views.
+     */
+    Stream<TransactionView> streamAll(int fetchSize);
+
+    /**
+     * Computes reward points per customer and month entirely in the database.
+     * The points of each transaction are given as an HQL expression over "Transaction t join t.customer c",
+     * compiled from the reward rules, and are summed per group.
+     * @param pointsExpression The points of one transaction.
+     * @param parameters The named parameters of the expression.
+     * @return One row per customer and month that has at least one transaction, with its transaction count.
+     */
+    List<MonthlyPointsProjection> aggregateMonthlyPoints(String pointsExpression, Map<String, Object> parameters);
+
+    /**
+     * Computes reward points per customer and month in the database, like aggregateMonthlyPoints,
+     * for the transactions within a date range only.
+     * @param startDate The start date (inclusive).
+     * @param endDate The end date (inclusive).
+     * @param pointsExpression The points of one transaction.
+     * @param parameters The named parameters of the expression.
+     * @return One row per customer and month that has at least one transaction in the range.
+     */
+    List<MonthlyPointsProjection> aggregateMonthlyPointsBetween(LocalDate startDate, LocalDate endDate,
+                                                                String pointsExpression, Map<String, Object> parameters);
+}
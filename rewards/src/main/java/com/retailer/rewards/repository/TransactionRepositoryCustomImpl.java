@@ -0,0 +1,101 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.dto.MonthlyPointsProjection;
+import com.retailer.rewards.dto.TransactionView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * EntityManager based implementation of {@link TransactionRepositoryCustom}.
+ */
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final String MONTHLY_POINTS_GROUP_BY = " group by c.customerId, year(t.transactionDate), month(t.transactionDate)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<TransactionView> streamAll(int fetchSize) {
+        return entityManager.createQuery("select new com.retailer.rewards.dto.TransactionView(t.id, c.customerId, t.amountCents, t.transactionDate, c.segment) " +
+                        "from Transaction t join t.customer c", TransactionView.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public List<MonthlyPointsProjection> aggregateMonthlyPoints(String pointsExpression, Map<String, Object> parameters) {
+        return monthlyPoints(monthlyPointsSelect(pointsExpression) + MONTHLY_POINTS_GROUP_BY, parameters).getResultList();
+    }
+
+    @Override
+    public List<MonthlyPointsProjection> aggregateMonthlyPointsBetween(LocalDate startDate, LocalDate endDate,
+                                                                       String pointsExpression, Map<String, Object> parameters) {
+        return monthlyPoints(monthlyPointsSelect(pointsExpression) +
+                " where t.transactionDate between :startDate and :endDate" + MONTHLY_POINTS_GROUP_BY, parameters)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .getResultList();
+    }
+
+    private static String monthlyPointsSelect(String pointsExpression) {
+        return "select new com.retailer.rewards.repository.TransactionRepositoryCustomImpl$MonthlyPointsRow(" +
+                "c.customerId, year(t.transactionDate), month(t.transactionDate), sum(" + pointsExpression + "), count(t)) " +
+                "from Transaction t join t.customer c";
+    }
+
+    private TypedQuery<MonthlyPointsProjection> monthlyPoints(String query, Map<String, Object> parameters) {
+        TypedQuery<MonthlyPointsProjection> typedQuery = entityManager.createQuery(query, MonthlyPointsProjection.class);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery;
+    }
+
+    /** One customer and month of an aggregation query. */
+    public static final class MonthlyPointsRow implements MonthlyPointsProjection {
+        private final String customerId;
+        private final Number rewardYear;
+        private final Number rewardMonth;
+        private final Number points;
+        private final Number transactionCount;
+
+        public MonthlyPointsRow(String customerId, Number rewardYear, Number rewardMonth, Number points, Number transactionCount) {
+            this.customerId = customerId;
+            this.rewardYear = rewardYear;
+            this.rewardMonth = rewardMonth;
+            this.points = points;
+            this.transactionCount = transactionCount;
+        }
+
+        @Override
+        public String getCustomerId() {
+            return customerId;
+        }
+
+        @Override
+        public Number getRewardYear() {
+            return rewardYear;
+        }
+
+        @Override
+        public Number getRewardMonth() {
+            return rewardMonth;
+        }
+
+        @Override
+        public Number getPoints() {
+            return points;
+        }
+
+        @Override
+        public Number getTransactionCount() {
+            return transactionCount;
+        }
+    }
+}
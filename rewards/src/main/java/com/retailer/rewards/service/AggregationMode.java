@@ -0,0 +1,35 @@
+package com.retailer.rewards.service;
+
+/**
+ * Strategies available for aggregating reward points across all customers.
+ */
+public enum AggregationMode {
+
+    /** Loads every transaction into memory before folding them into summaries. */
+    IN_MEMORY,
+
+    /** Reads transactions through a forward-only cursor, keeping only per-customer summaries in memory. */
+    STREAMING,
+
+    /**
+     * Loads every transaction into memory and folds index ranges of them into separate summaries
+     * on a ForkJoinPool of "rewards.aggregation.parallelism" threads, then merges the summaries.
+     */
+    PARALLEL,
+
+    /** Computes points and groups them by customer and month in the database with a single query. */
+    DATABASE,
+
+    /**
+     * Reads the customer monthly points ledger instead of transactions. Also serves per-customer
+     * period queries, falling back to transactions only for partially covered months.
+     * Requires "rewards.ledger.enabled" and a completed ledger rebuild.
+     */
+    LEDGER,
+
+    /**
+     * Reads the frozen snapshots of closed months and computes only the open month and months with
+     * late-arriving transactions from transactions. Requires "rewards.snapshot.enabled" and a month close.
+     */
+    SNAPSHOT
+}
@@ -0,0 +1,262 @@
+package com.retailer.rewards.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot file of the RewardColumnStore, written and read through memory-mapped NIO buffers.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ * header      magic, format, high-water-mark transaction id, customers, transactions, dictionary offset,
+ *             CRC-32C of the days, ids, amounts and dictionary sections, low-water-mark transaction id
+ * days        int[transactions]   epoch days of all customers, customer after customer
+ * ids         long[transactions]  transaction ids, in the same order
+ * amounts     long[transactions]  amounts in cents, in the same order
+ * dictionary  per customer: customer ID, segment (length -1 when null), transaction count
+ * </pre>
+ * Column sections are fixed-size, so they are mapped and filled with bulk copies; the dictionary is
+ * streamed after them. Reading maps the file and copies each customer's slice of the columns straight
+ * from the page cache into its arrays, without read calls or intermediate buffers. Each section must fit
+ * in one mapping, which limits a snapshot to about 268 million transactions.
+ * <p>
+ * Each column mapping is forced to disk, then the header, before the file is renamed into place: forcing the
+ * channel alone does not guarantee that changes made through a mapping are written. The checksum is verified
+ * before any customer is handed out, so a file damaged on disk is rejected as a whole.
+ */
+final class ColumnStoreSnapshot {
+
+    private static final int MAGIC = 0x52435331; // "RCS1"
+    private static final int FORMAT = 3;
+    private static final int HEADER_BYTES = 64;
+    private static final int DICTIONARY_BUFFER_BYTES = 1 << 20;
+    private static final int NULL_LENGTH = -1;
+
+    private ColumnStoreSnapshot() {
+    }
+
+    /** The transaction ids bounding what a snapshot holds. */
+    static final class Watermarks {
+        final long highWaterMark;
+        final long lowWaterMark;
+
+        Watermarks(long highWaterMark, long lowWaterMark) {
+            this.highWaterMark = highWaterMark;
+            this.lowWaterMark = lowWaterMark;
+        }
+    }
+
+    /** The transactions of one customer, sorted by day, as stored in a snapshot. */
+    static final class CustomerColumns {
+        final String customerId;
+        final String segment;
+        final int[] days;
+        final long[] ids;
+        final long[] amountsCents;
+
+        CustomerColumns(String customerId, String segment, int[] days, long[] ids, long[] amountsCents) {
+            this.customerId = customerId;
+            this.segment = segment;
+            this.days = days;
+            this.ids = ids;
+            this.amountsCents = amountsCents;
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file next to the target and moves it into place,
+     * so a crash while writing never leaves a truncated snapshot behind.
+     *
+     * @param file The snapshot file.
+     * @param highWaterMark The highest transaction id known to be included.
+     * @param lowWaterMark A transaction id up to which every committed transaction is known to be included.
+     * @param customers The customers to write.
+     * @return The size of the file in bytes.
+     * @throws IOException if the file cannot be written.
+     */
+    static long write(Path file, long highWaterMark, long lowWaterMark, List<CustomerColumns> customers) throws IOException {
+        long transactions = 0;
+        for (CustomerColumns customer : customers) {
+            transactions += customer.days.length;
+        }
+        long daysOffset = HEADER_BYTES;
+        long idsOffset = align(daysOffset + transactions * Integer.BYTES);
+        long amountsOffset = idsOffset + transactions * Long.BYTES;
+        long dictionaryOffset = amountsOffset + transactions * Long.BYTES;
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            long size;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer daysSection = map(channel, FileChannel.MapMode.READ_WRITE, daysOffset, transactions * Integer.BYTES);
+                MappedByteBuffer idsSection = map(channel, FileChannel.MapMode.READ_WRITE, idsOffset, transactions * Long.BYTES);
+                MappedByteBuffer amountsSection = map(channel, FileChannel.MapMode.READ_WRITE, amountsOffset, transactions * Long.BYTES);
+                IntBuffer days = daysSection.asIntBuffer();
+                LongBuffer ids = idsSection.asLongBuffer();
+                LongBuffer amounts = amountsSection.asLongBuffer();
+                for (CustomerColumns customer : customers) {
+                    days.put(customer.days);
+                    ids.put(customer.ids);
+                    amounts.put(customer.amountsCents);
+                }
+                CRC32C checksum = new CRC32C();
+                for (MappedByteBuffer section : List.of(daysSection, idsSection, amountsSection)) {
+                    section.force();
+                    checksum.update(section.duplicate());
+                }
+
+                channel.position(dictionaryOffset);
+                ByteBuffer dictionary = ByteBuffer.allocate(DICTIONARY_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                for (CustomerColumns customer : customers) {
+                    byte[] customerId = customer.customerId.getBytes(StandardCharsets.UTF_8);
+                    byte[] segment = customer.segment != null ? customer.segment.getBytes(StandardCharsets.UTF_8) : null;
+                    int entryBytes = 3 * Integer.BYTES + customerId.length + (segment != null ? segment.length : 0);
+                    if (dictionary.remaining() < entryBytes) {
+                        flush(channel, dictionary, checksum);
+                        if (dictionary.capacity() < entryBytes) {
+                            dictionary = ByteBuffer.allocate(entryBytes).order(ByteOrder.LITTLE_ENDIAN);
+                        }
+                    }
+                    dictionary.putInt(customerId.length).put(customerId);
+                    if (segment != null) {
+                        dictionary.putInt(segment.length).put(segment);
+                    } else {
+                        dictionary.putInt(NULL_LENGTH);
+                    }
+                    dictionary.putInt(customer.days.length);
+                }
+                flush(channel, dictionary, checksum);
+                size = channel.position();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(FORMAT).putLong(highWaterMark).putLong(customers.size())
+                        .putLong(transactions).putLong(dictionaryOffset).putLong(checksum.getValue()).putLong(lowWaterMark);
+                header.clear();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot, handing each customer to the consumer in file order.
+     *
+     * @param file The snapshot file.
+     * @param consumer Receives the columns of each customer.
+     * @return The high-water and low-water-mark transaction ids of the snapshot.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalStateException if the file is not a snapshot of this format, is truncated or fails its checksum.
+     */
+    static Watermarks read(Path file, Consumer<CustomerColumns> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IllegalStateException("Snapshot " + file + " is truncated.");
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT) {
+                throw new IllegalStateException("Snapshot " + file + " has an unknown format.");
+            }
+            long highWaterMark = header.getLong();
+            long customers = header.getLong();
+            long transactions = header.getLong();
+            long dictionaryOffset = header.getLong();
+            long expectedChecksum = header.getLong();
+            long lowWaterMark = header.getLong();
+            long idsOffset = align(HEADER_BYTES + transactions * Integer.BYTES);
+            long amountsOffset = idsOffset + transactions * Long.BYTES;
+            if (transactions < 0 || dictionaryOffset != amountsOffset + transactions * Long.BYTES || dictionaryOffset > fileSize) {
+                throw new IllegalStateException("Snapshot " + file + " is truncated.");
+            }
+
+            MappedByteBuffer daysSection = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, transactions * Integer.BYTES);
+            MappedByteBuffer idsSection = map(channel, FileChannel.MapMode.READ_ONLY, idsOffset, transactions * Long.BYTES);
+            MappedByteBuffer amountsSection = map(channel, FileChannel.MapMode.READ_ONLY, amountsOffset, transactions * Long.BYTES);
+            ByteBuffer dictionary = map(channel, FileChannel.MapMode.READ_ONLY, dictionaryOffset, fileSize - dictionaryOffset);
+            CRC32C checksum = new CRC32C();
+            for (ByteBuffer section : List.of(daysSection, idsSection, amountsSection, dictionary)) {
+                checksum.update(section.duplicate());
+            }
+            if (checksum.getValue() != expectedChecksum) {
+                throw new IllegalStateException("Snapshot " + file + " fails its checksum.");
+            }
+
+            IntBuffer days = daysSection.asIntBuffer();
+            LongBuffer ids = idsSection.asLongBuffer();
+            LongBuffer amounts = amountsSection.asLongBuffer();
+
+            byte[] text = new byte[256];
+            for (long i = 0; i < customers; i++) {
+                int idLength = dictionary.getInt();
+                text = ensureCapacity(text, idLength);
+                dictionary.get(text, 0, idLength);
+                String customerId = new String(text, 0, idLength, StandardCharsets.UTF_8);
+                int segmentLength = dictionary.getInt();
+                String segment = null;
+                if (segmentLength != NULL_LENGTH) {
+                    text = ensureCapacity(text, segmentLength);
+                    dictionary.get(text, 0, segmentLength);
+                    segment = new String(text, 0, segmentLength, StandardCharsets.UTF_8);
+                }
+                int count = dictionary.getInt();
+
+                int[] customerDays = new int[count];
+                long[] customerIds = new long[count];
+                long[] customerAmounts = new long[count];
+                days.get(customerDays);
+                ids.get(customerIds);
+                amounts.get(customerAmounts);
+                consumer.accept(new CustomerColumns(customerId, segment, customerDays, customerIds, customerAmounts));
+            }
+            return new Watermarks(highWaterMark, lowWaterMark);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalStateException("Snapshot " + file + " is truncated.", e);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Snapshot section of " + size + " bytes exceeds a single mapping.");
+        }
+        MappedByteBuffer buffer = channel.map(mode, offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int length) {
+        return buffer.length >= length ? buffer : new byte[length];
+    }
+
+    private static long align(long offset) {
+        return (offset + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
@@ -0,0 +1,66 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pre-loads the customer cache at startup, so the first transactions recorded after a restart
+ * do not each pay a customer lookup.
+ */
+
+@Component
+public class CustomerCacheWarmer {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final CustomerRepository customerRepository;
+    private final CacheManager cacheManager;
+    private final RewardProperties rewardProperties;
+
+    @Autowired
+    public CustomerCacheWarmer(CustomerRepository customerRepository, CacheManager cacheManager, RewardProperties rewardProperties) {
+        this.customerRepository = customerRepository;
+        this.cacheManager = cacheManager;
+        this.rewardProperties = rewardProperties;
+    }
+
+    /**
+     * Loads up to "rewards.customer-cache.warm-up-size" customers, in id order, into the customer cache.
+     *
+     * @return The number of customers cached.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int warmUp() {
+        Cache cache = cacheManager.getCache(CustomerRepository.CUSTOMER_CACHE);
+        int limit = rewardProperties.getCustomerCache().getWarmUpSize();
+        if (cache == null || limit <= 0) {
+            return 0;
+        }
+
+        int loaded = 0;
+        Page<Customer> page = customerRepository.findAll(PageRequest.of(0, Math.min(PAGE_SIZE, limit), Sort.by("id")));
+        while (true) {
+            for (Customer customer : page) {
+                if (loaded == limit) {
+                    return loaded;
+                }
+                cache.put(customer.getCustomerId(), customer);
+                loaded++;
+            }
+            if (!page.hasNext()) {
+                return loaded;
+            }
+            page = customerRepository.findAll(page.nextPageable());
+        }
+    }
+}
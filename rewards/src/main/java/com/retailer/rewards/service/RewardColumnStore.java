@@ -0,0 +1,630 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.MonthlyPoints;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.dto.TransactionView;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import com.retailer.rewards.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process columnar copy of the transaction table for per-customer period reward queries.
+ * <p>
+ * Each customer's transactions are held in primitive arrays sorted by epoch day, together with the
+ * prefix sums of their points, so the points of any date range are two binary searches and a subtraction.
+ * The arrays of a customer are immutable and replaced as a whole on every write, so readers need no locking.
+ * Points are computed with the RewardRulePlan they were built with, and recomputed from the stored amounts
+ * the first time a customer is read or written under a newer plan.
+ * <p>
+ * The store is loaded at startup when "rewards.column-store.enabled" is set and kept current by
+ * TransactionRecordedEvent, and trimmed by TransactionsDroppedEvent. Until the load has completed, or when disabled, {@link #summarize} returns
+ * null and callers query the database instead.
+ * <p>
+ * When "rewards.column-store.snapshot-file" is set, the store is written to that file on
+ * "rewards.column-store.snapshot-cron" and restored from it at startup, after which only the transactions
+ * newer than the snapshot's low-water mark are read from the database. The low-water mark is the high-water mark
+ * the store had "rewards.column-store.commit-lag" before the snapshot was written: every id up to it was allocated
+ * by then, so its transaction had committed, or rolled back, by the time of the snapshot.
+ */
+
+@Component
+public class RewardColumnStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RewardColumnStore.class);
+
+    // Rough per-customer cost of the map entry, key string, column object and array headers
+    private static final int CUSTOMER_OVERHEAD_BYTES = 200;
+    private static final int BYTES_PER_TRANSACTION = Integer.BYTES + 3 * Long.BYTES; // Day, id, amount, prefix sum
+    private static final long WATERMARK_SAMPLE_MILLIS = 1000;
+
+    /** Whether the store can answer queries. */
+    public enum State {
+        DISABLED, WARMING, READY
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final RewardRuleService rewardRuleService;
+    private final RewardProperties rewardProperties;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Columns> customers = new ConcurrentHashMap<>();
+    private final AtomicLong highWaterMark = new AtomicLong(); // Highest transaction id added so far
+    // {epoch millis, high-water mark} at most once per second, oldest first; guarded by itself
+    private final Deque<long[]> watermarkSamples = new ArrayDeque<>();
+    private volatile long lastSampleMillis;
+    private volatile long loadedAfterId = Long.MIN_VALUE; // Every transaction after this id was read by the load
+    private volatile State state;
+    private volatile long loadMillis;
+    private volatile long restoredTransactions;
+    private volatile int droppedBeforeDay = Integer.MIN_VALUE; // Transactions before this epoch day were dropped by retention
+
+    @Autowired
+    public RewardColumnStore(TransactionRepository transactionRepository, RewardRuleService rewardRuleService,
+                             RewardProperties rewardProperties) {
+        this(transactionRepository, rewardRuleService, rewardProperties, Clock.systemUTC());
+    }
+
+    RewardColumnStore(TransactionRepository transactionRepository, RewardRuleService rewardRuleService,
+                      RewardProperties rewardProperties, Clock clock) {
+        this.transactionRepository = transactionRepository;
+        this.rewardRuleService = rewardRuleService;
+        this.rewardProperties = rewardProperties;
+        this.clock = clock;
+        this.state = rewardProperties.getColumnStore().isEnabled() ? State.WARMING : State.DISABLED;
+    }
+
+    /**
+     * Starts loading the store on a background thread once the application is ready,
+     * so startup is not delayed by the size of the transaction table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (state != State.WARMING) {
+            return;
+        }
+        Thread loader = new Thread(this::loadQuietly, "reward-column-store-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadQuietly() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.error("Reward column store not loaded; period queries keep using the database", e);
+        }
+    }
+
+    /**
+     * Restores the snapshot file if there is one, then reads every newer transaction, in id order one chunk
+     * at a time, into the store and marks it ready. Transactions recorded while loading are kept,
+     * and transactions both recorded and read are stored once.
+     *
+     * @return The number of transactions read from the database.
+     */
+    public int load() {
+        if (state == State.DISABLED) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        RewardRulePlan plan = rewardRuleService.plan();
+        int chunkSize = rewardProperties.getColumnStore().getLoadChunkSize();
+        // Read from the low-water mark, so transactions that committed out of id order after the snapshot are not missed
+        long lastId = restoreSnapshot(plan);
+        loadedAfterId = lastId;
+        Map<String, Builder> builders = new HashMap<>();
+        int read = 0;
+        List<TransactionView> chunk;
+
+        do {
+            chunk = transactionRepository.findViewsAfter(lastId, PageRequest.of(0, chunkSize));
+            for (TransactionView transaction : chunk) {
+                builders.computeIfAbsent(transaction.getCustomerId(), id -> new Builder(transaction.getSegment()))
+                        .add(transaction.getId(), transaction.getTransactionDate().toEpochDay(), transaction.getAmountCents());
+                lastId = transaction.getId();
+            }
+            read += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        builders.forEach((customerId, builder) -> customers.merge(customerId, builder.build(plan),
+                (current, loaded) -> current.merge(loaded, plan)));
+        if (droppedBeforeDay != Integer.MIN_VALUE) {
+            trim(droppedBeforeDay); // Retention ran while loading; forget the rows read before the drop
+        }
+        highWaterMark.accumulateAndGet(lastId, Math::max);
+        sampleHighWaterMark();
+        loadMillis = System.currentTimeMillis() - start;
+        state = State.READY;
+        log.info("Reward column store loaded {} transactions of {} customers from the database in {} ms",
+                read, builders.size(), loadMillis);
+        return read;
+    }
+
+    /**
+     * Adds the customers of the snapshot file to the store.
+     *
+     * @return The low-water mark of the snapshot, or Long.MIN_VALUE if there is no usable snapshot.
+     */
+    private long restoreSnapshot(RewardRulePlan plan) {
+        Path file = snapshotFile();
+        if (file == null || !Files.exists(file)) {
+            return Long.MIN_VALUE;
+        }
+        long start = System.currentTimeMillis();
+        long[] transactions = new long[1];
+        try {
+            ColumnStoreSnapshot.Watermarks watermarks = ColumnStoreSnapshot.read(file, snapshot -> {
+                Columns columns = new Columns(snapshot.segment, plan, snapshot.days, snapshot.ids, snapshot.amountsCents);
+                customers.merge(snapshot.customerId, columns, (recorded, restored) -> recorded.merge(restored, plan));
+                transactions[0] += snapshot.days.length;
+            });
+            restoredTransactions = transactions[0];
+            highWaterMark.accumulateAndGet(watermarks.highWaterMark, Math::max);
+            log.info("Reward column store restored {} transactions up to id {} from {} in {} ms; reading from id {}",
+                    transactions[0], watermarks.highWaterMark, file, System.currentTimeMillis() - start,
+                    watermarks.lowWaterMark);
+            return watermarks.lowWaterMark;
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Reward column store snapshot {} not restored, loading from the database: {}", file, e.getMessage());
+            customers.clear(); // Drop a partial restore; transactions recorded meanwhile are read back from the database
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Writes the store to the snapshot file on "rewards.column-store.snapshot-cron". Disabled by default.
+     */
+    @Scheduled(cron = "${rewards.column-store.snapshot-cron:-}")
+    public void scheduledSnapshot() {
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            log.warn("Reward column store snapshot not written: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every customer in the store to the snapshot file, replacing the previous snapshot.
+     * Writes continue meanwhile; the watermarks are taken first, so anything the snapshot misses is newer than the
+     * high-water mark or committed after the low-water mark was reached, and is read again on restore.
+     *
+     * @return The number of customers and transactions written, the watermarks, the file size and the time taken,
+     *         or an empty map if the store is not ready or no snapshot file is configured.
+     * @throws IOException if the file cannot be written.
+     */
+    public Map<String, Long> writeSnapshot() throws IOException {
+        Path file = snapshotFile();
+        if (file == null || state != State.READY) {
+            return Map.of();
+        }
+        long start = System.currentTimeMillis();
+        long snapshotLowWaterMark = lowWaterMark();
+        long snapshotHighWaterMark = highWaterMark.get();
+        List<ColumnStoreSnapshot.CustomerColumns> snapshot = new ArrayList<>(customers.size());
+        long transactions = 0;
+        for (Map.Entry<String, Columns> entry : customers.entrySet()) {
+            Columns columns = entry.getValue();
+            snapshot.add(new ColumnStoreSnapshot.CustomerColumns(entry.getKey(), columns.segment, columns.days,
+                    columns.ids, columns.amountsCents));
+            transactions += columns.days.length;
+        }
+        long bytes = ColumnStoreSnapshot.write(file, snapshotHighWaterMark, snapshotLowWaterMark, snapshot);
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("customers", (long) snapshot.size());
+        result.put("transactions", transactions);
+        result.put("highWaterMark", snapshotHighWaterMark);
+        result.put("lowWaterMark", snapshotLowWaterMark);
+        result.put("bytes", bytes);
+        result.put("millis", System.currentTimeMillis() - start);
+        log.info("Reward column store snapshot written to {}: {}", file, result);
+        return result;
+    }
+
+    /**
+     * @return The newest sampled high-water mark at least "rewards.column-store.commit-lag" old, or where the load
+     *         started reading if there is none yet.
+     */
+    private long lowWaterMark() {
+        long settledBefore = clock.millis() - rewardProperties.getColumnStore().getCommitLag().toMillis();
+        long lowWaterMark = loadedAfterId;
+        synchronized (watermarkSamples) {
+            for (long[] sample : watermarkSamples) {
+                if (sample[0] > settledBefore) {
+                    break;
+                }
+                lowWaterMark = sample[1];
+            }
+        }
+        return lowWaterMark;
+    }
+
+    /**
+     * Records the high-water mark at most once per second, keeping the newest sample older than the commit lag
+     * and every later one.
+     */
+    private void sampleHighWaterMark() {
+        long now = clock.millis();
+        if (now - lastSampleMillis < WATERMARK_SAMPLE_MILLIS) {
+            return;
+        }
+        long settledBefore = now - rewardProperties.getColumnStore().getCommitLag().toMillis();
+        synchronized (watermarkSamples) {
+            if (now - lastSampleMillis < WATERMARK_SAMPLE_MILLIS) {
+                return;
+            }
+            lastSampleMillis = now;
+            watermarkSamples.addLast(new long[] {now, highWaterMark.get()});
+            while (watermarkSamples.size() > 1) {
+                Iterator<long[]> samples = watermarkSamples.iterator();
+                samples.next();
+                if (samples.next()[0] > settledBefore) {
+                    break; // The oldest sample is the newest one older than the commit lag
+                }
+                watermarkSamples.removeFirst();
+            }
+        }
+    }
+
+    private Path snapshotFile() {
+        String file = rewardProperties.getColumnStore().getSnapshotFile();
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    /**
+     * Adds a recorded transaction to the store. Runs after the recording transaction commits,
+     * so the store never holds a transaction that was rolled back.
+     *
+     * @param event The recorded transaction.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        if (state == State.DISABLED) {
+            return;
+        }
+        RewardRulePlan plan = rewardRuleService.plan();
+        long day = event.getTransactionDate().toEpochDay();
+        highWaterMark.accumulateAndGet(event.getTransactionId(), Math::max);
+        sampleHighWaterMark();
+        customers.compute(event.getCustomerId(), (customerId, current) -> current == null
+                ? new Builder(event.getSegment()).add(event.getTransactionId(), day, event.getAmountCents()).build(plan)
+                : current.with(event.getTransactionId(), (int) day, event.getAmountCents(), plan));
+    }
+
+    /**
+     * Removes the transactions dropped by partition retention, so the store keeps agreeing with the
+     * transaction table, and rewrites the snapshot file so a restart does not restore them.
+     *
+     * @param event The day before which every transaction was dropped.
+     */
+    @EventListener
+    public void onTransactionsDropped(TransactionsDroppedEvent event) {
+        if (state == State.DISABLED) {
+            return;
+        }
+        droppedBeforeDay = Math.max(droppedBeforeDay, (int) event.getBefore().toEpochDay());
+        trim(droppedBeforeDay);
+        scheduledSnapshot();
+    }
+
+    private void trim(int day) {
+        for (String customerId : customers.keySet()) {
+            customers.computeIfPresent(customerId, (id, columns) -> columns.from(day));
+        }
+    }
+
+    /**
+     * Computes a customer's rewards for a period from the store.
+     *
+     * @param customerId The business ID of the customer.
+     * @param startDate The start date of the period (inclusive).
+     * @param endDate The end date of the period (inclusive).
+     * @param plan The rules to compute points with.
+     * @return The summary, without months if the customer has no transactions in the period;
+     *         null if the store is not ready and the database must be queried instead.
+     */
+    public RewardSummary summarize(String customerId, LocalDate startDate, LocalDate endDate, RewardRulePlan plan) {
+        if (state != State.READY) {
+            return null;
+        }
+        RewardSummary summary = new RewardSummary(customerId);
+        Columns columns = customers.get(customerId);
+        if (columns == null) {
+            return summary;
+        }
+        if (columns.planVersion != plan.getVersion()) {
+            columns = recompute(customerId, columns, plan);
+        }
+
+        int endDay = (int) endDate.toEpochDay();
+        int from = columns.lowerBound((int) startDate.toEpochDay());
+        int to = columns.lowerBound(endDay + 1);
+        // One search per month that has transactions in the period, each bounded by that month's transactions
+        while (from < to) {
+            LocalDate date = LocalDate.ofEpochDay(columns.days[from]);
+            int monthEnd = Math.min(columns.days[from] - date.getDayOfMonth() + date.lengthOfMonth(), endDay);
+            int next = columns.lowerBoundFrom(monthEnd + 1, from, to);
+            summary.addPoints(MonthlyPoints.epochMonth(date.getYear(), date.getMonthValue()),
+                    (int) (columns.prefixPoints[next] - columns.prefixPoints[from]));
+            from = next;
+        }
+        return summary;
+    }
+
+    private Columns recompute(String customerId, Columns columns, RewardRulePlan plan) {
+        Columns recomputed = columns.withPlan(plan);
+        // Publish unless a write replaced the columns meanwhile; that write recomputed them itself
+        customers.replace(customerId, columns, recomputed);
+        return recomputed;
+    }
+
+    /**
+     * @return Whether the store is disabled, warming up or ready.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return The state, the number of customers and transactions held, the estimated heap used by the arrays
+     *         and bookkeeping, that estimate scaled to one million transactions, and the duration of the load.
+     */
+    public Map<String, Object> stats() {
+        long transactions = 0;
+        int customerCount = 0;
+        for (Columns columns : customers.values()) {
+            transactions += columns.days.length;
+            customerCount++;
+        }
+        long bytes = transactions * BYTES_PER_TRANSACTION + (long) customerCount * (CUSTOMER_OVERHEAD_BYTES + Long.BYTES);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("customers", customerCount);
+        stats.put("transactions", transactions);
+        stats.put("estimatedBytes", bytes);
+        stats.put("bytesPerMillionTransactions", transactions > 0 ? bytes * 1_000_000 / transactions : 0);
+        stats.put("loadMillis", loadMillis);
+        stats.put("restoredTransactions", restoredTransactions);
+        stats.put("highWaterMark", highWaterMark.get());
+        return stats;
+    }
+
+    /**
+     * The transactions of one customer, sorted by day, then by id. prefixPoints[i] is the sum of the points
+     * of the first i transactions, so it has one element more than the other arrays. Never modified once built.
+     */
+    private static final class Columns {
+        private final String segment;
+        private final long planVersion;
+        private final int[] days;
+        private final long[] ids;
+        private final long[] amountsCents;
+        private final long[] prefixPoints;
+
+        private Columns(String segment, RewardRulePlan plan, int[] days, long[] ids, long[] amountsCents) {
+            this(segment, plan.getVersion(), days, ids, amountsCents, new long[days.length + 1]);
+            if (plan.isBuiltIn()) {
+                int[] points = new int[days.length];
+                RewardPoints.forCents(amountsCents, points);
+                for (int i = 0; i < days.length; i++) {
+                    prefixPoints[i + 1] = prefixPoints[i] + points[i];
+                }
+                return;
+            }
+            for (int i = 0; i < days.length; i++) {
+                prefixPoints[i + 1] = prefixPoints[i] + plan.points(amountsCents[i], LocalDate.ofEpochDay(days[i]), segment);
+            }
+        }
+
+        private Columns(String segment, long planVersion, int[] days, long[] ids, long[] amountsCents, long[] prefixPoints) {
+            this.segment = segment;
+            this.planVersion = planVersion;
+            this.days = days;
+            this.ids = ids;
+            this.amountsCents = amountsCents;
+            this.prefixPoints = prefixPoints;
+        }
+
+        /** Index of the first transaction on or after the day. */
+        private int lowerBound(int day) {
+            int low = 0;
+            int high = days.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (days[middle] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Index of the first transaction on or after the day, searching from index "from" up to "to".
+         * Probes 1, 2, 4... transactions ahead before the binary search, so the cost grows with the log
+         * of the distance to the result rather than of the number of transactions.
+         */
+        private int lowerBoundFrom(int day, int from, int to) {
+            int low = from;
+            int step = 1;
+            while (low + step < to && days[low + step - 1] < day) {
+                low += step;
+                step <<= 1;
+            }
+            int high = Math.min(low + step, to);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (days[middle] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private boolean contains(long id, int day) {
+            for (int i = lowerBound(day); i < days.length && days[i] == day; i++) {
+                if (ids[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Copy with one more transaction, or this if it is already held. */
+        private Columns with(long id, int day, long amountCents, RewardRulePlan plan) {
+            if (contains(id, day)) {
+                return planVersion == plan.getVersion() ? this : withPlan(plan);
+            }
+            int at = lowerBound(day + 1); // After transactions of the same day
+            int size = days.length;
+            int[] newDays = new int[size + 1];
+            long[] newIds = new long[size + 1];
+            long[] newAmounts = new long[size + 1];
+            System.arraycopy(days, 0, newDays, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(amountsCents, 0, newAmounts, 0, at);
+            newDays[at] = day;
+            newIds[at] = id;
+            newAmounts[at] = amountCents;
+            System.arraycopy(days, at, newDays, at + 1, size - at);
+            System.arraycopy(ids, at, newIds, at + 1, size - at);
+            System.arraycopy(amountsCents, at, newAmounts, at + 1, size - at);
+            if (planVersion != plan.getVersion()) {
+                return new Columns(segment, plan, newDays, newIds, newAmounts);
+            }
+            // Sums up to the new transaction are unchanged and every later one grows by its points
+            long points = plan.points(amountCents, LocalDate.ofEpochDay(day), segment);
+            long[] newPrefixPoints = new long[size + 2];
+            System.arraycopy(prefixPoints, 0, newPrefixPoints, 0, at + 1);
+            for (int i = at + 1; i <= size + 1; i++) {
+                newPrefixPoints[i] = prefixPoints[i - 1] + points;
+            }
+            return new Columns(segment, planVersion, newDays, newIds, newAmounts, newPrefixPoints);
+        }
+
+        /** Copy without the transactions before the day, this if there are none, or null if none are left. */
+        private Columns from(int day) {
+            int at = lowerBound(day);
+            if (at == 0) {
+                return this;
+            }
+            if (at == days.length) {
+                return null;
+            }
+            int size = days.length - at;
+            long[] newPrefixPoints = new long[size + 1];
+            for (int i = 1; i <= size; i++) {
+                newPrefixPoints[i] = prefixPoints[at + i] - prefixPoints[at];
+            }
+            return new Columns(segment, planVersion, Arrays.copyOfRange(days, at, days.length),
+                    Arrays.copyOfRange(ids, at, ids.length), Arrays.copyOfRange(amountsCents, at, amountsCents.length), newPrefixPoints);
+        }
+
+        private Columns withPlan(RewardRulePlan plan) {
+            return new Columns(segment, plan, days, ids, amountsCents);
+        }
+
+        /** Both sets of transactions in day order, with those held by both kept once. */
+        private Columns merge(Columns other, RewardRulePlan plan) {
+            int size = days.length + other.days.length;
+            int[] mergedDays = new int[size];
+            long[] mergedIds = new long[size];
+            long[] mergedAmounts = new long[size];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < days.length || j < other.days.length) {
+                if (j == other.days.length || (i < days.length && days[i] <= other.days[j])) {
+                    mergedDays[count] = days[i];
+                    mergedIds[count] = ids[i];
+                    mergedAmounts[count++] = amountsCents[i++];
+                } else {
+                    if (!contains(other.ids[j], other.days[j])) {
+                        mergedDays[count] = other.days[j];
+                        mergedIds[count] = other.ids[j];
+                        mergedAmounts[count++] = other.amountsCents[j];
+                    }
+                    j++;
+                }
+            }
+            return new Columns(segment != null ? segment : other.segment, plan, Arrays.copyOf(mergedDays, count),
+                    Arrays.copyOf(mergedIds, count), Arrays.copyOf(mergedAmounts, count));
+        }
+    }
+
+    /** Collects a customer's transactions in any order while loading. */
+    private static final class Builder {
+        private final String segment;
+        private int size;
+        private int[] days = new int[8];
+        private long[] ids = new long[8];
+        private long[] amountsCents = new long[8];
+
+        private Builder(String segment) {
+            this.segment = segment;
+        }
+
+        private Builder add(long id, long day, long amountCents) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                amountsCents = Arrays.copyOf(amountsCents, size * 2);
+            }
+            days[size] = (int) day;
+            ids[size] = id;
+            amountsCents[size] = amountCents;
+            size++;
+            return this;
+        }
+
+        /** Sorts by day, keeping the id order within a day, into arrays of the exact size. */
+        private Columns build(RewardRulePlan plan) {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) days[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            int[] sortedDays = new int[size];
+            long[] sortedIds = new long[size];
+            long[] sortedAmounts = new long[size];
+            for (int i = 0; i < size; i++) {
+                int index = (int) order[i];
+                sortedDays[i] = days[index];
+                sortedIds[i] = ids[index];
+                sortedAmounts[i] = amountsCents[index];
+            }
+            return new Columns(segment, plan, sortedDays, sortedIds, sortedAmounts);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.RewardEvent;
+import com.retailer.rewards.entity.RewardEventRelayOffset;
+import com.retailer.rewards.event.RewardEventSink;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.RewardEventRelayOffsetRepository;
+import com.retailer.rewards.repository.RewardEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class maintaining the reward event outbox, a transactional log of point changes.
+ * Each recorded transaction writes a reward_event row in the database transaction that records it, so the event
+ * exists exactly when the transaction does. Consumers read the events through the change feed, or receive them
+ * from the relay, which publishes them in batches to every enabled RewardEventSink.
+ * <p>
+ * Event ids are allocated when a row is inserted, not when it commits, so an event may become visible after
+ * events with greater ids, leaving a gap in the ids read until it does. Events are stamped by the database clock
+ * and compared against it, so neither the clocks of the nodes nor the time a transaction takes to commit matter:
+ * a missing id counts as rolled back only once an event after it is older than "rewards.events.settle-time".
+ * The feed stops before a gap until then, keeping id order for consumers that only remember the last id.
+ * The relay publishes past a gap, remembers the missing ids, and publishes them when they show up.
+ */
+
+@Service
+public class RewardEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(RewardEventService.class);
+
+    private final RewardEventRepository eventRepository;
+    private final RewardEventRelayOffsetRepository offsetRepository;
+    private final RewardService rewardService;
+    private final List<RewardEventSink> sinks;
+    private final RewardProperties rewardProperties;
+    private final Map<String, Counter> relayFailures = new HashMap<>();
+    private final Clock clock;
+
+    @Autowired
+    public RewardEventService(RewardEventRepository eventRepository, RewardEventRelayOffsetRepository offsetRepository,
+                              RewardService rewardService, List<RewardEventSink> sinks, RewardProperties rewardProperties,
+                              MeterRegistry meterRegistry) {
+        this(eventRepository, offsetRepository, rewardService, sinks, rewardProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    RewardEventService(RewardEventRepository eventRepository, RewardEventRelayOffsetRepository offsetRepository,
+                       RewardService rewardService, List<RewardEventSink> sinks, RewardProperties rewardProperties,
+                       MeterRegistry meterRegistry, Clock clock) {
+        this.eventRepository = eventRepository;
+        this.offsetRepository = offsetRepository;
+        this.rewardService = rewardService;
+        this.sinks = sinks;
+        this.rewardProperties = rewardProperties;
+        this.clock = clock;
+        for (RewardEventSink sink : sinks) {
+            relayFailures.put(sink.getName(), Counter.builder("rewards.events.relay.failures")
+                    .description("Relay runs that left events unpublished because the sink failed")
+                    .tag("sink", sink.getName())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Writes the points a newly recorded transaction adds to its month to the outbox.
+     * Runs synchronously inside the transaction that saved it, so both commit or roll back together.
+     * Transactions earning no points write no event.
+     *
+     * @param event The recorded transaction.
+     */
+    @EventListener
+    @Transactional
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        if (!rewardProperties.getEvents().isEnabled()) {
+            return;
+        }
+        int points = rewardService.calculatePointsForCents(event.getAmountCents(), event.getTransactionDate(), event.getSegment());
+        if (points == 0) {
+            return;
+        }
+        eventRepository.save(new RewardEvent(event.getCustomerId(), YearMonth.from(event.getTransactionDate()).toString(),
+                points, event.getTransactionId()));
+    }
+
+    /**
+     * Reads the change feed.
+     *
+     * @param since The id of the last event the caller has applied; 0 to read from the beginning.
+     * @param limit The maximum number of events returned.
+     * @return The events with an id greater than "since", in id order, up to the first gap that may still fill.
+     */
+    public List<RewardEvent> changes(long since, int limit) {
+        List<RewardEvent> events = eventRepository.findAfter(since, PageRequest.of(0, limit));
+        if (events.isEmpty()) {
+            return events;
+        }
+        long settledId = eventRepository.findLastSettledId(since, events.get(events.size() - 1).getId(), settleSeconds());
+        long previous = since;
+        for (int i = 0; i < events.size(); i++) {
+            long id = events.get(i).getId();
+            if (id != previous + 1 && id > settledId) {
+                return events.subList(0, i); // A transaction before this event may still commit
+            }
+            previous = id;
+        }
+        return events;
+    }
+
+    /**
+     * Publishes the events on "rewards.events.relay-cron". Disabled by default.
+     */
+    @Scheduled(cron = "${rewards.events.relay-cron:-}")
+    public void scheduledRelay() {
+        if (rewardProperties.getEvents().isEnabled()) {
+            relay();
+        }
+    }
+
+    /**
+     * Publishes every event each enabled sink has not accepted yet, and records the position of each sink after
+     * every batch. Events missed earlier that have committed since are published first, as one batch; then the
+     * new events follow in batches of "rewards.events.relay-batch-size". A sink that fails keeps its position
+     * and is offered the same batch on the next run; the other sinks are not held back.
+     *
+     * @return The id of the last event accepted by each enabled sink.
+     */
+    public synchronized Map<String, Long> relay() {
+        Map<String, Long> positions = new LinkedHashMap<>();
+        for (RewardEventSink sink : sinks) {
+            if (!sink.isEnabled()) {
+                continue;
+            }
+            RewardEventRelayOffset offset = offsetRepository.findById(sink.getName())
+                    .orElseGet(() -> new RewardEventRelayOffset(sink.getName(), 0, null));
+            if (relayMissed(sink, offset)) {
+                relayNew(sink, offset);
+            }
+            positions.put(sink.getName(), offset.getLastEventId());
+        }
+        return positions;
+    }
+
+    /**
+     * Publishes the missed events of a sink that have committed since, and forgets those that rolled back.
+     *
+     * @return Whether the sink accepted the events found, so new events can follow.
+     */
+    private boolean relayMissed(RewardEventSink sink, RewardEventRelayOffset offset) {
+        Set<Long> missed = offset.getMissedEventIds();
+        if (missed.isEmpty()) {
+            return true;
+        }
+        // Read before the events, so a missed id that commits in between is published rather than forgotten
+        long settledId = eventRepository.findLastSettledId(Collections.min(missed), offset.getLastEventId(), settleSeconds());
+        List<RewardEvent> late = new ArrayList<>(eventRepository.findAllById(new ArrayList<>(missed)));
+        if (!late.isEmpty()) {
+            late.sort(Comparator.comparingLong(RewardEvent::getId));
+            if (!publish(sink, late, offset.getLastEventId())) {
+                return false;
+            }
+            late.forEach(event -> missed.remove(event.getId()));
+        }
+        int found = late.size();
+        int pending = missed.size();
+        missed.removeIf(id -> id < settledId);
+        if (found > 0 || missed.size() != pending) {
+            offset.setRelayedAt(Instant.now(clock));
+            offsetRepository.save(offset);
+        }
+        return true;
+    }
+
+    private void relayNew(RewardEventSink sink, RewardEventRelayOffset offset) {
+        int batchSize = rewardProperties.getEvents().getRelayBatchSize();
+        List<RewardEvent> batch;
+        do {
+            long position = offset.getLastEventId();
+            batch = eventRepository.findAfter(position, PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || !publish(sink, batch, position)) {
+                break;
+            }
+            long settledId = eventRepository.findLastSettledId(position, batch.get(batch.size() - 1).getId(), settleSeconds());
+            long previous = position;
+            for (RewardEvent event : batch) {
+                if (event.getId() > settledId) {
+                    for (long id = previous + 1; id < event.getId(); id++) {
+                        offset.getMissedEventIds().add(id); // May still commit
+                    }
+                }
+                previous = event.getId();
+            }
+            offset.setLastEventId(previous);
+            offset.setRelayedAt(Instant.now(clock));
+            offsetRepository.save(offset);
+        } while (batch.size() == batchSize);
+    }
+
+    private boolean publish(RewardEventSink sink, List<RewardEvent> events, long position) {
+        try {
+            sink.publish(events);
+            return true;
+        } catch (RuntimeException e) {
+            relayFailures.get(sink.getName()).increment();
+            log.warn("Reward events after {} not published to sink '{}', retrying on the next run: {}",
+                    position, sink.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private long settleSeconds() {
+        return rewardProperties.getEvents().getSettleTime().toSeconds();
+    }
+}
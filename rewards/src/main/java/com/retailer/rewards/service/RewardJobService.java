@@ -0,0 +1,150 @@
+package com.retailer.rewards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardJob;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.exception.RewardJobNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service class running full rewards recalculations as background jobs.
+ * Jobs run on a dedicated thread instead of a request thread, compute customers a page at a time,
+ * and write the summaries as newline-delimited JSON to a result file. A request made while a recalculation
+ * is queued or running is attached to that job instead of starting another one, so at most one job runs at a time.
+ */
+
+@Service
+public class RewardJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(RewardJobService.class);
+
+    private final RewardService rewardService;
+    private final ObjectMapper objectMapper;
+    private final RewardProperties rewardProperties;
+    private final ExecutorService executor;
+
+    // Submitted jobs in submission order; guarded by this
+    private final Map<String, RewardJob> jobs = new LinkedHashMap<>();
+    private RewardJob activeJob; // Queued or running job new requests coalesce onto; guarded by this
+
+    @Autowired
+    public RewardJobService(RewardService rewardService, ObjectMapper objectMapper, RewardProperties rewardProperties) {
+        this.rewardService = rewardService;
+        this.objectMapper = objectMapper;
+        this.rewardProperties = rewardProperties;
+
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reward-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a full recalculation, or returns the one already queued or running.
+     *
+     * @return The job computing the result.
+     */
+    public synchronized RewardJob submit() {
+        if (activeJob != null && !activeJob.isFinished()) {
+            return activeJob;
+        }
+        String id = UUID.randomUUID().toString();
+        RewardJob job = new RewardJob(id, Instant.now(), resultDir().resolve(id + ".ndjson"));
+        executor.execute(() -> run(job));
+
+        jobs.put(id, job);
+        activeJob = job;
+        evictFinishedJobs();
+        return job;
+    }
+
+    /**
+     * @param jobId The job ID returned on submission.
+     * @return The job with its current status and progress.
+     * @throws RewardJobNotFoundException if the job does not exist or is no longer retained.
+     */
+    public synchronized RewardJob getJob(String jobId) {
+        RewardJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RewardJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    private void run(RewardJob job) {
+        job.start(Instant.now());
+        int pageSize = rewardProperties.getPagination().getDefaultLimit();
+        try {
+            Files.createDirectories(job.getResultFile().getParent());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(job.getResultFile()))) {
+                String after = null;
+                List<RewardSummary> page;
+                do {
+                    page = rewardService.calculateRewardsForCustomerPage(after, pageSize, job::addRowsProcessed);
+                    for (RewardSummary summary : page) {
+                        out.write(objectMapper.writeValueAsBytes(summary));
+                        out.write('\n');
+                    }
+                    job.addCustomersDone(page.size());
+                    if (!page.isEmpty()) {
+                        after = page.get(page.size() - 1).getCustomerId();
+                    }
+                } while (page.size() == pageSize);
+            }
+            job.complete(Instant.now());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Reward job {} failed", job.getId(), e);
+            job.fail(Instant.now(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the oldest finished jobs and their result files beyond "rewards.jobs.retained-jobs".
+     */
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - rewardProperties.getJobs().getRetainedJobs();
+        Iterator<RewardJob> iterator = jobs.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            RewardJob job = iterator.next();
+            if (job.isFinished()) {
+                iterator.remove();
+                excess--;
+                try {
+                    Files.deleteIfExists(job.getResultFile());
+                } catch (IOException e) {
+                    log.warn("Could not delete result file {}", job.getResultFile(), e);
+                }
+            }
+        }
+    }
+
+    private Path resultDir() {
+        return Paths.get(rewardProperties.getJobs().getResultDir());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,257 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.LedgerDiscrepancy;
+import com.retailer.rewards.dto.MonthlyPointsProjection;
+import com.retailer.rewards.dto.TransactionView;
+import com.retailer.rewards.entity.CustomerMonthlyPoints;
+import com.retailer.rewards.entity.RewardLedgerState;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import com.retailer.rewards.repository.CustomerMonthlyPointsRepository;
+import com.retailer.rewards.repository.RewardLedgerStateRepository;
+import com.retailer.rewards.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Service class maintaining the customer monthly points ledger.
+ * The ledger is updated in the same database transaction that records a transaction,
+ * and can be rebuilt or verified against a recomputation from the transaction table.
+ * A rule change makes the ledger stale until the next rebuild (see {@link RewardService#isLedgerStale()}).
+ */
+
+@Service
+public class RewardLedgerService {
+
+    private static final String LOCK_ROW_SQL =
+            "insert into customer_monthly_points (customer_id, reward_month, points, transaction_count) values (?, ?, 0, 0) " +
+            "on duplicate key update points = points";
+    private static final String SET_ROW_SQL =
+            "update customer_monthly_points set points = ?, transaction_count = ? where customer_id = ? and reward_month = ?";
+    private static final String DELETE_ROW_SQL =
+            "delete from customer_monthly_points where customer_id = ? and reward_month = ?";
+
+    private final TransactionRepository transactionRepository;
+    private final CustomerMonthlyPointsRepository ledgerRepository;
+    private final RewardLedgerStateRepository ledgerStateRepository;
+    private final RewardService rewardService;
+    private final RewardRuleService rewardRuleService;
+    private final RewardProperties rewardProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public RewardLedgerService(TransactionRepository transactionRepository, CustomerMonthlyPointsRepository ledgerRepository,
+                               RewardLedgerStateRepository ledgerStateRepository, RewardService rewardService,
+                               RewardRuleService rewardRuleService, RewardProperties rewardProperties,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.ledgerStateRepository = ledgerStateRepository;
+        this.rewardService = rewardService;
+        this.rewardRuleService = rewardRuleService;
+        this.rewardProperties = rewardProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds the points of a newly recorded transaction to the ledger.
+     * Runs synchronously inside the transaction that saved it, so both commit or roll back together.
+     *
+     * @param event The recorded transaction.
+     */
+    @EventListener
+    @Transactional
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        if (!rewardProperties.getLedger().isEnabled()) {
+            return;
+        }
+        int points = rewardService.calculatePointsForCents(event.getAmountCents(), event.getTransactionDate(), event.getSegment());
+        String rewardMonth = YearMonth.from(event.getTransactionDate()).toString();
+
+        // Increment the row in place, creating it on the first transaction of the month
+        ledgerRepository.addPoints(event.getCustomerId(), rewardMonth, points);
+    }
+
+    /**
+     * Deletes the ledger rows of the months whose transactions were dropped by partition retention,
+     * so the "ledger" mode and {@link #verify()} stop counting rows the other modes no longer see.
+     *
+     * @param event The day before which every transaction was dropped.
+     */
+    @EventListener
+    @Transactional
+    public void onTransactionsDropped(TransactionsDroppedEvent event) {
+        // Partitions end on the first day of a month, so every month before the one holding the first kept day is gone
+        ledgerRepository.deleteByRewardMonthBefore(YearMonth.from(event.getBefore()).toString());
+    }
+
+    /**
+     * Recomputes the ledger from the transaction table, one month per database transaction, rewriting each
+     * row in place with JDBC batches of "rewards.ledger.chunk-size" rows. Transactions recorded while the
+     * rebuild is running are not lost, so ingest does not need to be paused. The rules it was rebuilt with are
+     * stored with it, so the "ledger" mode uses it again on every node whose rules match.
+     *
+     * @return The number of ledger rows written.
+     */
+    public int rebuild() {
+        RewardRulePlan plan = rewardRuleService.plan();
+        int rows = 0;
+        for (YearMonth month : monthsToRebuild()) {
+            rows += rebuildMonth(month, plan);
+        }
+        // Every node uses the ledger again once its rules match the ones it was rebuilt with
+        transactionTemplate.executeWithoutResult(status ->
+                ledgerStateRepository.save(new RewardLedgerState(plan.getRulesHash(), Instant.now())));
+        return rows;
+    }
+
+    /**
+     * Every month with a ledger row, and every month from the first transaction to the last one.
+     */
+    private SortedSet<YearMonth> monthsToRebuild() {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        for (String rewardMonth : ledgerRepository.findRewardMonths()) {
+            months.add(YearMonth.parse(rewardMonth));
+        }
+        Optional<LocalDate> firstTransactionDate = transactionRepository.findFirstTransactionDate();
+        Optional<LocalDate> lastTransactionDate = transactionRepository.findLastTransactionDate();
+        if (firstTransactionDate.isPresent() && lastTransactionDate.isPresent()) {
+            YearMonth lastMonth = YearMonth.from(lastTransactionDate.get());
+            for (YearMonth month = YearMonth.from(firstTransactionDate.get()); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    private int rebuildMonth(YearMonth month, RewardRulePlan plan) {
+        String rewardMonth = month.toString();
+        // The rows to rewrite; a row created after these reads only holds the points of transactions
+        // recorded after them, which the upsert has already counted
+        SortedSet<String> customerIds = new TreeSet<>(ledgerRepository.findCustomerIdsByRewardMonth(rewardMonth));
+        for (MonthlyPointsProjection row : aggregateMonth(month, plan)) {
+            customerIds.add(row.getCustomerId());
+        }
+        if (customerIds.isEmpty()) {
+            return 0;
+        }
+
+        return transactionTemplate.execute(status -> {
+            // Lock the rows, in key order, before reading transactions, so a transaction recorded concurrently
+            // either committed before the read or waits and adds its points to the rewritten row
+            List<Object[]> locks = new ArrayList<>();
+            for (String customerId : customerIds) {
+                locks.add(new Object[]{customerId, rewardMonth});
+            }
+            batchUpdate(LOCK_ROW_SQL, locks);
+
+            Map<String, MonthlyPointsProjection> expected = new HashMap<>();
+            for (MonthlyPointsProjection row : aggregateMonth(month, plan)) {
+                expected.put(row.getCustomerId(), row);
+            }
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> deletes = new ArrayList<>();
+            for (String customerId : customerIds) {
+                MonthlyPointsProjection row = expected.get(customerId);
+                if (row == null) {
+                    deletes.add(new Object[]{customerId, rewardMonth});
+                } else {
+                    updates.add(new Object[]{row.getPoints().intValue(), row.getTransactionCount().longValue(), customerId, rewardMonth});
+                }
+            }
+            batchUpdate(SET_ROW_SQL, updates);
+            batchUpdate(DELETE_ROW_SQL, deletes);
+            return updates.size();
+        });
+    }
+
+    private List<MonthlyPointsProjection> aggregateMonth(YearMonth month, RewardRulePlan plan) {
+        return transactionRepository.aggregateMonthlyPointsBetween(month.atDay(1), month.atEndOfMonth(),
+                plan.getPointsExpression(), plan.getPointsParameters());
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(sql, rows, rewardProperties.getLedger().getChunkSize(), (statement, args) -> {
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+        });
+    }
+
+    /**
+     * Compares the ledger with a recomputation from the transaction table.
+     *
+     * @return The ledger rows that are missing, unexpected or hold different points or transaction counts;
+     *         empty when consistent.
+     */
+    public List<LedgerDiscrepancy> verify() {
+        Map<String, CustomerMonthlyPoints> expected = recompute(rewardRuleService.plan());
+        List<LedgerDiscrepancy> discrepancies = new ArrayList<>();
+
+        for (CustomerMonthlyPoints row : ledgerRepository.findAll()) {
+            CustomerMonthlyPoints expectedRow = expected.remove(key(row.getCustomerId(), row.getRewardMonth()));
+            if (expectedRow == null) {
+                discrepancies.add(new LedgerDiscrepancy(row.getCustomerId(), row.getRewardMonth(), row.getPoints(), 0,
+                        row.getTransactionCount(), 0));
+            } else if (expectedRow.getPoints() != row.getPoints() || expectedRow.getTransactionCount() != row.getTransactionCount()) {
+                discrepancies.add(new LedgerDiscrepancy(row.getCustomerId(), row.getRewardMonth(), row.getPoints(), expectedRow.getPoints(),
+                        row.getTransactionCount(), expectedRow.getTransactionCount()));
+            }
+        }
+        // Whatever is left was never written to the ledger
+        for (CustomerMonthlyPoints missing : expected.values()) {
+            discrepancies.add(new LedgerDiscrepancy(missing.getCustomerId(), missing.getRewardMonth(), 0, missing.getPoints(),
+                    0, missing.getTransactionCount()));
+        }
+        return discrepancies;
+    }
+
+    /**
+     * Recomputes ledger rows from the transaction table, reading it in id order one chunk at a time.
+     */
+    private Map<String, CustomerMonthlyPoints> recompute(RewardRulePlan plan) {
+        Map<String, CustomerMonthlyPoints> rows = new HashMap<>();
+        int chunkSize = rewardProperties.getLedger().getChunkSize();
+        long lastId = Long.MIN_VALUE;
+        List<TransactionView> chunk;
+
+        do {
+            chunk = transactionRepository.findViewsAfter(lastId, PageRequest.of(0, chunkSize));
+            for (TransactionView transaction : chunk) {
+                String rewardMonth = YearMonth.from(transaction.getTransactionDate()).toString();
+                CustomerMonthlyPoints row = rows.computeIfAbsent(key(transaction.getCustomerId(), rewardMonth),
+                        k -> new CustomerMonthlyPoints(transaction.getCustomerId(), rewardMonth, 0, 0));
+                row.setPoints(row.getPoints() + plan.points(
+                        transaction.getAmountCents(), transaction.getTransactionDate(), transaction.getSegment()));
+                row.setTransactionCount(row.getTransactionCount() + 1);
+                lastId = transaction.getId();
+            }
+        } while (chunk.size() == chunkSize);
+
+        return rows;
+    }
+
+    private static String key(String customerId, String rewardMonth) {
+        return customerId + '|' + rewardMonth;
+    }
+}
@@ -0,0 +1,159 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.dto.RewardSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the reward calculation and persistence hot paths.
+ * Every meter is registered up front, so recording a value is a map lookup and an atomic update
+ * rather than a registry lookup. Percentile histograms are enabled through the
+ * "management.metrics.distribution.percentiles-histogram.rewards" property.
+ */
+
+@Component
+public class RewardMetrics {
+
+    /** Database calls made by the reward services, tagged with the repository method they run. */
+    public enum Query {
+        FIND_ALL("findAllViews"),
+        STREAM_ALL("streamAll"),
+        AGGREGATE_MONTHLY_POINTS("aggregateMonthlyPoints"),
+        AGGREGATE_MONTHLY_POINTS_BETWEEN("aggregateMonthlyPointsBetween"),
+        FIND_LEDGER("ledger.findAll"),
+        FIND_SNAPSHOTS("snapshot.findByRewardMonthIn"),
+        FIND_CUSTOMER_PAGE("findCustomerIdsWithTransactionsAfter"),
+        FIND_CUSTOMER_PAGE_TRANSACTIONS("findViewsByCustomerIdIn"),
+        FIND_CUSTOMER_PERIOD("findViewsByCustomerDbIdAndTransactionDateBetween"),
+        FIND_CUSTOMERS_PERIOD("findViewsByCustomerIdInAndTransactionDateBetween"),
+        FIND_CUSTOMER_LEDGER("ledger.findByCustomerIdAndRewardMonthBetween"),
+        INSERT_BATCH("insertBatch");
+
+        private final String tag;
+
+        Query(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<AggregationMode, Timer> calculateAllTimers = new EnumMap<>(AggregationMode.class);
+    private final Map<AggregationMode, Timer> aggregationTimers = new EnumMap<>(AggregationMode.class);
+    private final Map<AggregationMode, DistributionSummary> summaryCounts = new EnumMap<>(AggregationMode.class);
+    private final Map<Query, Timer> queryTimers = new EnumMap<>(Query.class);
+    private final Map<Query, DistributionSummary> queryRows = new EnumMap<>(Query.class);
+    private final Timer periodFoundTimer;
+    private final Timer periodNotFoundTimer;
+    private final Counter allCustomersPoints;
+    private final Counter periodPoints;
+
+    @Autowired
+    public RewardMetrics(MeterRegistry meterRegistry) {
+        for (AggregationMode mode : AggregationMode.values()) {
+            String tag = mode.name().toLowerCase().replace('_', '-');
+            calculateAllTimers.put(mode, Timer.builder("rewards.calculate.all")
+                    .description("Time to calculate the rewards of all customers")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+            aggregationTimers.put(mode, Timer.builder("rewards.aggregation")
+                    .description("Time spent folding rows into summaries, excluding database calls")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+            summaryCounts.put(mode, DistributionSummary.builder("rewards.calculate.all.summaries")
+                    .description("Customer summaries returned per all-customers calculation")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+        }
+        for (Query query : Query.values()) {
+            queryTimers.put(query, Timer.builder("rewards.query")
+                    .description("Time of a database call made by the reward services")
+                    .tag("query", query.tag)
+                    .register(meterRegistry));
+            queryRows.put(query, DistributionSummary.builder("rewards.query.rows")
+                    .description("Rows read or written per database call")
+                    .baseUnit("rows")
+                    .tag("query", query.tag)
+                    .register(meterRegistry));
+        }
+        periodFoundTimer = periodTimer(meterRegistry, "found");
+        periodNotFoundTimer = periodTimer(meterRegistry, "not-found");
+        allCustomersPoints = pointsCounter(meterRegistry, "all");
+        periodPoints = pointsCounter(meterRegistry, "period");
+    }
+
+    /**
+     * Records a completed all-customers calculation.
+     *
+     * @param mode The aggregation engine used.
+     * @param nanos The total time of the calculation.
+     * @param summaries The summaries returned.
+     */
+    public void recordCalculateAll(AggregationMode mode, long nanos, List<RewardSummary> summaries) {
+        calculateAllTimers.get(mode).record(nanos, TimeUnit.NANOSECONDS);
+        summaryCounts.get(mode).record(summaries.size());
+        long points = 0;
+        for (RewardSummary summary : summaries) {
+            points += summary.getTotalRewardPoints();
+        }
+        allCustomersPoints.increment(points);
+    }
+
+    /**
+     * Records the time spent aggregating rows in memory, after they were read from the database.
+     *
+     * @param mode The aggregation engine used.
+     * @param nanos The aggregation time.
+     */
+    public void recordAggregation(AggregationMode mode, long nanos) {
+        aggregationTimers.get(mode).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a database call and the number of rows it read or wrote.
+     *
+     * @param query The call made.
+     * @param nanos The time of the call.
+     * @param rows The rows read or written.
+     */
+    public void recordQuery(Query query, long nanos, int rows) {
+        queryTimers.get(query).record(nanos, TimeUnit.NANOSECONDS);
+        queryRows.get(query).record(rows);
+    }
+
+    /**
+     * Records a per-customer period calculation, including time served by the cache or a coalesced query.
+     *
+     * @param nanos The total time of the calculation.
+     * @param summary The summary returned, or null if the customer had no transactions in the period.
+     */
+    public void recordCalculatePeriod(long nanos, RewardSummary summary) {
+        if (summary == null) {
+            periodNotFoundTimer.record(nanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        periodFoundTimer.record(nanos, TimeUnit.NANOSECONDS);
+        periodPoints.increment(summary.getTotalRewardPoints());
+    }
+
+    private static Timer periodTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("rewards.calculate.period")
+                .description("Time to calculate the rewards of one customer in a period")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter pointsCounter(MeterRegistry meterRegistry, String calculation) {
+        return Counter.builder("rewards.points.computed")
+                .description("Reward points in the summaries returned")
+                .tag("calculation", calculation)
+                .register(meterRegistry);
+    }
+}
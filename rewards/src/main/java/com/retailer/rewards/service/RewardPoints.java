@@ -0,0 +1,62 @@
+package com.retailer.rewards.service;
+
+/**
+ * Integer reward points kernel operating on amounts in cents, for the built-in tiers.
+ * RewardRulePlan falls back to these tiers when the reward rules define none for every customer.
+ * Rules:
+ *  1 point for every whole dollar spent between $50 and $100.
+ *  2 points for every whole dollar spent over $100.
+ * Each tier is a clamped difference, so a transaction costs a division and two max operations
+ * and no data-dependent branches; the bulk variants are plain counted loops the JIT can unroll and vectorize.
+ */
+public final class RewardPoints {
+
+    static final int UPPER_THRESHOLD = 100; // Dollars above which the upper rate applies
+    static final int LOWER_THRESHOLD = 50; // Dollars above which the lower rate applies
+    static final int UPPER_RATE = 2;
+    static final int LOWER_RATE = 1;
+
+    private static final int CENTS_PER_DOLLAR = 100;
+
+    private RewardPoints() {
+    }
+
+    /**
+     * @param amountCents The transaction amount in cents.
+     * @return The reward points for the transaction.
+     */
+    public static int forCents(long amountCents) {
+        long dollars = amountCents / CENTS_PER_DOLLAR; // Truncation only differs from floor below $0, which earns nothing either way
+        // Above the upper threshold both tiers apply, so the lower rate is topped up to the upper rate
+        return (int) (Math.max(dollars - LOWER_THRESHOLD, 0) * LOWER_RATE
+                + Math.max(dollars - UPPER_THRESHOLD, 0) * (UPPER_RATE - LOWER_RATE));
+    }
+
+    /**
+     * Computes the reward points of every amount in one call.
+     *
+     * @param amountsCents Transaction amounts in cents.
+     * @param points Receives the points of each amount; at least as long as amountsCents.
+     */
+    public static void forCents(int[] amountsCents, int[] points) {
+        for (int i = 0; i < amountsCents.length; i++) {
+            int dollars = amountsCents[i] / CENTS_PER_DOLLAR;
+            points[i] = Math.max(dollars - LOWER_THRESHOLD, 0) * LOWER_RATE
+                    + Math.max(dollars - UPPER_THRESHOLD, 0) * (UPPER_RATE - LOWER_RATE);
+        }
+    }
+
+    /**
+     * Computes the reward points of every amount in one call.
+     *
+     * @param amountsCents Transaction amounts in cents.
+     * @param points Receives the points of each amount; at least as long as amountsCents.
+     */
+    public static void forCents(long[] amountsCents, int[] points) {
+        for (int i = 0; i < amountsCents.length; i++) {
+            long dollars = amountsCents[i] / CENTS_PER_DOLLAR;
+            points[i] = (int) (Math.max(dollars - LOWER_THRESHOLD, 0) * LOWER_RATE
+                    + Math.max(dollars - UPPER_THRESHOLD, 0) * (UPPER_RATE - LOWER_RATE));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer for per-customer period reward queries.
+ * The first caller for a customer and period computes the summary; callers asking for the same customer
+ * and period while it is being computed wait for that result instead of querying the database again.
+ * Nothing is kept once the computation ends, so results are never older than the in-flight window.
+ */
+
+@Component
+public class RewardQueryCoalescer {
+
+    private final boolean enabled;
+    private final Map<QueryKey, CompletableFuture<RewardSummary>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    @Autowired
+    public RewardQueryCoalescer(RewardProperties rewardProperties) {
+        this.enabled = rewardProperties.getCoalescing().isEnabled();
+    }
+
+    /**
+     * Returns the summary for the customer and period, sharing the computation with identical calls in flight.
+     * Exceptions thrown by the loader (e.g. CustomerNotFoundException) are rethrown to every waiting caller.
+     *
+     * @param customerId The business ID of the customer.
+     * @param startDate The start date of the period (inclusive).
+     * @param endDate The end date of the period (inclusive).
+     * @param loader Computes the summary when no identical call is in flight.
+     * @return The reward summary for the customer and period.
+     */
+    public RewardSummary get(String customerId, LocalDate startDate, LocalDate endDate, Supplier<RewardSummary> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        QueryKey key = new QueryKey(customerId, startDate, endDate);
+        CompletableFuture<RewardSummary> own = new CompletableFuture<>();
+        CompletableFuture<RewardSummary> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            collapsed.increment();
+            return await(running);
+        }
+
+        executed.increment();
+        try {
+            RewardSummary summary = loader.get();
+            own.complete(summary);
+            return summary;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Stops new callers from joining in-flight queries of the customer whose period contains the given date,
+     * so they start a computation that sees the new transaction. Called by RewardSummaryCache after the
+     * recording transaction commits, before it lets loads be cached again; callers already waiting still
+     * receive the running result.
+     *
+     * @param customerId The business ID of the customer.
+     * @param transactionDate The date of the new transaction.
+     */
+    public void invalidate(String customerId, LocalDate transactionDate) {
+        if (!enabled) {
+            return;
+        }
+        inFlight.keySet().removeIf(key -> key.customerId.equals(customerId) && key.contains(transactionDate));
+    }
+
+    /**
+     * Stops new callers from joining any in-flight query, e.g. after the reward rules changed.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        inFlight.clear();
+    }
+
+    /**
+     * @return Queries executed, calls collapsed onto an in-flight query, and queries currently in flight.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("executed", executed.sum());
+        stats.put("collapsed", collapsed.sum());
+        stats.put("inFlight", (long) inFlight.size());
+        return stats;
+    }
+
+    private static RewardSummary await(CompletableFuture<RewardSummary> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            // Rethrow the loader's own exception so callers see the same error as the leader
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /** A customer and inclusive date range identifying identical queries. */
+    private static final class QueryKey {
+        private final String customerId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private QueryKey(String customerId, LocalDate startDate, LocalDate endDate) {
+            this.customerId = customerId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        private boolean contains(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof QueryKey)) return false;
+            QueryKey other = (QueryKey) o;
+            return customerId.equals(other.customerId) && startDate.equals(other.startDate) && endDate.equals(other.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, startDate, endDate);
+        }
+    }
+}
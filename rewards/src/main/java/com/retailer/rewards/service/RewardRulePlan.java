@@ -0,0 +1,354 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.entity.RewardRule;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable evaluation plan compiled from the reward rules.
+ * <p>
+ * Tiers are held as sorted threshold arrays with the rate each threshold adds on top of the tiers below it,
+ * so the points of an amount are a sum of clamped differences, as in RewardPoints. Multipliers are held
+ * in arrays sorted by descending multiplier, so the first one that matches the transaction date and the
+ * customer's segment is the highest. A plan is never modified after compilation; RewardRuleService
+ * replaces it as a whole, so readers need no locking.
+ */
+public final class RewardRulePlan {
+
+    private static final int CENTS_PER_DOLLAR = 100;
+    private static final int NO_MULTIPLIER_PERCENT = 100;
+
+    // Points expression over "Transaction t join t.customer c" for the database aggregation queries
+    private static final String HQL_DOLLARS = "floor(t.amountCents / 100.0)";
+    private static final String HQL_SEGMENT = "c.segment";
+    private static final String HQL_DATE = "t.transactionDate";
+
+    private static final Map<Integer, Integer> BUILT_IN_TIERS = Map.of(RewardPoints.LOWER_THRESHOLD, RewardPoints.LOWER_RATE,
+            RewardPoints.UPPER_THRESHOLD, RewardPoints.UPPER_RATE);
+
+    /** The plan of an empty rule set: the built-in $50 and $100 tiers for every customer. */
+    public static final RewardRulePlan DEFAULT = compile(List.of(), 0);
+
+    private final long version;
+    private final List<RewardRule> rules;
+    private final String fingerprint;
+    private final String rulesHash;
+
+    private final Tiers defaultTiers;
+    private final Map<String, Tiers> segmentTiers; // Segments with tiers of their own
+    private final boolean builtIn; // Only the built-in tiers apply, so RewardPoints computes every transaction
+
+    private final long[] multiplierStartDays; // Inclusive epoch days; Long.MIN_VALUE when open-ended
+    private final long[] multiplierEndDays; // Inclusive epoch days; Long.MAX_VALUE when open-ended
+    private final String[] multiplierSegments; // null applies to every customer
+    private final long[] multiplierPercents;
+
+    private final String pointsExpression;
+    private final Map<String, Object> pointsParameters;
+
+    private RewardRulePlan(long version, List<RewardRule> rules, Tiers defaultTiers, boolean builtInDefaults,
+                           Map<String, Tiers> segmentTiers, List<RewardRule> multipliers) {
+        this.version = version;
+        this.rules = Collections.unmodifiableList(rules);
+        this.fingerprint = fingerprint(rules);
+        this.rulesHash = sha256(fingerprint);
+        this.defaultTiers = defaultTiers;
+        this.segmentTiers = segmentTiers;
+        this.builtIn = builtInDefaults && segmentTiers.isEmpty() && multipliers.isEmpty();
+
+        int count = multipliers.size();
+        multiplierStartDays = new long[count];
+        multiplierEndDays = new long[count];
+        multiplierSegments = new String[count];
+        multiplierPercents = new long[count];
+        for (int i = 0; i < count; i++) {
+            RewardRule rule = multipliers.get(i);
+            multiplierStartDays[i] = rule.getStartDate() != null ? rule.getStartDate().toEpochDay() : Long.MIN_VALUE;
+            multiplierEndDays[i] = rule.getEndDate() != null ? rule.getEndDate().toEpochDay() : Long.MAX_VALUE;
+            multiplierSegments[i] = rule.getSegment();
+            multiplierPercents[i] = rule.getMultiplierPercent();
+        }
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        this.pointsExpression = hqlPoints(multipliers, parameters);
+        this.pointsParameters = Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Validates and compiles a rule set.
+     *
+     * @param rules The rules; an empty set compiles to the built-in tiers.
+     * @param version The version reported by the plan.
+     * @return The compiled plan.
+     * @throws IllegalArgumentException if a rule is incomplete or two tiers of a segment share a threshold.
+     */
+    public static RewardRulePlan compile(List<RewardRule> rules, long version) {
+        Map<String, TreeMap<Integer, Integer>> tiersBySegment = new HashMap<>(); // Key null: every customer
+        List<RewardRule> multipliers = new ArrayList<>();
+        List<RewardRule> copies = new ArrayList<>(rules.size());
+
+        for (RewardRule rule : rules) {
+            validate(rule);
+            copies.add(copy(rule));
+            if (rule.getType() == RewardRule.Type.TIER) {
+                Integer previous = tiersBySegment.computeIfAbsent(rule.getSegment(), segment -> new TreeMap<>())
+                        .put(rule.getThresholdDollars(), rule.getRate());
+                if (previous != null) {
+                    throw new IllegalArgumentException("Duplicate tier threshold $" + rule.getThresholdDollars()
+                            + (rule.getSegment() != null ? " for segment '" + rule.getSegment() + "'" : "") + ".");
+                }
+            } else {
+                multipliers.add(rule);
+            }
+        }
+
+        TreeMap<Integer, Integer> defaults = tiersBySegment.remove(null);
+        if (defaults == null) {
+            defaults = new TreeMap<>(BUILT_IN_TIERS);
+        }
+        Map<String, Tiers> segmentTiers = new HashMap<>();
+        tiersBySegment.forEach((segment, tiers) -> segmentTiers.put(segment, new Tiers(tiers)));
+        multipliers.sort(Comparator.comparing(RewardRule::getMultiplierPercent).reversed());
+
+        return new RewardRulePlan(version, copies, new Tiers(defaults), defaults.equals(BUILT_IN_TIERS), segmentTiers, multipliers);
+    }
+
+    /**
+     * Computes the points of a transaction.
+     *
+     * @param amountCents The transaction amount in cents.
+     * @param transactionDate The transaction date, matched against the multiplier dates.
+     * @param segment The customer's segment, or null.
+     * @return The reward points for the transaction.
+     */
+    public int points(long amountCents, LocalDate transactionDate, String segment) {
+        if (builtIn) {
+            return RewardPoints.forCents(amountCents);
+        }
+        Tiers tiers = segment == null || segmentTiers.isEmpty() ? defaultTiers : segmentTiers.getOrDefault(segment, defaultTiers);
+        long points = tiers.points(amountCents);
+        if (multiplierPercents.length == 0 || points == 0) {
+            return (int) points;
+        }
+        return (int) (points * multiplierPercent(transactionDate.toEpochDay(), segment) / NO_MULTIPLIER_PERCENT);
+    }
+
+    /**
+     * Computes the points of an amount with the tiers that apply to every customer, without multipliers.
+     *
+     * @param amountCents The transaction amount in cents.
+     * @return The reward points for the amount.
+     */
+    public int points(long amountCents) {
+        return builtIn ? RewardPoints.forCents(amountCents) : (int) defaultTiers.points(amountCents);
+    }
+
+    /**
+     * @return true if only the built-in tiers apply, with no segment tiers or multipliers, so the points of
+     *         every transaction can be computed with RewardPoints alone, including its bulk variants.
+     */
+    boolean isBuiltIn() {
+        return builtIn;
+    }
+
+    private long multiplierPercent(long epochDay, String segment) {
+        for (int i = 0; i < multiplierPercents.length; i++) {
+            if (epochDay >= multiplierStartDays[i] && epochDay <= multiplierEndDays[i]
+                    && (multiplierSegments[i] == null || multiplierSegments[i].equals(segment))) {
+                return multiplierPercents[i];
+            }
+        }
+        return NO_MULTIPLIER_PERCENT;
+    }
+
+    /**
+     * @return The plan version; 0 for the built-in plan, incremented on every change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Copies of the rules the plan was compiled from.
+     */
+    public List<RewardRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @param rules A rule set.
+     * @return true if the rules would compile to the same plan as this one, regardless of their order.
+     */
+    public boolean hasSameRules(List<RewardRule> rules) {
+        return fingerprint.equals(fingerprint(rules));
+    }
+
+    /**
+     * @return A SHA-256 digest of the rules, in hex, regardless of their order. Unlike the version, it is the same
+     *         on every node and after a restart, so it identifies the rules that stored points were computed with.
+     */
+    public String getRulesHash() {
+        return rulesHash;
+    }
+
+    /**
+     * @return The points of a transaction as an HQL expression over "Transaction t join t.customer c",
+     *         to be summed by the database aggregation queries with {@link #getPointsParameters()}.
+     */
+    public String getPointsExpression() {
+        return pointsExpression;
+    }
+
+    /**
+     * @return The named parameters of the points expression.
+     */
+    public Map<String, Object> getPointsParameters() {
+        return pointsParameters;
+    }
+
+    private String hqlPoints(List<RewardRule> multipliers, Map<String, Object> parameters) {
+        String points = defaultTiers.hql();
+        if (!segmentTiers.isEmpty()) {
+            StringBuilder cases = new StringBuilder("case");
+            segmentTiers.forEach((segment, tiers) -> {
+                String name = "tierSegment" + parameters.size();
+                parameters.put(name, segment);
+                cases.append(" when ").append(HQL_SEGMENT).append(" = :").append(name).append(" then ").append(tiers.hql());
+            });
+            points = cases.append(" else ").append(points).append(" end").toString();
+        }
+        if (multipliers.isEmpty()) {
+            return points;
+        }
+
+        StringBuilder percent = new StringBuilder("case");
+        for (RewardRule multiplier : multipliers) {
+            List<String> conditions = new ArrayList<>();
+            if (multiplier.getStartDate() != null) {
+                String name = "multiplierStart" + parameters.size();
+                parameters.put(name, multiplier.getStartDate());
+                conditions.add(HQL_DATE + " >= :" + name);
+            }
+            if (multiplier.getEndDate() != null) {
+                String name = "multiplierEnd" + parameters.size();
+                parameters.put(name, multiplier.getEndDate());
+                conditions.add(HQL_DATE + " <= :" + name);
+            }
+            if (multiplier.getSegment() != null) {
+                String name = "multiplierSegment" + parameters.size();
+                parameters.put(name, multiplier.getSegment());
+                conditions.add(HQL_SEGMENT + " = :" + name);
+            }
+            percent.append(" when ").append(conditions.isEmpty() ? "1 = 1" : String.join(" and ", conditions))
+                    .append(" then ").append(multiplier.getMultiplierPercent());
+        }
+        percent.append(" else ").append(NO_MULTIPLIER_PERCENT).append(" end");
+        return "floor((" + points + ") * (" + percent + ") / 100.0)";
+    }
+
+    private static void validate(RewardRule rule) {
+        if (rule.getType() == null) {
+            throw new IllegalArgumentException("Reward rule type is required.");
+        }
+        if (rule.getType() == RewardRule.Type.TIER) {
+            if (rule.getThresholdDollars() == null || rule.getThresholdDollars() < 0) {
+                throw new IllegalArgumentException("Tier rules need a thresholdDollars of 0 or more.");
+            }
+            if (rule.getRate() == null || rule.getRate() < 0) {
+                throw new IllegalArgumentException("Tier rules need a rate of 0 or more.");
+            }
+        } else {
+            if (rule.getMultiplierPercent() == null || rule.getMultiplierPercent() < 0) {
+                throw new IllegalArgumentException("Multiplier rules need a multiplierPercent of 0 or more.");
+            }
+            if (rule.getStartDate() != null && rule.getEndDate() != null && rule.getStartDate().isAfter(rule.getEndDate())) {
+                throw new IllegalArgumentException("Multiplier rule starts on " + rule.getStartDate() + " after it ends on " + rule.getEndDate() + ".");
+            }
+        }
+    }
+
+    private static RewardRule copy(RewardRule rule) {
+        RewardRule copy = new RewardRule();
+        copy.setId(rule.getId());
+        copy.setType(rule.getType());
+        copy.setSegment(rule.getSegment());
+        copy.setThresholdDollars(rule.getThresholdDollars());
+        copy.setRate(rule.getRate());
+        copy.setMultiplierPercent(rule.getMultiplierPercent());
+        copy.setStartDate(rule.getStartDate());
+        copy.setEndDate(rule.getEndDate());
+        copy.setDescription(rule.getDescription());
+        return copy;
+    }
+
+    private static String fingerprint(List<RewardRule> rules) {
+        return rules.stream()
+                .map(rule -> rule.getType() + "|" + rule.getSegment() + "|" + rule.getThresholdDollars() + "|" + rule.getRate()
+                        + "|" + rule.getMultiplierPercent() + "|" + rule.getStartDate() + "|" + rule.getEndDate()
+                        + "|" + Objects.toString(rule.getDescription(), ""))
+                .sorted()
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every Java platform must provide it
+        }
+    }
+
+    /** Tiers of one segment, as thresholds in ascending order and the rate each adds to the tiers below it. */
+    private static final class Tiers {
+        private final long[] thresholds;
+        private final long[] marginalRates;
+
+        private Tiers(TreeMap<Integer, Integer> ratesByThreshold) {
+            thresholds = new long[ratesByThreshold.size()];
+            marginalRates = new long[ratesByThreshold.size()];
+            int i = 0;
+            int previousRate = 0;
+            for (Map.Entry<Integer, Integer> tier : ratesByThreshold.entrySet()) {
+                thresholds[i] = tier.getKey();
+                marginalRates[i] = tier.getValue() - previousRate;
+                previousRate = tier.getValue();
+                i++;
+            }
+        }
+
+        private long points(long amountCents) {
+            long dollars = amountCents / CENTS_PER_DOLLAR;
+            long points = 0;
+            for (int i = 0; i < thresholds.length; i++) {
+                points += Math.max(dollars - thresholds[i], 0) * marginalRates[i];
+            }
+            return points;
+        }
+
+        // Thresholds and rates are validated integers, so they are written into the query as literals
+        private String hql() {
+            if (thresholds.length == 0) {
+                return "0";
+            }
+            List<String> terms = new ArrayList<>(thresholds.length);
+            for (int i = 0; i < thresholds.length; i++) {
+                terms.add("greatest(" + HQL_DOLLARS + " - " + thresholds[i] + ", 0) * " + marginalRates[i]);
+            }
+            return "(" + String.join(" + ", terms) + ")";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.entity.RewardRule;
+import com.retailer.rewards.event.RewardRulesChangedEvent;
+import com.retailer.rewards.exception.InvalidRequestException;
+import com.retailer.rewards.repository.RewardRuleRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class holding the compiled reward rules.
+ * The reward_rule table is compiled into a RewardRulePlan at startup, on "rewards.rules.reload-cron" and on demand.
+ * The current plan is published through an atomic reference: calculations read it once and use that plan
+ * throughout, while a reload compiles the new plan off to the side and swaps it in with a single write.
+ * A change after the first load publishes a RewardRulesChangedEvent, so stored points computed with the
+ * previous rules (closed snapshot months, the ledger) stop being served as current.
+ */
+
+@Service
+public class RewardRuleService {
+
+    private static final Logger log = LoggerFactory.getLogger(RewardRuleService.class);
+
+    private final RewardRuleRepository ruleRepository;
+    private final RewardSummaryCache rewardSummaryCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<RewardRulePlan> plan = new AtomicReference<>(RewardRulePlan.DEFAULT);
+    private boolean loaded; // Whether the rules have been loaded once; the first load is not a change
+
+    @Autowired
+    public RewardRuleService(RewardRuleRepository ruleRepository, RewardSummaryCache rewardSummaryCache,
+                             PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this.ruleRepository = ruleRepository;
+        this.rewardSummaryCache = rewardSummaryCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return The current plan; the built-in tiers until the rules have been loaded.
+     */
+    public RewardRulePlan plan() {
+        return plan.get();
+    }
+
+    @PostConstruct
+    void loadRules() {
+        reload();
+    }
+
+    /**
+     * Reloads the rules on "rewards.rules.reload-cron", so changes made on other nodes are picked up.
+     * Disabled by default.
+     */
+    @Scheduled(cron = "${rewards.rules.reload-cron:-}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            log.warn("Reward rules not reloaded, keeping version {}: {}", plan().getVersion(), e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles the rules in the reward_rule table and swaps the new plan in if they changed.
+     * Cached period summaries are dropped on a change, since they were computed with the previous rules,
+     * and a RewardRulesChangedEvent is published unless this is the first load.
+     *
+     * @return The plan in effect after the reload.
+     * @throws IllegalArgumentException if the stored rules are invalid; the previous plan stays in effect.
+     */
+    public synchronized RewardRulePlan reload() {
+        List<RewardRule> rules = ruleRepository.findAll();
+        RewardRulePlan current = plan.get();
+        if (current.hasSameRules(rules)) {
+            loaded = true;
+            return current;
+        }
+        RewardRulePlan compiled = RewardRulePlan.compile(rules, current.getVersion() + 1);
+        plan.set(compiled);
+        rewardSummaryCache.invalidateAll();
+        log.info("Reward rules version {} loaded: {} rules", compiled.getVersion(), rules.size());
+        if (loaded) {
+            eventPublisher.publishEvent(new RewardRulesChangedEvent(compiled.getVersion()));
+        }
+        loaded = true;
+        return compiled;
+    }
+
+    /**
+     * Replaces the whole rule set and reloads it. The rules are validated before anything is written.
+     *
+     * @param rules The new rules; an empty list restores the built-in tiers.
+     * @return The plan in effect after the change.
+     * @throws InvalidRequestException if a rule is invalid.
+     */
+    public synchronized RewardRulePlan replaceRules(List<RewardRule> rules) {
+        try {
+            RewardRulePlan.compile(rules, 0); // Validates the rules
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            ruleRepository.deleteAllInBatch();
+            rules.forEach(rule -> rule.setId(0));
+            ruleRepository.saveAll(rules);
+        });
+        return reload();
+    }
+}
@@ -1,18 +1,46 @@
 package com.retailer.rewards.service;
 
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.BulkRewardResult;
+import com.retailer.rewards.dto.MonthlyPoints;
+import com.retailer.rewards.dto.MonthlyPointsProjection;
 import com.retailer.rewards.dto.RewardSummary;
-import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.dto.TransactionView;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.CustomerMonthlyPoints;
+import com.retailer.rewards.entity.RewardLedgerState;
+import com.retailer.rewards.entity.RewardMonthClose;
+import com.retailer.rewards.entity.RewardMonthSnapshot;
 import com.retailer.rewards.exception.CustomerNotFoundException; // Import the new exception
+import com.retailer.rewards.repository.CustomerMonthlyPointsRepository;
+import com.retailer.rewards.repository.CustomerRepository;
+import com.retailer.rewards.repository.RewardLedgerStateRepository;
+import com.retailer.rewards.repository.RewardMonthCloseRepository;
+import com.retailer.rewards.repository.RewardMonthSnapshotRepository;
 import com.retailer.rewards.repository.TransactionRepository;
+import com.retailer.rewards.util.Money;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class to calculate reward points for customers.
@@ -22,90 +50,450 @@ import java.util.stream.Collectors;
 @Service
 public class RewardService {
 
-    private static final int POINTS_OVER_100_THRESHOLD = 100;
-    private static final int POINTS_BETWEEN_50_AND_100_THRESHOLD = 50;
-    private static final int POINTS_RATE_OVER_100 = 2;
-    private static final int POINTS_RATE_BETWEEN_50_AND_100 = 1;
+    // Bounds of open-ended date ranges, within the range of a MySQL DATE
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    // Smallest range of transactions folded by one parallel aggregation task
+    private static final int PARALLEL_MIN_RANGE_SIZE = 1024;
+    // Ranges created per aggregation thread, so uneven ranges still balance across threads
+    private static final int PARALLEL_RANGES_PER_THREAD = 4;
 
     private final TransactionRepository transactionRepository;
+    private final CustomerRepository customerRepository;
+    private final CustomerMonthlyPointsRepository ledgerRepository;
+    private final RewardLedgerStateRepository ledgerStateRepository;
+    private final RewardMonthSnapshotRepository snapshotRepository;
+    private final RewardMonthCloseRepository monthCloseRepository;
+    private final RewardSummaryCache rewardSummaryCache;
+    private final RewardQueryCoalescer rewardQueryCoalescer;
+    private final RewardRuleService rewardRuleService;
+    private final RewardColumnStore rewardColumnStore;
+    private final RewardMetrics rewardMetrics;
+    private final RewardProperties rewardProperties;
+
+    private volatile ForkJoinPool aggregationPool; // Created on first use in parallel mode
+    private volatile String ledgerRulesHash; // Rules of the ledger's last rebuild, as last read from reward_ledger_state
 
     @Autowired
-    public RewardService(TransactionRepository transactionRepository) {
+    public RewardService(TransactionRepository transactionRepository, CustomerRepository customerRepository,
+                         CustomerMonthlyPointsRepository ledgerRepository, RewardLedgerStateRepository ledgerStateRepository,
+                         RewardMonthSnapshotRepository snapshotRepository,
+                         RewardMonthCloseRepository monthCloseRepository, RewardSummaryCache rewardSummaryCache,
+                         RewardQueryCoalescer rewardQueryCoalescer, RewardRuleService rewardRuleService,
+                         RewardColumnStore rewardColumnStore, RewardMetrics rewardMetrics, RewardProperties rewardProperties) {
         this.transactionRepository = transactionRepository;
+        this.customerRepository = customerRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.ledgerStateRepository = ledgerStateRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.monthCloseRepository = monthCloseRepository;
+        this.rewardSummaryCache = rewardSummaryCache;
+        this.rewardQueryCoalescer = rewardQueryCoalescer;
+        this.rewardRuleService = rewardRuleService;
+        this.rewardColumnStore = rewardColumnStore;
+        this.rewardMetrics = rewardMetrics;
+        this.rewardProperties = rewardProperties;
     }
 
     /**
      * Calculates the reward points for a given transaction amount.
-     * Rules:
+     * Rules, unless the reward_rule table defines other tiers:
      *  1 point for every dollar spent between $50 and $100.
      *  2 points for every dollar spent over $100.
+     * Segment tiers and multipliers are not applied, since they depend on the customer and date.
      *
-     * @param amount The transaction amount.
+     * @param amount The transaction amount in dollars; fractions of a cent are dropped.
      * @return The calculated reward points for the transaction.
      */
     public int calculatePoints(double amount){
+        return rewardRuleService.plan().points(Money.toCents(amount));
+    }
 
-        int points = 0;
-
-        // Ensure amount is treated as an integer for dollar calculation
-        int dollars = (int) Math.floor(amount);
+    /**
+     * Calculates the reward points for a transaction with the current reward rules,
+     * including the tiers of the customer's segment and any multiplier in effect on the transaction date.
+     *
+     * @param amountCents The transaction amount in cents.
+     * @param transactionDate The transaction date.
+     * @param segment The customer's segment, or null.
+     * @return The calculated reward points for the transaction.
+     */
+    public int calculatePointsForCents(long amountCents, LocalDate transactionDate, String segment) {
+        return rewardRuleService.plan().points(amountCents, transactionDate, segment);
+    }
 
-        // Points for dollars over $100
-        if (dollars > POINTS_OVER_100_THRESHOLD) {
-            points += (dollars - POINTS_OVER_100_THRESHOLD) * POINTS_RATE_OVER_100;
-        }
+    /**
+     * Compares the rules the ledger was last rebuilt with, as stored in reward_ledger_state, with the current rules.
+     * While they differ, or before the first rebuild, the ledger rows may hold points of other rules, so the
+     * "ledger" mode computes from the transaction table like the "database" mode. The stored state is read
+     * again on every call until it matches, so a rebuild completed by another node is picked up.
+     *
+     * @return Whether the ledger was not rebuilt with the current rules, so the "ledger" mode is not using it.
+     */
+    public boolean isLedgerStale() {
+        return isLedgerStale(rewardRuleService.plan());
+    }
 
-        // Points for dollars between $50 and $100
-        if (dollars > POINTS_BETWEEN_50_AND_100_THRESHOLD) {
-            // Calculate dollars strictly between 50 and 100
-            int dollarsBetween50And100 = Math.min(dollars, POINTS_OVER_100_THRESHOLD) - POINTS_BETWEEN_50_AND_100_THRESHOLD;
-            if (dollarsBetween50And100 > 0) {
-                points += dollarsBetween50And100 * POINTS_RATE_BETWEEN_50_AND_100;
-            }
+    private boolean isLedgerStale(RewardRulePlan plan) {
+        String rulesHash = plan.getRulesHash();
+        if (rulesHash.equals(ledgerRulesHash)) {
+            return false;
         }
-        return points;
+        ledgerRulesHash = ledgerStateRepository.findById(RewardLedgerState.ID).map(RewardLedgerState::getRulesHash).orElse(null);
+        return !rulesHash.equals(ledgerRulesHash);
     }
 
     /**
      * Calculates reward points for each customer per month and total,
      * by fetching all transactions from the database.
+     * The aggregation engine is selected by the "rewards.aggregation.mode" property.
      *
      * @return A list of RewardSummary objects, one for each customer.
      */
+    @Transactional(readOnly = true)
     public List<RewardSummary> calculateRewardsForAllCustomers() {
+        AggregationMode mode = rewardProperties.getAggregation().getMode();
+        // One plan for the whole calculation, even if the rules are reloaded meanwhile
+        RewardRulePlan plan = rewardRuleService.plan();
+        long start = System.nanoTime();
+        List<RewardSummary> summaries = switch (mode) {
+            case IN_MEMORY -> aggregateInMemory(plan);
+            case STREAMING -> aggregateStreaming(plan);
+            case PARALLEL -> aggregateInParallel(plan);
+            case DATABASE -> aggregateInDatabase(plan);
+            case LEDGER -> isLedgerStale(plan) ? aggregateInDatabase(plan) : aggregateFromLedger();
+            case SNAPSHOT -> aggregateFromSnapshots(plan);
+        };
+        rewardMetrics.recordCalculateAll(mode, System.nanoTime() - start, summaries);
+        return summaries;
+    }
+
+    /**
+     * Aggregates rewards after loading every transaction into memory.
+     */
+    private List<RewardSummary> aggregateInMemory(RewardRulePlan plan) {
         // Fetch all transactions from the database
-        List<Transaction> transactions = transactionRepository.findAll();
+        List<TransactionView> transactions = findAllTransactions();
 
         // Map to store RewardSummary for each customerId
         Map<String, RewardSummary> customerRewards = new HashMap<>();
 
-        // DateTimeFormatter for extracting "YYYY-MM" from LocalDate
-        DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
+        long start = System.nanoTime();
+        for (TransactionView transaction : transactions) {
+            accumulate(customerRewards, transaction, plan);
+        }
+        rewardMetrics.recordAggregation(AggregationMode.IN_MEMORY, System.nanoTime() - start);
 
-        for (Transaction transaction : transactions) {
-            // Get or create RewardSummary for the customer
-            // Use transaction.getCustomer().getCustomerId() to get the business customer ID
-            RewardSummary summary = customerRewards.computeIfAbsent(
-                    transaction.getCustomer().getCustomerId(),
-                    RewardSummary::new
-            );
+        // Convert the map values to a list and return
+        return customerRewards.values().stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Aggregates rewards while streaming transactions through a forward-only cursor.
+     * Only the per-customer summaries are retained, so peak memory depends on the number
+     * of customers rather than the number of transactions.
+     * Reading and folding rows interleave, so the query time recorded includes the aggregation.
+     */
+    private List<RewardSummary> aggregateStreaming(RewardRulePlan plan) {
+        Map<String, RewardSummary> customerRewards = new HashMap<>();
+        int[] rows = new int[1];
+
+        long start = System.nanoTime();
+        try (Stream<TransactionView> transactions = transactionRepository.streamAll(rewardProperties.getAggregation().getFetchSize())) {
+            transactions.forEach(transaction -> {
+                accumulate(customerRewards, transaction, plan);
+                rows[0]++;
+            });
+        }
+        rewardMetrics.recordQuery(RewardMetrics.Query.STREAM_ALL, System.nanoTime() - start, rows[0]);
+        return customerRewards.values().stream().collect(Collectors.toList());
+    }
 
-            // Calculate points for the current transaction
-            int points = calculatePoints(transaction.getAmount());
+    /**
+     * Aggregates rewards on the aggregation ForkJoinPool. The loaded transactions are split into index
+     * ranges, each range is folded into its own map of summaries without any shared state, and the maps
+     * are merged pairwise. Points are summed per customer and month, so the result is the same as the
+     * sequential aggregation regardless of how the ranges are split.
+     */
+    private List<RewardSummary> aggregateInParallel(RewardRulePlan plan) {
+        List<TransactionView> transactions = findAllTransactions();
+        ForkJoinPool pool = aggregationPool();
+        int rangeSize = Math.max(PARALLEL_MIN_RANGE_SIZE, transactions.size() / (pool.getParallelism() * PARALLEL_RANGES_PER_THREAD));
+
+        long start = System.nanoTime();
+        Map<String, RewardSummary> customerRewards = pool.invoke(new AggregationTask(transactions, 0, transactions.size(), rangeSize, plan));
+        rewardMetrics.recordAggregation(AggregationMode.PARALLEL, System.nanoTime() - start);
+        return new ArrayList<>(customerRewards.values());
+    }
+
+    private List<TransactionView> findAllTransactions() {
+        long start = System.nanoTime();
+        List<TransactionView> transactions = transactionRepository.findAllViews();
+        rewardMetrics.recordQuery(RewardMetrics.Query.FIND_ALL, System.nanoTime() - start, transactions.size());
+        return transactions;
+    }
 
-            // Get the month key (e.g., "2025-01")
-            String monthKey = transaction.getTransactionDate().format(monthFormatter);
+    /**
+     * Folds transactions[from, to) into a new map of summaries, splitting ranges larger than rangeSize.
+     */
+    private class AggregationTask extends RecursiveTask<Map<String, RewardSummary>> {
 
-            // Add points to the summary
-            summary.addPoints(monthKey, points);
+        private final List<TransactionView> transactions;
+        private final int from;
+        private final int to;
+        private final int rangeSize;
+        private final RewardRulePlan plan;
+
+        private AggregationTask(List<TransactionView> transactions, int from, int to, int rangeSize, RewardRulePlan plan) {
+            this.transactions = transactions;
+            this.from = from;
+            this.to = to;
+            this.rangeSize = rangeSize;
+            this.plan = plan;
         }
 
-        // Convert the map values to a list and return
+        @Override
+        protected Map<String, RewardSummary> compute() {
+            if (to - from <= rangeSize) {
+                Map<String, RewardSummary> customerRewards = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    accumulate(customerRewards, transactions.get(i), plan);
+                }
+                return customerRewards;
+            }
+
+            int middle = (from + to) >>> 1;
+            AggregationTask left = new AggregationTask(transactions, from, middle, rangeSize, plan);
+            left.fork();
+            Map<String, RewardSummary> right = new AggregationTask(transactions, middle, to, rangeSize, plan).compute();
+            return merge(left.join(), right);
+        }
+
+        private Map<String, RewardSummary> merge(Map<String, RewardSummary> first, Map<String, RewardSummary> second) {
+            Map<String, RewardSummary> target = first.size() >= second.size() ? first : second;
+            Map<String, RewardSummary> source = target == first ? second : first;
+            source.forEach((customerId, summary) -> target.merge(customerId, summary, RewardSummary::merge));
+            return target;
+        }
+    }
+
+    private ForkJoinPool aggregationPool() {
+        ForkJoinPool pool = aggregationPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = aggregationPool;
+                if (pool == null) {
+                    int parallelism = rewardProperties.getAggregation().getParallelism();
+                    pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                            RewardService::newAggregationThread, null, false);
+                    aggregationPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static ForkJoinWorkerThread newAggregationThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("reward-aggregation-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * Stops the parallel aggregation threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ForkJoinPool pool = aggregationPool;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Aggregates rewards with a GROUP BY query so only one row per customer and month
+     * leaves the database. Produces the same summaries as the in-memory engine.
+     */
+    private List<RewardSummary> aggregateInDatabase(RewardRulePlan plan) {
+        long start = System.nanoTime();
+        List<MonthlyPointsProjection> rows = transactionRepository.aggregateMonthlyPoints(
+                plan.getPointsExpression(), plan.getPointsParameters());
+        long loaded = System.nanoTime();
+        rewardMetrics.recordQuery(RewardMetrics.Query.AGGREGATE_MONTHLY_POINTS, loaded - start, rows.size());
+
+        Map<String, RewardSummary> customerRewards = new HashMap<>();
+        addMonthlyPoints(customerRewards, rows);
+        rewardMetrics.recordAggregation(AggregationMode.DATABASE, System.nanoTime() - loaded);
         return customerRewards.values().stream().collect(Collectors.toList());
     }
 
+    /**
+     * Computes reward points per customer and month in the database for the transactions within a date range.
+     *
+     * @param startDate The start date (inclusive).
+     * @param endDate The end date (inclusive).
+     * @return One row per customer and month that has at least one transaction in the range.
+     */
+    public List<MonthlyPointsProjection> aggregateMonthlyPointsInDatabase(LocalDate startDate, LocalDate endDate) {
+        return aggregateMonthlyPointsInDatabase(startDate, endDate, rewardRuleService.plan());
+    }
+
+    private List<MonthlyPointsProjection> aggregateMonthlyPointsInDatabase(LocalDate startDate, LocalDate endDate, RewardRulePlan plan) {
+        long start = System.nanoTime();
+        List<MonthlyPointsProjection> rows = transactionRepository.aggregateMonthlyPointsBetween(startDate, endDate,
+                plan.getPointsExpression(), plan.getPointsParameters());
+        rewardMetrics.recordQuery(RewardMetrics.Query.AGGREGATE_MONTHLY_POINTS_BETWEEN, System.nanoTime() - start, rows.size());
+        return rows;
+    }
+
+    private void addMonthlyPoints(Map<String, RewardSummary> customerRewards, List<MonthlyPointsProjection> rows) {
+        for (MonthlyPointsProjection row : rows) {
+            int epochMonth = MonthlyPoints.epochMonth(row.getRewardYear().intValue(), row.getRewardMonth().intValue());
+            customerRewards.computeIfAbsent(row.getCustomerId(), RewardSummary::new)
+                    .addPoints(epochMonth, row.getPoints().intValue());
+        }
+    }
+
+    /**
+     * Builds the summaries from the frozen snapshots of closed months. Only months without a clean snapshot
+     * are computed from transactions: dirty months, gaps between closed months, and the months before the
+     * first and after the last closed month (normally just the open month), each range with one GROUP BY query.
+     */
+    private List<RewardSummary> aggregateFromSnapshots(RewardRulePlan plan) {
+        TreeMap<YearMonth, Boolean> closedMonths = new TreeMap<>(); // Value: dirty
+        for (RewardMonthClose close : monthCloseRepository.findAll()) {
+            closedMonths.put(YearMonth.parse(close.getRewardMonth()), close.isDirty());
+        }
+        if (closedMonths.isEmpty()) {
+            return aggregateInDatabase(plan);
+        }
+
+        List<String> cleanMonths = new ArrayList<>();
+        closedMonths.forEach((month, dirty) -> {
+            if (!dirty) {
+                cleanMonths.add(month.toString());
+            }
+        });
+        long start = System.nanoTime();
+        List<RewardMonthSnapshot> snapshots = snapshotRepository.findByRewardMonthIn(cleanMonths);
+        rewardMetrics.recordQuery(RewardMetrics.Query.FIND_SNAPSHOTS, System.nanoTime() - start, snapshots.size());
+
+        Map<String, RewardSummary> customerRewards = new HashMap<>();
+        for (RewardMonthSnapshot row : snapshots) {
+            customerRewards.computeIfAbsent(row.getCustomerId(), RewardSummary::new)
+                    .addPoints(row.getRewardMonth(), row.getPoints());
+        }
+
+        YearMonth firstClosed = closedMonths.firstKey();
+        YearMonth lastClosed = closedMonths.lastKey();
+        addMonthlyPoints(customerRewards, aggregateMonthlyPointsInDatabase(EARLIEST_DATE, firstClosed.atDay(1).minusDays(1), plan));
+
+        // Contiguous runs of months that are dirty or were never closed
+        YearMonth liveStart = null;
+        for (YearMonth month = firstClosed; !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+            boolean live = !Boolean.FALSE.equals(closedMonths.get(month));
+            if (live && liveStart == null) {
+                liveStart = month;
+            } else if (!live && liveStart != null) {
+                addMonthlyPoints(customerRewards, aggregateMonthlyPointsInDatabase(liveStart.atDay(1), month.minusMonths(1).atEndOfMonth(), plan));
+                liveStart = null;
+            }
+        }
+        // The last closed month is clean or dirty; a run still open here ends with it
+        LocalDate openStart = liveStart != null ? liveStart.atDay(1) : lastClosed.plusMonths(1).atDay(1);
+        addMonthlyPoints(customerRewards, aggregateMonthlyPointsInDatabase(openStart, LATEST_DATE, plan));
+
+        return customerRewards.values().stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the summaries from the customer monthly points ledger, one row per customer and month.
+     */
+    private List<RewardSummary> aggregateFromLedger() {
+        long start = System.nanoTime();
+        List<CustomerMonthlyPoints> rows = ledgerRepository.findAll();
+        long loaded = System.nanoTime();
+        rewardMetrics.recordQuery(RewardMetrics.Query.FIND_LEDGER, loaded - start, rows.size());
+
+        Map<String, RewardSummary> customerRewards = new HashMap<>();
+        for (CustomerMonthlyPoints row : rows) {
+            customerRewards.computeIfAbsent(row.getCustomerId(), RewardSummary::new)
+                    .addPoints(row.getRewardMonth(), row.getPoints());
+        }
+        rewardMetrics.recordAggregation(AggregationMode.LEDGER, System.nanoTime() - loaded);
+        return customerRewards.values().stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Calculates reward points for one page of customers, for keyset pagination over customerId.
+     * As in calculateRewardsForAllCustomers, only customers with transactions are included.
+     *
+     * @param after The customerId the page starts after, or null for the first page.
+     * @param limit The maximum number of customers in the page.
+     * @return The RewardSummary objects of the page, ordered by customerId.
+     */
+    @Transactional(readOnly = true)
+    public List<RewardSummary> calculateRewardsForCustomerPage(String after, int limit) {
+        return calculateRewardsForCustomerPage(after, limit, rows -> { });
+    }
+
+    /**
+     * Calculates reward points for one page of customers and reports how many transactions were read,
+     * for callers that track the progress of a full recalculation.
+     *
+     * @param after The customerId the page starts after, or null for the first page.
+     * @param limit The maximum number of customers in the page.
+     * @param rowsRead Receives the number of transactions read for the page.
+     * @return The RewardSummary objects of the page, ordered by customerId.
+     */
+    @Transactional(readOnly = true)
+    public List<RewardSummary> calculateRewardsForCustomerPage(String after, int limit, IntConsumer rowsRead) {
+        long start = System.nanoTime();
+        List<String> customerIds = transactionRepository.findCustomerIdsWithTransactionsAfter(
+                after != null ? after : "", PageRequest.of(0, limit));
+        rewardMetrics.recordQuery(RewardMetrics.Query.FIND_CUSTOMER_PAGE, System.nanoTime() - start, customerIds.size());
+        if (customerIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Pre-create the summaries so the page keeps the customerId order
+        Map<String, RewardSummary> customerRewards = new LinkedHashMap<>();
+        for (String customerId : customerIds) {
+            customerRewards.put(customerId, new RewardSummary(customerId));
+        }
+        start = System.nanoTime();
+        List<TransactionView> transactions = transactionRepository.findViewsByCustomerIdIn(customerIds);
+        rewardMetrics.recordQuery(RewardMetrics.Query.FIND_CUSTOMER_PAGE_TRANSACTIONS, System.nanoTime() - start, transactions.size());
+        RewardRulePlan plan = rewardRuleService.plan();
+        for (TransactionView transaction : transactions) {
+            accumulate(customerRewards, transaction, plan);
+        }
+        rowsRead.accept(transactions.size());
+        return new ArrayList<>(customerRewards.values());
+    }
+
+    /**
+     * Folds a single transaction into the summary of its customer.
+     */
+    private void accumulate(Map<String, RewardSummary> customerRewards, TransactionView transaction, RewardRulePlan plan) {
+        // Get or create RewardSummary for the customer, by the business customer ID carried in the view
+        RewardSummary summary = customerRewards.computeIfAbsent(
+                transaction.getCustomerId(),
+                RewardSummary::new
+        );
+
+        // Calculate points for the current transaction
+        int points = plan.points(transaction.getAmountCents(), transaction.getTransactionDate(), transaction.getSegment());
+
+        // Add points to the transaction's month; the "YYYY-MM" key is only built when serialized
+        summary.addPoints(MonthlyPoints.epochMonth(transaction.getTransactionDate()), points);
+    }
+
     /**
      * Calculates reward points for a specific customer for a given period.
+     * Results are computed from the RewardColumnStore once it is loaded; otherwise they are
+     * served from the RewardSummaryCache when it is enabled, or read from the database.
      *
      * @param customerId The business ID of the customer.
      * @param startDate The start date of the period (inclusive).
@@ -114,22 +502,150 @@ public class RewardService {
      * @throws CustomerNotFoundException if no transactions are found for the customer in the specified period.
      */
     public RewardSummary calculateRewardsForCustomerInPeriod(String customerId, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findByCustomer_CustomerIdAndTransactionDateBetween(customerId, startDate, endDate);
+        long start = System.nanoTime();
+        try {
+            RewardSummary summary = rewardColumnStore.summarize(customerId, startDate, endDate, rewardRuleService.plan());
+            if (summary == null) {
+                summary = rewardSummaryCache.get(customerId, startDate, endDate,
+                        () -> rewardQueryCoalescer.get(customerId, startDate, endDate,
+                                () -> loadRewardsForCustomerInPeriod(customerId, startDate, endDate)));
+            } else if (summary.monthlyPoints().size() == 0) {
+                throw notFound(customerId, startDate, endDate);
+            }
+            rewardMetrics.recordCalculatePeriod(System.nanoTime() - start, summary);
+            return summary;
+        } catch (CustomerNotFoundException e) {
+            rewardMetrics.recordCalculatePeriod(System.nanoTime() - start, null);
+            throw e;
+        }
+    }
 
-        if (transactions.isEmpty()) {
+    /**
+     * Calculates reward points for many customers for the same period.
+     * Customers are answered from the RewardColumnStore once it is loaded; the others are read with one
+     * IN-list query per "rewards.bulk.chunk-size" customers and folded in a single pass. The summary cache
+     * and the ledger are not used, so the result always reflects the transaction table.
+     *
+     * @param customerIds The business IDs of the customers; duplicates are answered once.
+     * @param startDate The start date of the period (inclusive).
+     * @param endDate The end date of the period (inclusive).
+     * @return The summaries of the customers with transactions in the period, in request order,
+     *         and the customers that are unknown or have none.
+     */
+    public BulkRewardResult calculateRewardsForCustomersInPeriod(List<String> customerIds, LocalDate startDate, LocalDate endDate) {
+        RewardRulePlan plan = rewardRuleService.plan();
+        Map<String, RewardSummary> customerRewards = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (String customerId : new LinkedHashSet<>(customerIds)) {
+            RewardSummary summary = rewardColumnStore.summarize(customerId, startDate, endDate, plan);
+            if (summary == null) {
+                pending.add(customerId);
+            } else if (summary.monthlyPoints().size() > 0) {
+                customerRewards.put(customerId, summary);
+            }
+        }
+
+        int chunkSize = rewardProperties.getBulk().getChunkSize();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<String> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            long start = System.nanoTime();
+            List<TransactionView> transactions = transactionRepository.findViewsByCustomerIdInAndTransactionDateBetween(
+                    chunk, startDate, endDate);
+            rewardMetrics.recordQuery(RewardMetrics.Query.FIND_CUSTOMERS_PERIOD, System.nanoTime() - start, transactions.size());
+            for (TransactionView transaction : transactions) {
+                accumulate(customerRewards, transaction, plan);
+            }
+        }
+
+        BulkRewardResult result = new BulkRewardResult();
+        for (String customerId : new LinkedHashSet<>(customerIds)) {
+            RewardSummary summary = customerRewards.get(customerId);
+            if (summary == null) {
+                result.getNotFound().add(customerId);
+            } else {
+                result.getSummaries().put(customerId, summary);
+            }
+        }
+        return result;
+    }
+
+    private RewardSummary loadRewardsForCustomerInPeriod(String customerId, LocalDate startDate, LocalDate endDate) {
+        // Resolve the database ID first (usually from the customer cache) so transactions are read by index range
+        Customer customer = customerRepository.findByCustomerId(customerId)
+                .orElseThrow(() -> notFound(customerId, startDate, endDate));
+
+        if (rewardProperties.getAggregation().getMode() == AggregationMode.LEDGER && !isLedgerStale()) {
+            return calculateFromLedger(customer, startDate, endDate);
+        }
+
+        RewardSummary summary = new RewardSummary(customerId);
+        if (!addTransactionsInPeriod(summary, customer.getId(), startDate, endDate, rewardRuleService.plan())) {
             // Throw custom exception if no transactions found for the customer in the period
-            String period = startDate.format(DateTimeFormatter.ISO_LOCAL_DATE) + " to " + endDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
-            throw new CustomerNotFoundException(customerId, period);
+            throw notFound(customerId, startDate, endDate);
         }
+        return summary;
+    }
+
+    /**
+     * Calculates a customer's rewards for a period from the ledger. Months lying completely inside
+     * the period are single ledger rows; partially covered months at either end are computed from transactions.
+     */
+    private RewardSummary calculateFromLedger(Customer customer, LocalDate startDate, LocalDate endDate) {
+        String customerId = customer.getCustomerId();
+        YearMonth firstFullMonth = startDate.getDayOfMonth() == 1 ? YearMonth.from(startDate) : YearMonth.from(startDate).plusMonths(1);
+        YearMonth lastFullMonth = endDate.equals(YearMonth.from(endDate).atEndOfMonth()) ? YearMonth.from(endDate) : YearMonth.from(endDate).minusMonths(1);
 
         RewardSummary summary = new RewardSummary(customerId);
-        DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
+        RewardRulePlan plan = rewardRuleService.plan();
+        boolean found;
+
+        if (firstFullMonth.isAfter(lastFullMonth)) {
+            // No complete month in the period, so the ledger cannot help
+            found = addTransactionsInPeriod(summary, customer.getId(), startDate, endDate, plan);
+        } else {
+            long start = System.nanoTime();
+            List<CustomerMonthlyPoints> rows = ledgerRepository.findByCustomerIdAndRewardMonthBetween(
+                    customerId, firstFullMonth.toString(), lastFullMonth.toString());
+            rewardMetrics.recordQuery(RewardMetrics.Query.FIND_CUSTOMER_LEDGER, System.nanoTime() - start, rows.size());
+            for (CustomerMonthlyPoints row : rows) {
+                summary.addPoints(row.getRewardMonth(), row.getPoints());
+            }
+            found = !rows.isEmpty();
+
+            if (startDate.isBefore(firstFullMonth.atDay(1))) {
+                found |= addTransactionsInPeriod(summary, customer.getId(), startDate, firstFullMonth.atDay(1).minusDays(1), plan);
+            }
+            if (endDate.isAfter(lastFullMonth.atEndOfMonth())) {
+                found |= addTransactionsInPeriod(summary, customer.getId(), lastFullMonth.atEndOfMonth().plusDays(1), endDate, plan);
+            }
+        }
 
-        for (Transaction transaction : transactions) {
-            int points = calculatePoints(transaction.getAmount());
-            String monthKey = transaction.getTransactionDate().format(monthFormatter);
-            summary.addPoints(monthKey, points);
+        if (!found) {
+            throw notFound(customerId, startDate, endDate);
         }
         return summary;
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the points of a customer's transactions within a date range to the summary.
+     *
+     * @return true if at least one transaction was found.
+     */
+    private boolean addTransactionsInPeriod(RewardSummary summary, long customerDbId, LocalDate startDate, LocalDate endDate,
+                                            RewardRulePlan plan) {
+        long start = System.nanoTime();
+        List<TransactionView> transactions = transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(customerDbId, startDate, endDate);
+        rewardMetrics.recordQuery(RewardMetrics.Query.FIND_CUSTOMER_PERIOD, System.nanoTime() - start, transactions.size());
+
+        for (TransactionView transaction : transactions) {
+            int points = plan.points(transaction.getAmountCents(), transaction.getTransactionDate(), transaction.getSegment());
+            summary.addPoints(MonthlyPoints.epochMonth(transaction.getTransactionDate()), points);
+        }
+        return !transactions.isEmpty();
+    }
+
+    private CustomerNotFoundException notFound(String customerId, LocalDate startDate, LocalDate endDate) {
+        String period = startDate.format(DateTimeFormatter.ISO_LOCAL_DATE) + " to " + endDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        return new CustomerNotFoundException(customerId, period);
+    }
+}
\ No newline at end of file
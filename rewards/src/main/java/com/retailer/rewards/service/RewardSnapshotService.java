@@ -0,0 +1,191 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.MonthlyPointsProjection;
+import com.retailer.rewards.entity.RewardMonthClose;
+import com.retailer.rewards.entity.RewardMonthSnapshot;
+import com.retailer.rewards.event.RewardRulesChangedEvent;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import com.retailer.rewards.repository.RewardMonthCloseRepository;
+import com.retailer.rewards.repository.RewardMonthSnapshotRepository;
+import com.retailer.rewards.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service class closing past months into frozen reward snapshots.
+ * Closing a month writes the points of every customer for that month to reward_month_snapshot, so the
+ * "snapshot" aggregation mode only computes open and dirty months from transactions. A transaction dated
+ * in a past month marks that month dirty in the transaction that records it; the next close rewrites it.
+ * Months whose transactions were dropped by partition retention lose their snapshots as well.
+ * A rule change marks every closed month dirty, so no result mixes snapshots of the previous rules with
+ * months computed under the new ones; the next close rewrites them.
+ */
+
+@Service
+public class RewardSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(RewardSnapshotService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final RewardMonthSnapshotRepository snapshotRepository;
+    private final RewardMonthCloseRepository monthCloseRepository;
+    private final RewardService rewardService;
+    private final RewardProperties rewardProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public RewardSnapshotService(TransactionRepository transactionRepository, RewardMonthSnapshotRepository snapshotRepository,
+                                 RewardMonthCloseRepository monthCloseRepository, RewardService rewardService,
+                                 RewardProperties rewardProperties, PlatformTransactionManager transactionManager) {
+        this(transactionRepository, snapshotRepository, monthCloseRepository, rewardService, rewardProperties,
+                transactionManager, Clock.systemDefaultZone());
+    }
+
+    RewardSnapshotService(TransactionRepository transactionRepository, RewardMonthSnapshotRepository snapshotRepository,
+                          RewardMonthCloseRepository monthCloseRepository, RewardService rewardService,
+                          RewardProperties rewardProperties, PlatformTransactionManager transactionManager, Clock clock) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.monthCloseRepository = monthCloseRepository;
+        this.rewardService = rewardService;
+        this.rewardProperties = rewardProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * Marks the month of a late transaction dirty, creating its close row if the month was never closed.
+     * Runs synchronously inside the transaction that saved it; it waits for a close of the same month
+     * that is in progress, so the month cannot end up clean without the transaction in its snapshot.
+     *
+     * @param event The recorded transaction.
+     */
+    @EventListener
+    @Transactional
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        if (!rewardProperties.getSnapshot().isEnabled()) {
+            return;
+        }
+        YearMonth month = YearMonth.from(event.getTransactionDate());
+        if (!month.isBefore(YearMonth.now(clock))) {
+            return;
+        }
+        monthCloseRepository.markDirty(month.toString());
+    }
+
+    /**
+     * Marks every closed month dirty after a rule change, since their snapshots hold the points of the previous rules.
+     * Waits for a close in progress, which then gets closed again.
+     *
+     * @param event The rule change.
+     */
+    @EventListener
+    @Transactional
+    public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+        int months = monthCloseRepository.markAllDirty();
+        log.info("Reward rules version {} in effect; {} closed months marked dirty", event.getPlanVersion(), months);
+    }
+
+    /**
+     * Deletes the snapshots and close rows of the months whose transactions were dropped by partition retention,
+     * so the "snapshot" mode stops counting rows the other modes no longer see.
+     *
+     * @param event The day before which every transaction was dropped.
+     */
+    @EventListener
+    @Transactional
+    public void onTransactionsDropped(TransactionsDroppedEvent event) {
+        // Partitions end on the first day of a month, so every month before the one holding the first kept day is gone
+        String firstKeptMonth = YearMonth.from(event.getBefore()).toString();
+        int snapshots = snapshotRepository.deleteByRewardMonthBefore(firstKeptMonth);
+        monthCloseRepository.deleteByRewardMonthBefore(firstKeptMonth);
+        log.info("Reward month snapshots before {} deleted after partition retention: {} rows", firstKeptMonth, snapshots);
+    }
+
+    /**
+     * Closes past months on "rewards.snapshot.close-cron", when "rewards.snapshot.enabled" is set.
+     */
+    @Scheduled(cron = "${rewards.snapshot.close-cron:0 15 0 * * *}")
+    public void scheduledClose() {
+        if (rewardProperties.getSnapshot().isEnabled()) {
+            List<String> closed = closeMonths();
+            log.info("Reward months closed: {}", closed);
+        }
+    }
+
+    /**
+     * Writes snapshots for every month from the first transaction up to the previous month
+     * that is not closed yet or has been marked dirty, one database transaction per month.
+     *
+     * @return The months closed, in "YYYY-MM" format.
+     */
+    public List<String> closeMonths() {
+        List<String> closed = new ArrayList<>();
+        Optional<LocalDate> firstTransactionDate = transactionRepository.findFirstTransactionDate();
+        if (firstTransactionDate.isEmpty()) {
+            return closed;
+        }
+
+        Map<String, Boolean> dirtyByMonth = new HashMap<>();
+        for (RewardMonthClose close : monthCloseRepository.findAll()) {
+            dirtyByMonth.put(close.getRewardMonth(), close.isDirty());
+        }
+        YearMonth currentMonth = YearMonth.now(clock);
+        for (YearMonth month = YearMonth.from(firstTransactionDate.get()); month.isBefore(currentMonth); month = month.plusMonths(1)) {
+            Boolean dirty = dirtyByMonth.get(month.toString());
+            if (dirty == null || dirty) {
+                closeMonth(month, dirty == null);
+                closed.add(month.toString());
+            }
+        }
+        return closed;
+    }
+
+    private void closeMonth(YearMonth month, boolean firstClose) {
+        String rewardMonth = month.toString();
+        if (firstClose) {
+            // Create the close row to lock below; a late transaction may have created it concurrently
+            transactionTemplate.executeWithoutResult(status -> monthCloseRepository.markDirty(rewardMonth));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Lock the close row before reading transactions, so a late transaction of this month either
+            // committed before the read or waits and marks the month dirty again after this close
+            monthCloseRepository.markClean(rewardMonth, Instant.now(clock));
+            snapshotRepository.deleteByRewardMonth(rewardMonth);
+
+            List<RewardMonthSnapshot> rows = new ArrayList<>();
+            for (MonthlyPointsProjection row : rewardService.aggregateMonthlyPointsInDatabase(month.atDay(1), month.atEndOfMonth())) {
+                rows.add(new RewardMonthSnapshot(row.getCustomerId(), rewardMonth, row.getPoints().intValue()));
+            }
+            snapshotRepository.saveAll(rows);
+        });
+    }
+
+    /**
+     * @return The close state of every month that has been closed or marked dirty.
+     */
+    public List<RewardMonthClose> listClosedMonths() {
+        return monthCloseRepository.findAll();
+    }
+}
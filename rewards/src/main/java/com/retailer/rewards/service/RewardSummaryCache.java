@@ -0,0 +1,218 @@
+package com.retailer.rewards.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of per-customer period reward summaries, keyed by customer and date range.
+ * Entries are evicted by size and age, and invalidated as soon as a transaction recorded on this node
+ * falls inside a cached range of the same customer.
+ * <p>
+ * Summaries are grouped per customer in a single cache entry, so caching a range and invalidating
+ * ranges for a write are atomic with respect to each other.
+ */
+
+@Component
+public class RewardSummaryCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final RewardQueryCoalescer rewardQueryCoalescer;
+    private final boolean enabled;
+    private final long expireAfterWriteNanos;
+    private final Cache<String, Map<PeriodKey, CachedSummary>> cache; // Key: customerId
+
+    // Bumped on every write of a customer (striped by customer ID); a load that overlapped a write is not cached
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public RewardSummaryCache(RewardProperties rewardProperties, RewardQueryCoalescer rewardQueryCoalescer) {
+        this.rewardQueryCoalescer = rewardQueryCoalescer;
+        RewardProperties.Cache settings = rewardProperties.getCache();
+        this.enabled = settings.isEnabled();
+        this.expireAfterWriteNanos = settings.getExpireAfterWrite().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaximumSize())
+                .weigher((String customerId, Map<PeriodKey, CachedSummary> periods) -> periods.size())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached summary for the customer and period, loading and caching it on a miss.
+     * Exceptions thrown by the loader (e.g. CustomerNotFoundException) are propagated and nothing is cached.
+     *
+     * @param customerId The business ID of the customer.
+     * @param startDate The start date of the period (inclusive).
+     * @param endDate The end date of the period (inclusive).
+     * @param loader Computes the summary on a cache miss.
+     * @return The reward summary for the customer and period.
+     */
+    public RewardSummary get(String customerId, LocalDate startDate, LocalDate endDate, Supplier<RewardSummary> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        PeriodKey key = new PeriodKey(startDate, endDate);
+        Map<PeriodKey, CachedSummary> periods = cache.getIfPresent(customerId);
+        CachedSummary cached = periods != null ? periods.get(key) : null;
+        if (cached != null && System.nanoTime() - cached.loadedAt < expireAfterWriteNanos) {
+            hits.increment();
+            return cached.summary;
+        }
+        misses.increment();
+
+        int stripe = stripe(customerId);
+        long generation = generations.get(stripe);
+        RewardSummary summary = loader.get();
+        CachedSummary loaded = new CachedSummary(summary, System.nanoTime());
+
+        cache.asMap().compute(customerId, (id, current) -> {
+            // Only cache the result if no transaction of this customer was recorded while it was being computed
+            if (generations.get(stripe) != generation) {
+                return current;
+            }
+            Map<PeriodKey, CachedSummary> updated = current == null ? new HashMap<>() : new HashMap<>(current);
+            updated.put(key, loaded);
+            return updated;
+        });
+        return summary;
+    }
+
+    /**
+     * Invalidates every cached period of the customer that contains the date of the recorded transaction.
+     * Runs after the recording transaction commits, so reloads see the new transaction.
+     *
+     * @param event The recorded transaction.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        invalidate(event.getCustomerId(), event.getTransactionDate());
+    }
+
+    /**
+     * Invalidates the cached periods of a customer that contain the given date.
+     * In-flight queries covering the date are detached from the RewardQueryCoalescer first, so a caller
+     * that misses after the generation bump can never join a load that started before the write and cache it.
+     *
+     * @param customerId The business ID of the customer.
+     * @param transactionDate The date of the new transaction.
+     */
+    public void invalidate(String customerId, LocalDate transactionDate) {
+        rewardQueryCoalescer.invalidate(customerId, transactionDate);
+        if (!enabled) {
+            return;
+        }
+        generations.incrementAndGet(stripe(customerId));
+        cache.asMap().computeIfPresent(customerId, (id, current) -> {
+            Map<PeriodKey, CachedSummary> remaining = new HashMap<>(current);
+            remaining.keySet().removeIf(key -> key.contains(transactionDate));
+            invalidations.add(current.size() - remaining.size());
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    /**
+     * Invalidates every cached summary once partition retention has dropped old transactions,
+     * since any cached period may include them.
+     *
+     * @param event The day before which every transaction was dropped.
+     */
+    @EventListener
+    public void onTransactionsDropped(TransactionsDroppedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Invalidates every cached summary, e.g. after the reward rules changed.
+     * Loads already in progress are not cached either, nor joined by later callers.
+     */
+    public void invalidateAll() {
+        rewardQueryCoalescer.invalidateAll();
+        if (!enabled) {
+            return;
+        }
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        invalidations.add(cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Hit, miss, invalidation and eviction counts since startup, and the number of cached summaries.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("evictions", cache.stats().evictionWeight());
+        stats.put("size", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        return stats;
+    }
+
+    private static int stripe(String customerId) {
+        return (customerId.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    /** An inclusive date range of a customer's cached summary. */
+    private static final class PeriodKey {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private PeriodKey(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        private boolean contains(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PeriodKey)) return false;
+            PeriodKey other = (PeriodKey) o;
+            return startDate.equals(other.startDate) && endDate.equals(other.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startDate, endDate);
+        }
+    }
+
+    /** A cached summary and the time it was loaded, used to expire ranges individually. */
+    private static final class CachedSummary {
+        private final RewardSummary summary;
+        private final long loadedAt;
+
+        private CachedSummary(RewardSummary summary, long loadedAt) {
+            this.summary = summary;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
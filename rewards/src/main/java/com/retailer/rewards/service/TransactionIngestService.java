@@ -0,0 +1,334 @@
+package com.retailer.rewards.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.BatchIngestResult;
+import com.retailer.rewards.dto.TransactionRequest;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.CustomerRepository;
+import com.retailer.rewards.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for bulk transaction ingestion.
+ * Rows are validated individually, customers are resolved once per chunk, and each chunk is inserted
+ * with a single JDBC batch inside its own database transaction. A failing row is reported without
+ * aborting the rest of the batch.
+ */
+
+@Service
+public class TransactionIngestService {
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transaction (customer_db_id, amount_cents, transaction_date) values (?, ?, ?)";
+
+    private final CustomerRepository customerRepository;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final RewardMetrics rewardMetrics;
+    private final RewardProperties rewardProperties;
+
+    @Autowired
+    public TransactionIngestService(CustomerRepository customerRepository, CacheManager cacheManager, JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper, RewardMetrics rewardMetrics, RewardProperties rewardProperties) {
+        this.customerRepository = customerRepository;
+        this.cacheManager = cacheManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.rewardMetrics = rewardMetrics;
+        this.rewardProperties = rewardProperties;
+    }
+
+    /**
+     * Ingests a JSON array of transactions, reading it element by element.
+     * Each element is read as a tree and bound on its own, so an element that does not bind
+     * (e.g. a non-numeric amount) is reported as a failed row like in the NDJSON path.
+     *
+     * @param body The request body.
+     * @return The number of rows received and inserted, and the rejected rows.
+     * @throws IOException if the body is not well-formed JSON.
+     */
+    public BatchIngestResult ingestJsonArray(InputStream body) throws IOException {
+        Batch batch = new Batch();
+        try (MappingIterator<JsonNode> elements = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+            while (elements.hasNextValue()) {
+                JsonNode element = elements.nextValue();
+                try {
+                    batch.add(objectMapper.treeToValue(element, TransactionRequest.class));
+                } catch (JsonProcessingException e) {
+                    JsonNode customerId = element.get("customerId");
+                    batch.reject(customerId != null && customerId.isTextual() ? customerId.asText() : null,
+                            "Invalid transaction: " + e.getOriginalMessage());
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Ingests newline-delimited JSON, one transaction per line, reading it line by line.
+     * A line that is not valid JSON is reported as a failed row.
+     *
+     * @param body The request body.
+     * @return The number of rows received and inserted, and the rejected rows.
+     * @throws IOException if the body cannot be read.
+     */
+    public BatchIngestResult ingestNdjson(InputStream body) throws IOException {
+        Batch batch = new Batch();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(objectMapper.readValue(line, TransactionRequest.class));
+            } catch (JsonProcessingException e) {
+                batch.reject(null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Accumulates rows of one request and flushes them in chunks of "rewards.ingest.batch-size".
+     */
+    private class Batch {
+
+        private final BatchIngestResult result = new BatchIngestResult();
+        private final List<Integer> rows = new ArrayList<>();
+        private final List<TransactionRequest> requests = new ArrayList<>();
+        private final int batchSize = rewardProperties.getIngest().getBatchSize();
+
+        void add(TransactionRequest request) {
+            result.setReceived(result.getReceived() + 1);
+            rows.add(result.getReceived());
+            requests.add(request);
+            if (requests.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(String customerId, String message) {
+            result.setReceived(result.getReceived() + 1);
+            result.addFailure(result.getReceived(), customerId, message);
+        }
+
+        BatchIngestResult finish() {
+            flush();
+            return result;
+        }
+
+        private void flush() {
+            if (!requests.isEmpty()) {
+                ingestChunk(rows, requests, result);
+                rows.clear();
+                requests.clear();
+            }
+        }
+    }
+
+    /**
+     * Validates a chunk, resolves its customers with one query and inserts the valid rows.
+     */
+    private void ingestChunk(List<Integer> rows, List<TransactionRequest> requests, BatchIngestResult result) {
+        Set<String> customerIds = new HashSet<>();
+        for (TransactionRequest request : requests) {
+            if (request.getCustomerId() != null) {
+                customerIds.add(request.getCustomerId());
+            }
+        }
+        Map<String, Customer> customers = resolveCustomers(customerIds);
+
+        List<PendingTransaction> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            int row = rows.get(i);
+            String error = validate(request, customers);
+            if (error != null) {
+                result.addFailure(row, request.getCustomerId(), error);
+            } else {
+                pending.add(new PendingTransaction(row, customers.get(request.getCustomerId()),
+                        Money.toCents(request.getAmount()), LocalDate.parse(request.getTransactionDate())));
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            insertInTransaction(pending);
+            result.setInserted(result.getInserted() + pending.size());
+        } catch (RuntimeException chunkFailure) {
+            // Retry row by row so one bad row does not reject the whole chunk, whether the insert or one of the
+            // synchronous TransactionRecordedEvent listeners failed; earlier chunks are already committed
+            for (PendingTransaction transaction : pending) {
+                try {
+                    insertInTransaction(Collections.singletonList(transaction));
+                    result.setInserted(result.getInserted() + 1);
+                } catch (RuntimeException rowFailure) {
+                    result.addFailure(transaction.row, transaction.customerId,
+                            "Insert failed: " + NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps business customer IDs to customers, using the customer cache first
+     * and a single IN query for the IDs it does not hold.
+     */
+    private Map<String, Customer> resolveCustomers(Set<String> customerIds) {
+        Map<String, Customer> customers = new HashMap<>();
+        Cache cache = cacheManager.getCache(CustomerRepository.CUSTOMER_CACHE);
+        Set<String> uncached = new HashSet<>();
+
+        for (String customerId : customerIds) {
+            Customer customer = cache != null ? cache.get(customerId, Customer.class) : null;
+            if (customer != null) {
+                customers.put(customerId, customer);
+            } else {
+                uncached.add(customerId);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            for (Customer customer : customerRepository.findByCustomerIdIn(uncached)) {
+                customers.put(customer.getCustomerId(), customer);
+                if (cache != null) {
+                    cache.put(customer.getCustomerId(), customer);
+                }
+            }
+        }
+        return customers;
+    }
+
+    /**
+     * @return The reason the row is invalid, or null if it can be inserted.
+     */
+    private String validate(TransactionRequest request, Map<String, Customer> customers) {
+        if (request.getCustomerId() == null || request.getCustomerId().isBlank()) {
+            return "customerId is required.";
+        }
+        if (request.getAmount() == null) {
+            return "amount is required.";
+        }
+        try {
+            Money.toCents(request.getAmount());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        if (request.getTransactionDate() == null) {
+            return "transactionDate is required.";
+        }
+        try {
+            LocalDate.parse(request.getTransactionDate());
+        } catch (DateTimeParseException e) {
+            return "transactionDate '" + request.getTransactionDate() + "' is not a valid date (YYYY-MM-DD).";
+        }
+        if (!customers.containsKey(request.getCustomerId())) {
+            return "Customer with ID '" + request.getCustomerId() + "' not found.";
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the transactions with one JDBC batch and publishes a TransactionRecordedEvent for each,
+     * all in one database transaction. Rolls back unless the driver returns the generated id of every row.
+     */
+    private void insertInTransaction(List<PendingTransaction> pending) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long start = System.nanoTime();
+            List<Long> ids = insertBatch(pending);
+            rewardMetrics.recordQuery(RewardMetrics.Query.INSERT_BATCH, System.nanoTime() - start, pending.size());
+            if (ids.size() != pending.size()) {
+                // Roll the chunk back; the row-by-row retry then reports the rows whose ids are unknown
+                throw new DataRetrievalFailureException("The driver returned " + ids.size() + " generated keys for "
+                        + pending.size() + " inserted rows.");
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                PendingTransaction transaction = pending.get(i);
+                eventPublisher.publishEvent(new TransactionRecordedEvent(ids.get(i), transaction.customerId,
+                        transaction.amountCents, transaction.transactionDate, transaction.segment));
+            }
+        });
+    }
+
+    private List<Long> insertBatch(List<PendingTransaction> pending) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_TRANSACTION_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (PendingTransaction transaction : pending) {
+                    statement.setLong(1, transaction.customerDbId);
+                    statement.setLong(2, transaction.amountCents);
+                    statement.setObject(3, transaction.transactionDate);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> ids = new ArrayList<>(pending.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    /** A validated row waiting to be inserted. */
+    private static final class PendingTransaction {
+        private final int row;
+        private final String customerId;
+        private final long customerDbId;
+        private final String segment;
+        private final long amountCents;
+        private final LocalDate transactionDate;
+
+        private PendingTransaction(int row, Customer customer, long amountCents, LocalDate transactionDate) {
+            this.row = row;
+            this.customerId = customer.getCustomerId();
+            this.customerDbId = customer.getId();
+            this.segment = customer.getSegment();
+            this.amountCents = amountCents;
+            this.transactionDate = transactionDate;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.PartitionMaintenanceResult;
+import com.retailer.rewards.dto.TransactionPartition;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class maintaining the monthly RANGE partitions of the transaction table (MySQL).
+ * Adds partitions ahead of the current month and applies the retention policy, optionally archiving
+ * expired partitions to transaction_archive before dropping them. Queries that filter on
+ * transaction_date are pruned by MySQL to the partitions of the requested months.
+ * The table is converted once with db/partitioning/mysql-partition-transaction.sql.
+ * After a drop a TransactionsDroppedEvent is published, so the column store, month snapshots, ledger and period
+ * summary cache forget those rows too.
+ */
+
+@Service
+public class TransactionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+    static final String LIST_PARTITIONS_SQL = "select partition_name, partition_description, table_rows " +
+            "from information_schema.partitions " +
+            "where table_schema = database() and table_name = 'transaction' and partition_name is not null " +
+            "order by partition_ordinal_position";
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RewardProperties rewardProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    @Autowired
+    public TransactionPartitionService(JdbcTemplate jdbcTemplate, RewardProperties rewardProperties,
+                                       ApplicationEventPublisher eventPublisher) {
+        this(jdbcTemplate, rewardProperties, eventPublisher, Clock.systemDefaultZone());
+    }
+
+    TransactionPartitionService(JdbcTemplate jdbcTemplate, RewardProperties rewardProperties,
+                                ApplicationEventPublisher eventPublisher, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rewardProperties = rewardProperties;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The partitions of the transaction table in range order; empty if it is not partitioned.
+     */
+    public List<TransactionPartition> listPartitions() {
+        return jdbcTemplate.query(LIST_PARTITIONS_SQL, (resultSet, rowNum) -> new TransactionPartition(
+                resultSet.getString("partition_name"),
+                parseUpperBound(resultSet.getString("partition_description")),
+                resultSet.getLong("table_rows")));
+    }
+
+    /**
+     * Runs partition maintenance at startup and on "rewards.partitioning.maintenance-cron",
+     * when "rewards.partitioning.enabled" is set.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${rewards.partitioning.maintenance-cron:0 30 2 * * *}")
+    public void scheduledMaintenance() {
+        if (rewardProperties.getPartitioning().isEnabled()) {
+            PartitionMaintenanceResult result = maintain();
+            log.info("Transaction partition maintenance: {}", result);
+        }
+    }
+
+    /**
+     * Adds partitions up to "rewards.partitioning.months-ahead" months after the current one, then
+     * archives and drops the partitions that lie entirely before the retention horizon.
+     * Does nothing unless "rewards.partitioning.enabled" is set.
+     *
+     * @return The partitions created, archived and dropped.
+     */
+    public PartitionMaintenanceResult maintain() {
+        PartitionMaintenanceResult result = new PartitionMaintenanceResult();
+        if (!rewardProperties.getPartitioning().isEnabled()) {
+            log.warn("Transaction partition maintenance skipped; rewards.partitioning.enabled is not set.");
+            return result;
+        }
+        List<TransactionPartition> partitions = listPartitions();
+        if (partitions.isEmpty()) {
+            log.warn("Table 'transaction' is not partitioned; run db/partitioning/mysql-partition-transaction.sql first.");
+            return result;
+        }
+
+        addUpcomingPartitions(partitions, result);
+        applyRetention(partitions, result);
+        return result;
+    }
+
+    private void addUpcomingPartitions(List<TransactionPartition> partitions, PartitionMaintenanceResult result) {
+        YearMonth lastMonth = YearMonth.now(clock).plusMonths(rewardProperties.getPartitioning().getMonthsAhead());
+        LocalDate highestBound = null;
+        String maxValuePartition = null;
+        for (TransactionPartition partition : partitions) {
+            if (partition.getUpperBound() == null) {
+                maxValuePartition = partition.getName();
+            } else if (highestBound == null || partition.getUpperBound().isAfter(highestBound)) {
+                highestBound = partition.getUpperBound();
+            }
+        }
+
+        // A partition bounded by the first day of a month ends with the previous month
+        YearMonth month = highestBound != null ? YearMonth.from(highestBound.minusDays(1)).plusMonths(1) : YearMonth.now(clock);
+        List<String> definitions = new ArrayList<>();
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            String name = partitionName(month);
+            definitions.add("partition " + name + " values less than ('" + month.plusMonths(1).atDay(1) + "')");
+            result.getCreated().add(name);
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        if (maxValuePartition != null) {
+            // Split the catch-all partition, which is empty as long as partitions are kept ahead of time
+            jdbcTemplate.execute("alter table transaction reorganize partition " + maxValuePartition + " into (" +
+                    String.join(", ", definitions) + ", partition " + maxValuePartition + " values less than (maxvalue))");
+        } else {
+            jdbcTemplate.execute("alter table transaction add partition (" + String.join(", ", definitions) + ")");
+        }
+    }
+
+    private void applyRetention(List<TransactionPartition> partitions, PartitionMaintenanceResult result) {
+        int retentionMonths = rewardProperties.getPartitioning().getRetentionMonths();
+        if (retentionMonths <= 0) {
+            return;
+        }
+
+        LocalDate horizon = YearMonth.now(clock).minusMonths(retentionMonths).atDay(1);
+        LocalDate droppedBefore = null;
+        for (TransactionPartition partition : partitions) {
+            if (partition.getUpperBound() == null || partition.getUpperBound().isAfter(horizon)) {
+                continue;
+            }
+            if (rewardProperties.getPartitioning().isArchive()) {
+                // Ignore rows already copied by an interrupted earlier run
+                jdbcTemplate.update("insert ignore into transaction_archive select * from transaction partition (" + partition.getName() + ")");
+                result.getArchived().add(partition.getName());
+            }
+            jdbcTemplate.execute("alter table transaction drop partition " + partition.getName());
+            result.getDropped().add(partition.getName());
+            if (droppedBefore == null || partition.getUpperBound().isAfter(droppedBefore)) {
+                droppedBefore = partition.getUpperBound();
+            }
+        }
+        if (droppedBefore != null) {
+            eventPublisher.publishEvent(new TransactionsDroppedEvent(droppedBefore));
+        }
+    }
+
+    /**
+     * @return The name of the partition holding the given month, e.g. "p202501".
+     */
+    static String partitionName(YearMonth month) {
+        return month.format(PARTITION_NAME_FORMAT);
+    }
+
+    /**
+     * Parses a RANGE COLUMNS partition description such as "'2025-02-01'"; MAXVALUE yields null.
+     */
+    private static LocalDate parseUpperBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").trim());
+    }
+}
@@ -0,0 +1,50 @@
+package com.retailer.rewards.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between dollar amounts as received by the API and the integer cents stored and computed on.
+ */
+public final class Money {
+
+    // Below this magnitude every cent value is exactly representable, so the fast path of toCents is exact
+    private static final double FAST_PATH_LIMIT = 1e13;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a dollar amount to cents, dropping any fraction of a cent as the points calculation has
+     * always dropped fractions of a dollar, so 100.999 is 10099 cents.
+     * The amount is read through its shortest decimal representation, so 50.99 is 5099 cents rather than 5098.
+     *
+     * @param amount The amount in dollars.
+     * @return The amount in cents.
+     * @throws IllegalArgumentException if the amount is not a number or out of range.
+     */
+    public static long toCents(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Amount " + amount + " is not a number.");
+        }
+        if (Math.abs(amount) < FAST_PATH_LIMIT) {
+            long cents = Math.round(amount * 100);
+            if (cents / 100.0 == amount) { // Division is correctly rounded, so only a whole number of cents maps back
+                return cents;
+            }
+        }
+        try {
+            return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.DOWN).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is out of range.");
+        }
+    }
+
+    /**
+     * @param amountCents The amount in cents.
+     * @return The amount in dollars.
+     */
+    public static double toDollars(long amountCents) {
+        return BigDecimal.valueOf(amountCents, 2).doubleValue();
+    }
+}
@@ -0,0 +1,51 @@
+-- One-time conversion of transaction.amount (DOUBLE dollars) to amount_cents (BIGINT cents) (MySQL 8).
+--
+-- Run it before starting a version that maps Transaction.amountCents: the application no longer
+-- writes the old column, which is NOT NULL. Amounts are converted like Money.toCents: the DOUBLE is read
+-- through its shortest decimal representation by the cast to DECIMAL, so 50.99 stored as 50.98999...
+-- becomes 5099, and any fraction of a cent is then truncated, so 99.999 becomes 9999 as it would when
+-- ingested today. The archive table of the partitioning job is converted too when it exists.
+-- Safe to re-run after a partial failure.
+
+SET @convert_table = 'transaction';
+SET @has_amount = (SELECT COUNT(*) FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = @convert_table AND column_name = 'amount');
+SET @has_cents = (SELECT COUNT(*) FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = @convert_table AND column_name = 'amount_cents');
+SET @add_cents = IF(@has_amount = 1 AND @has_cents = 0,
+    'ALTER TABLE transaction ADD COLUMN amount_cents BIGINT NOT NULL DEFAULT 0 AFTER amount', 'DO 0');
+PREPARE add_cents FROM @add_cents;
+EXECUTE add_cents;
+DEALLOCATE PREPARE add_cents;
+SET @copy_cents = IF(@has_amount = 1,
+    'UPDATE transaction SET amount_cents = CAST(TRUNCATE(CAST(amount AS DECIMAL(65, 30)) * 100, 0) AS SIGNED)', 'DO 0');
+PREPARE copy_cents FROM @copy_cents;
+EXECUTE copy_cents;
+DEALLOCATE PREPARE copy_cents;
+SET @drop_amount = IF(@has_amount = 1,
+    'ALTER TABLE transaction DROP COLUMN amount, ALTER COLUMN amount_cents DROP DEFAULT', 'DO 0');
+PREPARE drop_amount FROM @drop_amount;
+EXECUTE drop_amount;
+DEALLOCATE PREPARE drop_amount;
+
+-- Same steps for transaction_archive, created by mysql-partition-transaction.sql
+SET @convert_table = 'transaction_archive';
+SET @has_amount = (SELECT COUNT(*) FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = @convert_table AND column_name = 'amount');
+SET @has_cents = (SELECT COUNT(*) FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = @convert_table AND column_name = 'amount_cents');
+SET @add_cents = IF(@has_amount = 1 AND @has_cents = 0,
+    'ALTER TABLE transaction_archive ADD COLUMN amount_cents BIGINT NOT NULL DEFAULT 0 AFTER amount', 'DO 0');
+PREPARE add_cents FROM @add_cents;
+EXECUTE add_cents;
+DEALLOCATE PREPARE add_cents;
+SET @copy_cents = IF(@has_amount = 1,
+    'UPDATE transaction_archive SET amount_cents = CAST(TRUNCATE(CAST(amount AS DECIMAL(65, 30)) * 100, 0) AS SIGNED)', 'DO 0');
+PREPARE copy_cents FROM @copy_cents;
+EXECUTE copy_cents;
+DEALLOCATE PREPARE copy_cents;
+SET @drop_amount = IF(@has_amount = 1,
+    'ALTER TABLE transaction_archive DROP COLUMN amount, ALTER COLUMN amount_cents DROP DEFAULT', 'DO 0');
+PREPARE drop_amount FROM @drop_amount;
+EXECUTE drop_amount;
+DEALLOCATE PREPARE drop_amount;
@@ -0,0 +1,31 @@
+-- One-time conversion of the transaction table to monthly RANGE partitions (MySQL 8).
+--
+-- MySQL requires the partitioning column in every unique key and does not support foreign keys
+-- on partitioned tables, so the customer foreign key is dropped and the primary key is widened
+-- to (id, transaction_date). Run it in a maintenance window, then start the application with
+-- rewards.partitioning.enabled=true and spring.jpa.hibernate.ddl-auto=none (ddl-auto=update
+-- would try to add the foreign key back).
+--
+-- The first partition holds all history before 2025; move its bound to suit the data. The
+-- application splits the pmax partition into monthly partitions on its first maintenance run.
+
+SET @fk = (SELECT constraint_name FROM information_schema.referential_constraints
+           WHERE constraint_schema = DATABASE() AND table_name = 'transaction' LIMIT 1);
+SET @drop_fk = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE transaction DROP FOREIGN KEY ', @fk));
+PREPARE drop_fk FROM @drop_fk;
+EXECUTE drop_fk;
+DEALLOCATE PREPARE drop_fk;
+
+ALTER TABLE transaction
+    MODIFY transaction_date DATE NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, transaction_date);
+
+ALTER TABLE transaction PARTITION BY RANGE COLUMNS (transaction_date) (
+    PARTITION p202412 VALUES LESS THAN ('2025-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Destination of expired partitions when rewards.partitioning.archive=true
+CREATE TABLE IF NOT EXISTS transaction_archive LIKE transaction;
+ALTER TABLE transaction_archive REMOVE PARTITIONING;
@@ -15,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
@@ -220,6 +221,33 @@ public class RewardIntegrationTest {
                 .andExpect(jsonPath("$.message").value(expectedMessage));
     }
 
+    /**
+     * Test POST /rewards/calculate/bulk - summaries for the customers found, and the others listed as not found.
+     */
+    @Test
+    void testCalculateBulkRewardPoints_success() throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("customerIds", List.of("CUST002", "NONEXISTENT", "CUST001"));
+        request.put("startDate", "2025-01-01");
+        request.put("endDate", "2025-02-28");
+
+        mockMvc.perform(post("/rewards/calculate/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summaries.CUST002.totalRewardPoints").value(250))
+                .andExpect(jsonPath("$.summaries.CUST001.totalRewardPoints").value(115))
+                .andExpect(jsonPath("$.summaries.CUST001.monthlyRewardPoints.2025-02").value(0))
+                .andExpect(jsonPath("$.summaries", aMapWithSize(2)))
+                .andExpect(jsonPath("$.notFound", contains("NONEXISTENT")));
+
+        request.put("customerIds", List.of());
+        mockMvc.perform(post("/rewards/calculate/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Test GET /rewards/calculate/{customerId} - invalid date format.
      */
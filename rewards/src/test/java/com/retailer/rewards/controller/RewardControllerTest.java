@@ -1,10 +1,15 @@
 package com.retailer.rewards.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
 import com.retailer.rewards.exception.CustomerAlreadyExistsException;
+import com.retailer.rewards.dto.BulkRewardRequest;
 import com.retailer.rewards.dto.RewardSummary;
 import com.retailer.rewards.entity.Customer;
 import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.event.TransactionRecordedEvent;
 import com.retailer.rewards.exception.CustomerNotFoundException;
+import com.retailer.rewards.exception.InvalidRequestException;
 import com.retailer.rewards.repository.CustomerRepository;
 import com.retailer.rewards.repository.TransactionRepository;
 import com.retailer.rewards.service.RewardService;
@@ -13,9 +18,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,6 +54,15 @@ public class RewardControllerTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private RewardProperties rewardProperties = new RewardProperties();
+
     @InjectMocks
     private RewardController rewardController;
 
@@ -114,6 +133,7 @@ public class RewardControllerTest {
         assertEquals("CUST001", response.getBody().getCustomer().getCustomerId());
         verify(customerRepository, times(1)).findByCustomerId("CUST001");
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(eventPublisher, times(1)).publishEvent(any(TransactionRecordedEvent.class));
     }
 
     /**
@@ -137,6 +157,7 @@ public class RewardControllerTest {
         assertEquals("Customer with ID 'NONEXISTENT' not found.", thrown.getMessage());
         verify(customerRepository, times(1)).findByCustomerId("NONEXISTENT");
         verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(eventPublisher, never()).publishEvent(any(TransactionRecordedEvent.class));
     }
 
     /**
@@ -158,7 +179,7 @@ public class RewardControllerTest {
 
         when(rewardService.calculateRewardsForAllCustomers()).thenReturn(mockSummaries);
 
-        ResponseEntity<List<RewardSummary>> response = rewardController.calculateAllRewardPoints();
+        ResponseEntity<List<RewardSummary>> response = rewardController.calculateAllRewardPoints(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -167,6 +188,94 @@ public class RewardControllerTest {
         verify(rewardService, times(1)).calculateRewardsForAllCustomers();
     }
 
+    /**
+     * Test GET /rewards/calculate/all?after=&limit= - a full page carries the cursor of the next page.
+     */
+    @Test
+    void testCalculateAllRewardPoints_fullPageHasNextCursor() {
+        List<RewardSummary> page = Arrays.asList(new RewardSummary("CUST002"), new RewardSummary("CUST003"));
+        when(rewardService.calculateRewardsForCustomerPage("CUST001", 2)).thenReturn(page);
+
+        ResponseEntity<List<RewardSummary>> response = rewardController.calculateAllRewardPoints("CUST001", 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        assertEquals("CUST003", response.getHeaders().getFirst(RewardController.NEXT_AFTER_HEADER));
+        verify(rewardService, never()).calculateRewardsForAllCustomers();
+    }
+
+    /**
+     * Test GET /rewards/calculate/all?after= - the last page uses the default limit and has no next cursor.
+     */
+    @Test
+    void testCalculateAllRewardPoints_lastPageHasNoNextCursor() {
+        int defaultLimit = rewardProperties.getPagination().getDefaultLimit();
+        when(rewardService.calculateRewardsForCustomerPage("CUST002", defaultLimit))
+                .thenReturn(Collections.singletonList(new RewardSummary("CUST003")));
+
+        ResponseEntity<List<RewardSummary>> response = rewardController.calculateAllRewardPoints("CUST002", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(RewardController.NEXT_AFTER_HEADER));
+    }
+
+    /**
+     * Test GET /rewards/calculate/all?limit= - a limit outside the allowed range is rejected.
+     */
+    @Test
+    void testCalculateAllRewardPoints_invalidLimit() {
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateAllRewardPoints(null, 0));
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateAllRewardPoints(null,
+                rewardProperties.getPagination().getMaxLimit() + 1));
+        verifyNoInteractions(rewardService);
+    }
+
+    /**
+     * Test POST /rewards/calculate/bulk - empty, oversized or null ID lists and invalid periods are rejected.
+     */
+    @Test
+    void testCalculateBulkRewardPoints_invalidRequest() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        LocalDate end = LocalDate.of(2025, 3, 31);
+        rewardProperties.getBulk().setMaxCustomers(2);
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateBulkRewardPoints(
+                new BulkRewardRequest(List.of(), start, end)));
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateBulkRewardPoints(
+                new BulkRewardRequest(List.of("CUST001", "CUST002", "CUST003"), start, end)));
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateBulkRewardPoints(
+                new BulkRewardRequest(Arrays.asList("CUST001", null), start, end)));
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateBulkRewardPoints(
+                new BulkRewardRequest(List.of("CUST001"), start, null)));
+        assertThrows(InvalidRequestException.class, () -> rewardController.calculateBulkRewardPoints(
+                new BulkRewardRequest(List.of("CUST001"), end, start)));
+        verifyNoInteractions(rewardService);
+    }
+
+    /**
+     * Test GET /rewards/calculate/all/stream - writes one JSON line per customer across pages.
+     */
+    @Test
+    void testStreamAllRewardPoints() throws Exception {
+        rewardProperties.getPagination().setDefaultLimit(2);
+        RewardSummary summary1 = new RewardSummary("CUST001");
+        summary1.addPoints("2025-01", 115);
+        when(rewardService.calculateRewardsForCustomerPage(null, 2))
+                .thenReturn(Arrays.asList(summary1, new RewardSummary("CUST002")));
+        when(rewardService.calculateRewardsForCustomerPage("CUST002", 2))
+                .thenReturn(Collections.singletonList(new RewardSummary("CUST003")));
+
+        ResponseEntity<StreamingResponseBody> response = rewardController.streamAllRewardPoints();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"customerId\":\"CUST001\",\"monthlyRewardPoints\":{\"2025-01\":115},\"totalRewardPoints\":115}", lines[0]);
+        assertTrue(lines[2].contains("\"CUST003\""));
+        verify(rewardService, times(2)).calculateRewardsForCustomerPage(any(), eq(2));
+    }
+
     /**
      * Test GET /rewards/calculate/{customerId} - successful calculation for specific customer.
      */
@@ -0,0 +1,100 @@
+package com.retailer.rewards.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MonthlyPoints accumulator and the RewardSummary JSON built from it.
+ */
+
+public class MonthlyPointsTest {
+
+    /**
+     * Epoch-month keys format exactly like YearMonth.toString().
+     */
+    @Test
+    void testMonthKey_matchesYearMonth() {
+        for (YearMonth month = YearMonth.of(1999, 1); month.isBefore(YearMonth.of(2031, 1)); month = month.plusMonths(1)) {
+            int epochMonth = MonthlyPoints.epochMonth(month.atDay(15));
+            assertEquals(month.toString(), MonthlyPoints.monthKey(epochMonth));
+            assertEquals(epochMonth, MonthlyPoints.epochMonth(month.toString()));
+        }
+    }
+
+    /**
+     * Points are summed per month regardless of insertion order, and months come out sorted.
+     */
+    @Test
+    void testAdd_sumsPerMonthInOrder() {
+        MonthlyPoints points = new MonthlyPoints();
+        for (int i = 11; i >= 0; i--) {
+            points.add(MonthlyPoints.epochMonth(2025, i + 1), i);
+            points.add(MonthlyPoints.epochMonth(2025, i + 1), 1);
+        }
+        points.add(MonthlyPoints.epochMonth(2024, 12), 0);
+
+        assertEquals(13, points.size());
+        assertEquals(4, points.get(MonthlyPoints.epochMonth(2025, 4)));
+        assertEquals(0, points.get(MonthlyPoints.epochMonth(2026, 1)));
+        assertEquals(List.of("2024-12", "2025-01", "2025-02"), points.toMap().keySet().stream().limit(3).toList());
+        assertEquals(0, points.toMap().get("2024-12"));
+    }
+
+    @Test
+    void testAddAll() {
+        MonthlyPoints first = new MonthlyPoints();
+        first.add(MonthlyPoints.epochMonth(2025, 1), 10);
+        MonthlyPoints second = new MonthlyPoints();
+        second.add(MonthlyPoints.epochMonth(2025, 1), 5);
+        second.add(MonthlyPoints.epochMonth(2025, 2), 7);
+
+        first.addAll(second);
+
+        assertEquals(Map.of("2025-01", 15, "2025-02", 7), first.toMap());
+    }
+
+    /**
+     * The summary's monthly map is a read-only view that follows later additions without copying.
+     */
+    @Test
+    void testMonthlyRewardPoints_unmodifiableLiveView() {
+        RewardSummary summary = new RewardSummary("CUST001");
+        summary.addPoints("2025-03", 150);
+        Map<String, Integer> monthly = summary.getMonthlyRewardPoints();
+
+        summary.addPoints("2025-01", 115);
+
+        assertSame(monthly, summary.getMonthlyRewardPoints());
+        assertEquals(List.of("2025-01", "2025-03"), List.copyOf(monthly.keySet()));
+        assertEquals(115, monthly.get("2025-01"));
+        assertNull(monthly.get("2025-02"));
+        assertNull(monthly.get("March"));
+        assertThrows(UnsupportedOperationException.class, () -> monthly.put("2025-02", 1));
+        assertThrows(UnsupportedOperationException.class, () -> monthly.remove("2025-01"));
+    }
+
+    /**
+     * The RewardSummary JSON still uses "YYYY-MM" keys and round-trips.
+     */
+    @Test
+    void testRewardSummaryJson_unchanged() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RewardSummary summary = new RewardSummary("CUST001");
+        summary.addPoints("2025-03", 150);
+        summary.addPoints(MonthlyPoints.epochMonth(LocalDate.of(2025, 1, 10)), 115);
+
+        String json = objectMapper.writeValueAsString(summary);
+        assertEquals("{\"customerId\":\"CUST001\",\"monthlyRewardPoints\":{\"2025-01\":115,\"2025-03\":150},\"totalRewardPoints\":265}", json);
+
+        RewardSummary read = objectMapper.readValue(json, RewardSummary.class);
+        assertEquals(summary.getMonthlyRewardPoints(), read.getMonthlyRewardPoints());
+        assertEquals(265, read.getTotalRewardPoints());
+    }
+}
@@ -0,0 +1,157 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.config.CacheConfig;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.service.CustomerCacheWarmer;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that customer lookups by business ID are served from the customer cache,
+ * and that saves refresh it and deletes clear it. Statements are counted with Hibernate statistics.
+ * Runs against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import(CacheConfig.class)
+public class CustomerRepositoryCacheTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        cache = cacheManager.getCache(CustomerRepository.CUSTOMER_CACHE);
+        cache.clear(); // The cache outlives the rolled back transactions of earlier tests
+    }
+
+    @Test
+    void testRepeatedLookupSkipsSelect() {
+        insert("CUST001", "Alice");
+
+        statistics.clear();
+        assertEquals("Alice", customerRepository.findByCustomerId("CUST001").orElseThrow().getName());
+        assertEquals(1, statistics.getPrepareStatementCount(), "The first lookup reads the database");
+
+        statistics.clear();
+        assertEquals("Alice", customerRepository.findByCustomerId("CUST001").orElseThrow().getName());
+        assertEquals(0, statistics.getPrepareStatementCount(), "The second lookup is served from the cache");
+    }
+
+    @Test
+    void testMissingCustomerIsNotCached() {
+        assertTrue(customerRepository.findByCustomerId("CUST001").isEmpty());
+        insert("CUST001", "Alice");
+
+        assertEquals("Alice", customerRepository.findByCustomerId("CUST001").orElseThrow().getName());
+    }
+
+    @Test
+    void testSaveRefreshesEntry() {
+        Customer customer = customerRepository.save(new Customer("CUST001", "Alice"));
+
+        statistics.clear();
+        assertSame(customer, customerRepository.findByCustomerId("CUST001").orElseThrow());
+        assertEquals(0, statistics.getPrepareStatementCount(), "The saved customer is cached");
+
+        customerRepository.saveAndFlush(renamed(customer, "Alicia"));
+        statistics.clear();
+        assertEquals("Alicia", customerRepository.findByCustomerId("CUST001").orElseThrow().getName());
+        assertEquals(0, statistics.getPrepareStatementCount(), "saveAndFlush refreshes the entry");
+    }
+
+    @Test
+    void testSaveAllClearsCache() {
+        Customer customer = insert("CUST001", "Alice");
+        customerRepository.findByCustomerId("CUST001");
+
+        customerRepository.saveAll(List.of(renamed(customer, "Alicia")));
+        assertNull(cache.get("CUST001"));
+
+        Customer alicia = customerRepository.findByCustomerId("CUST001").orElseThrow();
+        assertEquals("Alicia", alicia.getName());
+        customerRepository.saveAllAndFlush(List.of(renamed(alicia, "Ally")));
+        assertNull(cache.get("CUST001"));
+        assertEquals("Ally", customerRepository.findByCustomerId("CUST001").orElseThrow().getName());
+    }
+
+    @Test
+    void testDeleteEvictsEntry() {
+        Customer alice = customerRepository.save(new Customer("CUST001", "Alice"));
+        Customer bob = customerRepository.save(new Customer("CUST002", "Bob"));
+
+        customerRepository.delete(alice);
+        assertNull(cache.get("CUST001"));
+        assertTrue(customerRepository.findByCustomerId("CUST001").isEmpty());
+
+        customerRepository.deleteById(bob.getId());
+        assertNull(cache.get("CUST002"));
+        assertTrue(customerRepository.findByCustomerId("CUST002").isEmpty());
+    }
+
+    @Test
+    void testWarmUpRespectsWarmUpSize() {
+        insert("CUST001", "Alice");
+        insert("CUST002", "Bob");
+        insert("CUST003", "Charlie");
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getCustomerCache().setWarmUpSize(2);
+
+        assertEquals(2, new CustomerCacheWarmer(customerRepository, cacheManager, rewardProperties).warmUp());
+        assertNotNull(cache.get("CUST001"));
+        assertNotNull(cache.get("CUST002"));
+        assertNull(cache.get("CUST003"), "Customers beyond the warm-up size are left to the first lookup");
+
+        rewardProperties.getCustomerCache().setWarmUpSize(0);
+        cache.clear();
+        assertEquals(0, new CustomerCacheWarmer(customerRepository, cacheManager, rewardProperties).warmUp());
+        assertNull(cache.get("CUST001"));
+    }
+
+    /** Inserts a customer without going through the cached save. */
+    private Customer insert(String customerId, String name) {
+        Customer customer = entityManager.persistAndFlush(new Customer(customerId, name));
+        assertNull(cache.get(customerId));
+        return customer;
+    }
+
+    /** A detached copy of the customer under a new name, as a client would submit it. */
+    private Customer renamed(Customer customer, String name) {
+        entityManager.detach(customer);
+        Customer copy = new Customer(customer.getCustomerId(), name);
+        copy.setId(customer.getId());
+        return copy;
+    }
+}
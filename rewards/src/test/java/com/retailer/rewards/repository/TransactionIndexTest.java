@@ -0,0 +1,133 @@
+package com.retailer.rewards.repository;
+
+import com.retailer.rewards.dto.TransactionView;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.Transaction;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies through EXPLAIN that transaction lookups use the declared indexes.
+ * The SQL Hibernate generates for the repository methods is captured and explained, so the test follows
+ * the queries as they change. Runs against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.retailer.rewards.repository.TransactionIndexTest$CapturingStatementInspector")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class TransactionIndexTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer cust1;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        cust1 = customerRepository.save(new Customer("CUST001", "Alice"));
+        Customer cust2 = customerRepository.save(new Customer("CUST002", "Bob"));
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 365; i++) {
+            transactions.add(new Transaction(i % 2 == 0 ? cust1 : cust2, 60.00 + i % 90, LocalDate.of(2025, 1, 1).plusDays(i)));
+        }
+        transactionRepository.saveAll(transactions);
+        transactionRepository.flush();
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    /**
+     * The per-customer period query range-scans the (customer_db_id, transaction_date) index.
+     */
+    @Test
+    void testCustomerPeriodQueryUsesCompositeIndex() {
+        LocalDate startDate = LocalDate.of(2025, 2, 1);
+        LocalDate endDate = LocalDate.of(2025, 2, 28);
+        transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(cust1.getId(), startDate, endDate);
+
+        String plan = explain(capturedQuery(), cust1.getId(), startDate, endDate);
+
+        assertTrue(plan.contains("idx_transaction_customer_date"), plan);
+    }
+
+    /**
+     * A date range query across all customers range-scans the transaction_date index.
+     */
+    @Test
+    void testDateRangeQueryUsesDateIndex() {
+        LocalDate startDate = LocalDate.of(2025, 2, 1);
+        LocalDate endDate = LocalDate.of(2025, 2, 28);
+        transactionRepository.findByTransactionDateBetween(startDate, endDate);
+
+        String plan = explain(capturedQuery(), startDate, endDate);
+
+        assertTrue(plan.contains("idx_transaction_date"), plan);
+    }
+
+    /**
+     * The per-customer period query returns the same rows as filtering the customer's transactions out of the period.
+     */
+    @Test
+    void testCustomerPeriodQueryMatchesDateRangeQuery() {
+        LocalDate startDate = LocalDate.of(2025, 2, 1);
+        LocalDate endDate = LocalDate.of(2025, 2, 28);
+
+        List<TransactionView> byDbId = transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(cust1.getId(), startDate, endDate);
+        List<Transaction> byBusinessId = transactionRepository.findByTransactionDateBetween(startDate, endDate).stream()
+                .filter(transaction -> transaction.getCustomer().getCustomerId().equals("CUST001"))
+                .toList();
+
+        assertEquals(14, byDbId.size());
+        assertEquals(byBusinessId.stream().map(Transaction::getId).sorted().toList(),
+                byDbId.stream().map(TransactionView::getId).sorted().toList());
+        assertTrue(byDbId.stream().allMatch(view -> view.getCustomerId().equals("CUST001")));
+    }
+
+    /**
+     * @return The first statement Hibernate sent since the last one was taken, i.e. the repository query itself.
+     */
+    private static String capturedQuery() {
+        assertFalse(CapturingStatementInspector.STATEMENTS.isEmpty(), "No statement was captured");
+        return CapturingStatementInspector.STATEMENTS.get(0);
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters)).toLowerCase();
+    }
+
+    /** Records the SQL of every statement Hibernate prepares. */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.BulkRewardResult;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.RewardMonthClose;
+import com.retailer.rewards.entity.RewardRule;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.event.RewardRulesChangedEvent;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import com.retailer.rewards.exception.CustomerNotFoundException;
+import com.retailer.rewards.repository.CustomerMonthlyPointsRepository;
+import com.retailer.rewards.repository.CustomerRepository;
+import com.retailer.rewards.repository.RewardLedgerStateRepository;
+import com.retailer.rewards.repository.RewardMonthCloseRepository;
+import com.retailer.rewards.repository.RewardMonthSnapshotRepository;
+import com.retailer.rewards.repository.RewardRuleRepository;
+import com.retailer.rewards.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that every aggregation mode of RewardService produces identical summaries.
+ * Runs against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class RewardAggregationModeTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerMonthlyPointsRepository ledgerRepository;
+
+    @Autowired
+    private RewardLedgerStateRepository ledgerStateRepository;
+
+    @Autowired
+    private RewardMonthSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private RewardMonthCloseRepository monthCloseRepository;
+
+    @Autowired
+    private RewardRuleRepository ruleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private RewardProperties rewardProperties;
+
+    private RewardService rewardService;
+
+    private RewardRuleService rewardRuleService;
+
+    private RewardColumnStore rewardColumnStore;
+
+    private RewardLedgerService rewardLedgerService;
+
+    private RewardSnapshotService rewardSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        rewardProperties = new RewardProperties();
+        rewardProperties.getLedger().setChunkSize(5); // Several chunks for the dataset below
+        rewardProperties.getColumnStore().setEnabled(true); // Only answers queries once loaded
+        rewardProperties.getColumnStore().setLoadChunkSize(5);
+        RewardQueryCoalescer rewardQueryCoalescer = new RewardQueryCoalescer(rewardProperties);
+        RewardSummaryCache rewardSummaryCache = new RewardSummaryCache(rewardProperties, rewardQueryCoalescer);
+        rewardRuleService = new RewardRuleService(ruleRepository, rewardSummaryCache, transactionManager, event -> {
+            // Delivered to the listeners the application context would call
+            RewardRulesChangedEvent changed = (RewardRulesChangedEvent) event;
+            rewardSnapshotService.onRewardRulesChanged(changed);
+        });
+        rewardColumnStore = new RewardColumnStore(transactionRepository, rewardRuleService, rewardProperties);
+        rewardService = new RewardService(transactionRepository, customerRepository, ledgerRepository, ledgerStateRepository,
+                snapshotRepository, monthCloseRepository, rewardSummaryCache, rewardQueryCoalescer, rewardRuleService,
+                rewardColumnStore, new RewardMetrics(new SimpleMeterRegistry()), rewardProperties);
+        rewardLedgerService = new RewardLedgerService(transactionRepository, ledgerRepository, ledgerStateRepository,
+                rewardService, rewardRuleService, rewardProperties, new JdbcTemplate(dataSource), transactionManager);
+        rewardSnapshotService = new RewardSnapshotService(transactionRepository, snapshotRepository, monthCloseRepository,
+                rewardService, rewardProperties, transactionManager,
+                Clock.fixed(LocalDate.of(2025, 4, 15).atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+        rewardRuleService.reload(); // The startup load, so later changes publish an event
+
+        Customer cust1 = customerRepository.save(new Customer("CUST001", "Alice"));
+        Customer cust2 = customerRepository.save(new Customer("CUST002", "Bob"));
+        Customer cust3 = customerRepository.save(new Customer("CUST003", "Charlie"));
+
+        // Amounts around the $50 and $100 thresholds, including fractional dollars
+        transactionRepository.save(new Transaction(cust1, 120.00, LocalDate.of(2025, 1, 15)));
+        transactionRepository.save(new Transaction(cust1, 75.00, LocalDate.of(2025, 1, 20)));
+        transactionRepository.save(new Transaction(cust1, 40.00, LocalDate.of(2025, 2, 10)));
+        transactionRepository.save(new Transaction(cust1, 150.00, LocalDate.of(2025, 3, 25)));
+        transactionRepository.save(new Transaction(cust2, 200.00, LocalDate.of(2025, 2, 1)));
+        transactionRepository.save(new Transaction(cust2, 110.00, LocalDate.of(2025, 3, 5)));
+        transactionRepository.save(new Transaction(cust2, 50.00, LocalDate.of(2024, 12, 31)));
+        transactionRepository.save(new Transaction(cust2, 50.99, LocalDate.of(2024, 12, 1)));
+        transactionRepository.save(new Transaction(cust3, 100.00, LocalDate.of(2025, 3, 10)));
+        transactionRepository.save(new Transaction(cust3, 100.99, LocalDate.of(2025, 3, 11)));
+        transactionRepository.save(new Transaction(cust3, 101.01, LocalDate.of(2025, 4, 1)));
+        transactionRepository.save(new Transaction(cust3, 49.99, LocalDate.of(2025, 4, 30)));
+        transactionRepository.flush();
+    }
+
+    @Test
+    void testDatabaseModeMatchesInMemoryMode() {
+        Map<String, RewardSummary> inMemory = calculate(AggregationMode.IN_MEMORY);
+        Map<String, RewardSummary> database = calculate(AggregationMode.DATABASE);
+
+        assertSameSummaries(inMemory, database);
+        assertEquals(265, database.get("CUST001").getTotalRewardPoints());
+        assertEquals(0, database.get("CUST002").getMonthlyRewardPoints().get("2024-12"));
+    }
+
+    @Test
+    void testStreamingModeMatchesInMemoryMode() {
+        Map<String, RewardSummary> inMemory = calculate(AggregationMode.IN_MEMORY);
+        Map<String, RewardSummary> streaming = calculate(AggregationMode.STREAMING);
+
+        assertSameSummaries(inMemory, streaming);
+    }
+
+    @Test
+    void testLedgerModeMatchesInMemoryModeAfterRebuild() {
+        Map<String, RewardSummary> inMemory = calculate(AggregationMode.IN_MEMORY);
+
+        assertEquals(8, rewardLedgerService.rebuild(), "One ledger row per customer and month");
+        assertTrue(rewardLedgerService.verify().isEmpty(), "Rebuilt ledger should be consistent");
+
+        assertSameSummaries(inMemory, calculate(AggregationMode.LEDGER));
+    }
+
+    @Test
+    void testLedgerModePeriodQueryCombinesLedgerAndPartialMonths() {
+        rewardLedgerService.rebuild();
+        LocalDate startDate = LocalDate.of(2025, 1, 16);
+        LocalDate endDate = LocalDate.of(2025, 3, 31);
+
+        rewardProperties.getAggregation().setMode(AggregationMode.IN_MEMORY);
+        RewardSummary expected = rewardService.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate);
+
+        rewardProperties.getAggregation().setMode(AggregationMode.LEDGER);
+        RewardSummary actual = rewardService.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate);
+
+        assertEquals(25 + 0 + 150, actual.getTotalRewardPoints());
+        assertEquals(expected.getMonthlyRewardPoints(), actual.getMonthlyRewardPoints());
+    }
+
+    @Test
+    void testCustomerPagesMatchInMemoryMode() {
+        customerRepository.save(new Customer("CUST004", "David")); // No transactions, so never paged
+
+        List<RewardSummary> first = rewardService.calculateRewardsForCustomerPage(null, 2);
+        List<RewardSummary> second = rewardService.calculateRewardsForCustomerPage("CUST002", 2);
+
+        assertEquals(List.of("CUST001", "CUST002"), first.stream().map(RewardSummary::getCustomerId).toList());
+        assertEquals(List.of("CUST003"), second.stream().map(RewardSummary::getCustomerId).toList());
+        assertTrue(rewardService.calculateRewardsForCustomerPage("CUST003", 2).isEmpty());
+
+        Map<String, RewardSummary> paged = new HashMap<>();
+        first.forEach(summary -> paged.put(summary.getCustomerId(), summary));
+        second.forEach(summary -> paged.put(summary.getCustomerId(), summary));
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), paged);
+    }
+
+    @Test
+    void testSnapshotModeMatchesInMemoryModeAfterClose() {
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), calculate(AggregationMode.SNAPSHOT)); // Nothing closed yet
+
+        assertEquals(List.of("2024-12", "2025-01", "2025-02", "2025-03"), rewardSnapshotService.closeMonths(),
+                "Every month before the current one should be closed");
+        entityManager.clear(); // The bulk updates bypass the persistence context
+
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), calculate(AggregationMode.SNAPSHOT));
+        assertTrue(rewardSnapshotService.closeMonths().isEmpty(), "Clean months should not be closed again");
+    }
+
+    @Test
+    void testLateTransactionMarksClosedMonthDirty() {
+        rewardProperties.getSnapshot().setEnabled(true);
+        rewardSnapshotService.closeMonths();
+        entityManager.clear();
+
+        Customer cust3 = customerRepository.findByCustomerId("CUST003").orElseThrow();
+        Transaction late = transactionRepository.saveAndFlush(new Transaction(cust3, 130.00, LocalDate.of(2025, 1, 31)));
+        rewardSnapshotService.onTransactionRecorded(new TransactionRecordedEvent(late.getId(), "CUST003",
+                late.getAmountCents(), late.getTransactionDate()));
+        entityManager.clear();
+
+        Map<String, RewardSummary> snapshot = calculate(AggregationMode.SNAPSHOT);
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), snapshot);
+        assertEquals(110, snapshot.get("CUST003").getMonthlyRewardPoints().get("2025-01"));
+
+        assertEquals(List.of("2025-01"), rewardSnapshotService.closeMonths(), "Only the dirty month should be closed again");
+        entityManager.clear();
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), calculate(AggregationMode.SNAPSHOT));
+    }
+
+    @Test
+    void testDroppedMonthsLeaveSnapshotAndLedgerModes() {
+        rewardSnapshotService.closeMonths();
+        rewardLedgerService.rebuild();
+        entityManager.clear();
+
+        // What partition retention leaves behind after dropping the partitions before February
+        LocalDate before = LocalDate.of(2025, 2, 1);
+        transactionRepository.deleteAllInBatch(transactionRepository.findAll().stream()
+                .filter(transaction -> transaction.getTransactionDate().isBefore(before)).toList());
+        rewardSnapshotService.onTransactionsDropped(new TransactionsDroppedEvent(before));
+        rewardLedgerService.onTransactionsDropped(new TransactionsDroppedEvent(before));
+        entityManager.clear();
+
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), calculate(AggregationMode.SNAPSHOT));
+        assertSameSummaries(calculate(AggregationMode.IN_MEMORY), calculate(AggregationMode.LEDGER));
+        assertTrue(rewardLedgerService.verify().isEmpty(), "Dropped months are neither in the ledger nor recomputed");
+        assertEquals(List.of("2025-02", "2025-03"), rewardSnapshotService.listClosedMonths().stream()
+                .map(RewardMonthClose::getRewardMonth).sorted().toList());
+    }
+
+    @Test
+    void testAggregationReadsProjectionsInOneStatement() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManager.clear(); // Nothing already managed, so any entity access would show up as a load
+        try {
+            for (AggregationMode mode : List.of(AggregationMode.IN_MEMORY, AggregationMode.STREAMING,
+                    AggregationMode.PARALLEL, AggregationMode.DATABASE)) {
+                statistics.clear();
+                calculate(mode);
+                assertEquals(1, statistics.getPrepareStatementCount(), mode + " should read in a single statement");
+                assertEquals(0, statistics.getEntityLoadCount(), mode + " should not load entities");
+            }
+
+            statistics.clear();
+            rewardService.calculateRewardsForCustomerPage(null, 2);
+            assertEquals(2, statistics.getPrepareStatementCount(), "One statement for the page keys, one for its rows");
+            assertEquals(0, statistics.getEntityLoadCount());
+
+            statistics.clear();
+            rewardService.calculateRewardsForCustomerInPeriod("CUST001", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31));
+            assertEquals(2, statistics.getPrepareStatementCount(), "One statement for the customer, one for its rows");
+            assertEquals(1, statistics.getEntityLoadCount(), "Only the customer should be loaded");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            rewardService.shutdown();
+        }
+    }
+
+    @Test
+    void testRewardRulesGiveSameSummariesInEveryMode() {
+        Customer cust2 = customerRepository.findByCustomerId("CUST002").orElseThrow();
+        cust2.setSegment("GOLD");
+        customerRepository.saveAndFlush(cust2);
+        rewardRuleService.replaceRules(List.of(
+                RewardRule.tier(null, 50, 1),
+                RewardRule.tier(null, 100, 2),
+                RewardRule.tier(null, 140, 3),
+                RewardRule.tier("GOLD", 25, 2),
+                RewardRule.multiplier(null, 200, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28)),
+                RewardRule.multiplier("GOLD", 150, null, null)));
+        entityManager.clear();
+
+        Map<String, RewardSummary> inMemory = calculate(AggregationMode.IN_MEMORY);
+        assertEquals(50 + 80 + 30, inMemory.get("CUST001").getMonthlyRewardPoints().get("2025-03"), "$150 with the $140 tier");
+        assertEquals((200 - 25) * 2 * 2, inMemory.get("CUST002").getMonthlyRewardPoints().get("2025-02"),
+                "GOLD tiers with the larger February multiplier");
+        assertEquals((110 - 25) * 2 * 3 / 2, inMemory.get("CUST002").getMonthlyRewardPoints().get("2025-03"));
+
+        for (AggregationMode mode : List.of(AggregationMode.STREAMING, AggregationMode.PARALLEL, AggregationMode.DATABASE,
+                AggregationMode.SNAPSHOT)) {
+            assertSameSummaries(inMemory, calculate(mode));
+        }
+        rewardSnapshotService.closeMonths();
+        entityManager.clear();
+        assertSameSummaries(inMemory, calculate(AggregationMode.SNAPSHOT));
+        rewardLedgerService.rebuild();
+        assertSameSummaries(inMemory, calculate(AggregationMode.LEDGER));
+        rewardService.shutdown();
+    }
+
+    @Test
+    void testRuleChangeInvalidatesSnapshotsAndLedger() {
+        rewardSnapshotService.closeMonths();
+        rewardLedgerService.rebuild();
+        entityManager.clear();
+
+        rewardRuleService.replaceRules(List.of(RewardRule.tier(null, 0, 1))); // A point per dollar
+        entityManager.clear();
+
+        Map<String, RewardSummary> inMemory = calculate(AggregationMode.IN_MEMORY);
+        assertEquals(120 + 75, inMemory.get("CUST001").getMonthlyRewardPoints().get("2025-01"));
+        assertTrue(rewardSnapshotService.listClosedMonths().stream().allMatch(RewardMonthClose::isDirty),
+                "Every closed month holds the points of the previous rules");
+        assertSameSummaries(inMemory, calculate(AggregationMode.SNAPSHOT));
+        assertTrue(rewardService.isLedgerStale());
+        assertSameSummaries(inMemory, calculate(AggregationMode.LEDGER));
+        rewardProperties.getAggregation().setMode(AggregationMode.LEDGER);
+        assertEquals(75 + 40 + 150, rewardService.calculateRewardsForCustomerInPeriod("CUST001",
+                LocalDate.of(2025, 1, 16), LocalDate.of(2025, 3, 31)).getTotalRewardPoints(), "Not the ledger rows");
+
+        assertEquals(List.of("2024-12", "2025-01", "2025-02", "2025-03"), rewardSnapshotService.closeMonths());
+        rewardLedgerService.rebuild();
+        entityManager.clear();
+        assertFalse(rewardService.isLedgerStale(), "The rebuilt ledger holds the points of the new rules");
+        assertSameSummaries(inMemory, calculate(AggregationMode.SNAPSHOT));
+        assertSameSummaries(inMemory, calculate(AggregationMode.LEDGER));
+        rewardService.shutdown();
+    }
+
+    @Test
+    void testLedgerStalenessIsSeenByServicesThatMissedTheRuleChange() {
+        assertTrue(rewardService.isLedgerStale(), "Never rebuilt with any rules");
+        rewardLedgerService.rebuild();
+        assertFalse(rewardService.isLedgerStale());
+
+        // A node that starts after the change loads the new rules but never sees the change event
+        rewardRuleService.replaceRules(List.of(RewardRule.tier(null, 0, 1)));
+        RewardRuleService restartedRuleService = new RewardRuleService(ruleRepository,
+                new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties)), transactionManager, event -> { });
+        restartedRuleService.reload();
+        RewardService restarted = new RewardService(transactionRepository, customerRepository, ledgerRepository,
+                ledgerStateRepository, snapshotRepository, monthCloseRepository, null, null, restartedRuleService,
+                null, new RewardMetrics(new SimpleMeterRegistry()), rewardProperties);
+
+        assertTrue(restarted.isLedgerStale(), "The ledger holds the points of the previous rules");
+        rewardLedgerService.rebuild();
+        assertFalse(restarted.isLedgerStale());
+    }
+
+    @Test
+    void testColumnStorePeriodQueriesMatchDatabase() {
+        List<LocalDate[]> periods = List.of(
+                new LocalDate[]{LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31)},
+                new LocalDate[]{LocalDate.of(2025, 1, 16), LocalDate.of(2025, 3, 10)},
+                new LocalDate[]{LocalDate.of(2025, 3, 11), LocalDate.of(2025, 3, 11)},
+                new LocalDate[]{LocalDate.of(2025, 2, 2), LocalDate.of(2025, 2, 28)});
+        Map<String, RewardSummary> expected = new HashMap<>();
+        for (String customerId : List.of("CUST001", "CUST002", "CUST003")) {
+            for (LocalDate[] period : periods) {
+                expected.put(customerId + period[0] + period[1], periodOrNull(customerId, period[0], period[1]));
+            }
+        }
+
+        assertEquals(12, rewardColumnStore.load());
+        assertEquals(RewardColumnStore.State.READY, rewardColumnStore.getState());
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            for (String customerId : List.of("CUST001", "CUST002", "CUST003")) {
+                for (LocalDate[] period : periods) {
+                    RewardSummary database = expected.get(customerId + period[0] + period[1]);
+                    RewardSummary memory = periodOrNull(customerId, period[0], period[1]);
+                    assertEquals(database == null, memory == null, customerId + " " + period[0] + " found mismatch");
+                    if (database != null) {
+                        assertEquals(database.getMonthlyRewardPoints(), memory.getMonthlyRewardPoints());
+                    }
+                }
+            }
+            assertEquals(0, statistics.getPrepareStatementCount(), "Period queries should not reach the database");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Recorded transactions are added, and a reread one is not counted twice
+        Customer cust1 = customerRepository.findByCustomerId("CUST001").orElseThrow();
+        Transaction added = transactionRepository.saveAndFlush(new Transaction(cust1, 60.00, LocalDate.of(2025, 2, 10)));
+        TransactionRecordedEvent event = new TransactionRecordedEvent(added.getId(), "CUST001", added.getAmountCents(), added.getTransactionDate());
+        rewardColumnStore.onTransactionRecorded(event);
+        rewardColumnStore.onTransactionRecorded(event);
+        assertEquals(10, rewardService.calculateRewardsForCustomerInPeriod("CUST001", LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28))
+                .getTotalRewardPoints());
+        assertEquals(13L, rewardColumnStore.stats().get("transactions"));
+    }
+
+    @Test
+    void testLedgerVerifyReportsDrift() {
+        rewardLedgerService.rebuild();
+        ledgerRepository.addPoints("CUST001", "2025-01", 10);
+        entityManager.clear(); // The bulk update bypasses the persistence context
+
+        assertEquals(1, rewardLedgerService.verify().size(), "Modified ledger row should be reported");
+    }
+
+    @Test
+    void testBulkLookupMatchesPerCustomerQueries() {
+        rewardProperties.getBulk().setChunkSize(2); // Several IN-list queries for the IDs below
+        customerRepository.save(new Customer("CUST004", "David")); // No transactions
+        List<String> customerIds = List.of("CUST003", "CUST999", "CUST001", "CUST004", "CUST002", "CUST001");
+        LocalDate startDate = LocalDate.of(2025, 1, 16);
+        LocalDate endDate = LocalDate.of(2025, 3, 10);
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        BulkRewardResult database;
+        try {
+            database = rewardService.calculateRewardsForCustomersInPeriod(customerIds, startDate, endDate);
+            assertEquals(3, statistics.getPrepareStatementCount(), "One query per chunk of two distinct IDs");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(List.of("CUST003", "CUST001", "CUST002"), List.copyOf(database.getSummaries().keySet()));
+        assertEquals(List.of("CUST999", "CUST004"), database.getNotFound());
+        for (String customerId : database.getSummaries().keySet()) {
+            assertEquals(periodOrNull(customerId, startDate, endDate).getMonthlyRewardPoints(),
+                    database.getSummaries().get(customerId).getMonthlyRewardPoints(), customerId);
+        }
+
+        rewardColumnStore.load();
+        BulkRewardResult memory = rewardService.calculateRewardsForCustomersInPeriod(customerIds, startDate, endDate);
+        assertEquals(database.getNotFound(), memory.getNotFound());
+        assertEquals(List.copyOf(database.getSummaries().keySet()), List.copyOf(memory.getSummaries().keySet()));
+        for (String customerId : database.getSummaries().keySet()) {
+            assertEquals(database.getSummaries().get(customerId).getMonthlyRewardPoints(),
+                    memory.getSummaries().get(customerId).getMonthlyRewardPoints(), customerId);
+        }
+    }
+
+    private RewardSummary periodOrNull(String customerId, LocalDate startDate, LocalDate endDate) {
+        try {
+            return rewardService.calculateRewardsForCustomerInPeriod(customerId, startDate, endDate);
+        } catch (CustomerNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Map<String, RewardSummary> calculate(AggregationMode mode) {
+        rewardProperties.getAggregation().setMode(mode);
+        return rewardService.calculateRewardsForAllCustomers().stream()
+                .collect(Collectors.toMap(RewardSummary::getCustomerId, summary -> summary));
+    }
+
+    private void assertSameSummaries(Map<String, RewardSummary> expected, Map<String, RewardSummary> actual) {
+        assertEquals(expected.keySet(), actual.keySet(), "Both modes should return the same customers");
+        for (RewardSummary summary : expected.values()) {
+            RewardSummary other = actual.get(summary.getCustomerId());
+            assertEquals(summary.getTotalRewardPoints(), other.getTotalRewardPoints(),
+                    summary.getCustomerId() + " total points mismatch");
+            assertEquals(summary.getMonthlyRewardPoints(), other.getMonthlyRewardPoints(),
+                    summary.getCustomerId() + " monthly points mismatch");
+        }
+    }
+}
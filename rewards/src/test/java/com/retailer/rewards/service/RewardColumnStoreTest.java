@@ -0,0 +1,300 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.dto.TransactionView;
+import com.retailer.rewards.entity.RewardRule;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import com.retailer.rewards.repository.RewardRuleRepository;
+import com.retailer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the RewardColumnStore class.
+ */
+
+public class RewardColumnStoreTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    private final List<TransactionView> table = new ArrayList<>();
+
+    private final long[] nowMillis = {LocalDate.of(2025, 6, 1).toEpochDay() * 86_400_000L};
+
+    private final Clock clock = mock(Clock.class);
+
+    private RewardProperties rewardProperties;
+
+    private RewardRuleRepository ruleRepository;
+
+    private RewardRuleService rewardRuleService;
+
+    @TempDir
+    Path snapshotDir;
+
+    @BeforeEach
+    void setUp() {
+        rewardProperties = new RewardProperties();
+        rewardProperties.getColumnStore().setEnabled(true);
+        rewardProperties.getColumnStore().setLoadChunkSize(2);
+        when(clock.millis()).thenAnswer(invocation -> nowMillis[0]);
+        ruleRepository = mock(RewardRuleRepository.class);
+        rewardRuleService = new RewardRuleService(ruleRepository, new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties)), null, event -> { });
+
+        table.add(new TransactionView(1, "CUST001", 120_00, LocalDate.of(2025, 3, 5)));
+        table.add(new TransactionView(2, "CUST001", 75_00, LocalDate.of(2025, 1, 20)));
+        table.add(new TransactionView(3, "CUST002", 200_00, LocalDate.of(2025, 2, 1), "GOLD"));
+        table.add(new TransactionView(4, "CUST001", 60_00, LocalDate.of(2025, 3, 5)));
+        table.add(new TransactionView(5, "CUST001", 49_99, LocalDate.of(2025, 2, 14)));
+    }
+
+    @Test
+    void testQueriesFallBackUntilLoaded() {
+        RewardColumnStore store = store();
+        assertEquals(RewardColumnStore.State.WARMING, store.getState());
+        assertNull(store.summarize("CUST001", START, END, RewardRulePlan.DEFAULT));
+
+        rewardProperties.getColumnStore().setEnabled(false);
+        RewardColumnStore disabled = store();
+        assertEquals(0, disabled.load());
+        assertNull(disabled.summarize("CUST001", START, END, RewardRulePlan.DEFAULT));
+    }
+
+    @Test
+    void testSummarizeSplitsPeriodByMonth() {
+        RewardColumnStore store = store();
+        assertEquals(5, store.load());
+
+        RewardSummary summary = store.summarize("CUST001", START, END, RewardRulePlan.DEFAULT);
+        assertEquals(Map.of("2025-01", 25, "2025-02", 0, "2025-03", 100), summary.getMonthlyRewardPoints());
+
+        assertEquals(Map.of("2025-03", 100), store.summarize("CUST001", LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 5),
+                RewardRulePlan.DEFAULT).getMonthlyRewardPoints());
+        assertEquals(Map.of(), store.summarize("CUST001", LocalDate.of(2025, 3, 6), END, RewardRulePlan.DEFAULT)
+                .getMonthlyRewardPoints(), "No transactions in the period");
+        assertEquals(Map.of(), store.summarize("CUST999", START, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints());
+    }
+
+    @Test
+    void testTransactionsRecordedWhileLoadingAreStoredOnce() {
+        RewardColumnStore store = store();
+        // Committed before the load read it, and recorded after the load started but before it read the row
+        store.onTransactionRecorded(new TransactionRecordedEvent(4, "CUST001", 60_00, LocalDate.of(2025, 3, 5)));
+        store.onTransactionRecorded(new TransactionRecordedEvent(6, "CUST003", 110_00, LocalDate.of(2025, 4, 1)));
+        store.load();
+
+        assertEquals(6L, store.stats().get("transactions"));
+        assertEquals(125, store.summarize("CUST001", START, END, RewardRulePlan.DEFAULT).getTotalRewardPoints());
+        assertEquals(70, store.summarize("CUST003", START, END, RewardRulePlan.DEFAULT).getTotalRewardPoints());
+    }
+
+    @Test
+    void testBackdatedTransactionsMatchReload() {
+        RewardColumnStore store = store();
+        store.load();
+        TransactionView backdated = new TransactionView(6, "CUST001", 130_00, LocalDate.of(2025, 2, 28));
+        TransactionView first = new TransactionView(7, "CUST001", 51_00, LocalDate.of(2024, 12, 31));
+        for (TransactionView view : List.of(backdated, first)) {
+            table.add(view);
+            store.onTransactionRecorded(new TransactionRecordedEvent(view.getId(), view.getCustomerId(),
+                    view.getAmountCents(), view.getTransactionDate()));
+        }
+
+        RewardColumnStore reloaded = store();
+        reloaded.load();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (LocalDate from = start; from.isBefore(END); from = from.plusDays(17)) {
+            assertEquals(reloaded.summarize("CUST001", from, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints(),
+                    store.summarize("CUST001", from, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints(), from.toString());
+            assertEquals(reloaded.summarize("CUST001", start, from, RewardRulePlan.DEFAULT).getMonthlyRewardPoints(),
+                    store.summarize("CUST001", start, from, RewardRulePlan.DEFAULT).getMonthlyRewardPoints(), from.toString());
+        }
+        assertEquals(Map.of("2024-12", 1, "2025-01", 25, "2025-02", 110, "2025-03", 100),
+                store.summarize("CUST001", start, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints());
+    }
+
+    @Test
+    void testPointsFollowRuleChanges() {
+        RewardColumnStore store = store();
+        store.load();
+        assertEquals(250, store.summarize("CUST002", START, END, rewardRuleService.plan()).getTotalRewardPoints());
+
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.tier("GOLD", 0, 1), RewardRule.multiplier(null, 200, null, null)));
+        RewardRulePlan plan = rewardRuleService.reload();
+
+        assertEquals(400, store.summarize("CUST002", START, END, plan).getTotalRewardPoints());
+        assertEquals(250, store.summarize("CUST001", START, END, plan).getTotalRewardPoints());
+        store.onTransactionRecorded(new TransactionRecordedEvent(7, "CUST002", 10_00, LocalDate.of(2025, 5, 1), "GOLD"));
+        assertEquals(420, store.summarize("CUST002", START, END, plan).getTotalRewardPoints());
+    }
+
+    @Test
+    void testStatsReportFootprint() {
+        RewardColumnStore store = store();
+        store.load();
+
+        Map<String, Object> stats = store.stats();
+        assertEquals(RewardColumnStore.State.READY, stats.get("state"));
+        assertEquals(2, stats.get("customers"));
+        assertEquals(5L, stats.get("transactions"));
+        long perMillion = (Long) stats.get("bytesPerMillionTransactions");
+        assertTrue(perMillion >= 28_000_000L, "At least the 28 bytes of column data per transaction: " + perMillion);
+    }
+
+    @Test
+    void testRestoreFromSnapshotReadsOnlyNewerTransactions() throws IOException {
+        rewardProperties.getColumnStore().setSnapshotFile(snapshotDir.resolve("columns.bin").toString());
+        RewardColumnStore written = store();
+        assertTrue(written.writeSnapshot().isEmpty(), "Nothing is written before the store is loaded");
+        written.load();
+        assertEquals(Long.MIN_VALUE, written.writeSnapshot().get("lowWaterMark"), "Loaded less than the commit lag ago");
+        advance(Duration.ofMinutes(1));
+        Map<String, Long> snapshot = written.writeSnapshot();
+        assertEquals(5L, snapshot.get("transactions"));
+        assertEquals(5L, snapshot.get("highWaterMark"));
+        assertEquals(5L, snapshot.get("lowWaterMark"), "The high-water mark of the load, one commit lag ago");
+
+        table.add(new TransactionView(6, "CUST003", 110_00, LocalDate.of(2025, 4, 1)));
+        table.add(new TransactionView(7, "CUST001", 101_00, LocalDate.of(2025, 3, 31)));
+        RewardColumnStore restored = store();
+        assertEquals(2, restored.load(), "Only the transactions after the low-water mark are read");
+
+        Map<String, Object> stats = restored.stats();
+        assertEquals(5L, stats.get("restoredTransactions"));
+        assertEquals(7L, stats.get("transactions"));
+        assertEquals(7L, stats.get("highWaterMark"));
+        rewardProperties.getColumnStore().setSnapshotFile("");
+        RewardColumnStore loaded = store();
+        loaded.load();
+        for (String customerId : List.of("CUST001", "CUST002", "CUST003")) {
+            assertEquals(loaded.summarize(customerId, START, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints(),
+                    restored.summarize(customerId, START, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints(), customerId);
+        }
+    }
+
+    @Test
+    void testRestoreReadsTransactionsCommittedAfterSnapshotBelowHighWaterMark() throws IOException {
+        rewardProperties.getColumnStore().setSnapshotFile(snapshotDir.resolve("columns.bin").toString());
+        RewardColumnStore written = store();
+        written.load();
+        advance(Duration.ofMinutes(2));
+        // Id 6 is allocated but not committed yet, while later transactions commit
+        for (TransactionView view : List.of(new TransactionView(7, "CUST001", 120_00, LocalDate.of(2025, 5, 2)),
+                new TransactionView(8, "CUST002", 120_00, LocalDate.of(2025, 5, 3)),
+                new TransactionView(9, "CUST003", 120_00, LocalDate.of(2025, 5, 4)))) {
+            table.add(view);
+            written.onTransactionRecorded(new TransactionRecordedEvent(view.getId(), view.getCustomerId(),
+                    view.getAmountCents(), view.getTransactionDate()));
+        }
+        Map<String, Long> snapshot = written.writeSnapshot();
+        assertEquals(9L, snapshot.get("highWaterMark"));
+        assertEquals(5L, snapshot.get("lowWaterMark"));
+
+        // Commits after the snapshot, more than one load chunk below its high-water mark
+        TransactionView late = new TransactionView(6, "CUST001", 200_00, LocalDate.of(2025, 5, 1));
+        assertTrue(late.getId() <= 9 - rewardProperties.getColumnStore().getLoadChunkSize());
+        table.add(late);
+
+        RewardColumnStore restored = store();
+        restored.load();
+        assertEquals(9L, restored.stats().get("transactions"));
+        assertEquals(Map.of("2025-05", 250 + 90), restored.summarize("CUST001", LocalDate.of(2025, 5, 1), END,
+                RewardRulePlan.DEFAULT).getMonthlyRewardPoints());
+    }
+
+    @Test
+    void testDroppedTransactionsAreRemovedFromStoreAndSnapshot() {
+        rewardProperties.getColumnStore().setSnapshotFile(snapshotDir.resolve("columns.bin").toString());
+        RewardColumnStore store = store();
+        store.load();
+
+        LocalDate before = LocalDate.of(2025, 3, 1);
+        table.removeIf(view -> view.getTransactionDate().isBefore(before));
+        store.onTransactionsDropped(new TransactionsDroppedEvent(before));
+
+        assertEquals(1, store.stats().get("customers"), "CUST002 had no transactions left");
+        assertEquals(2L, store.stats().get("transactions"));
+        assertEquals(Map.of("2025-03", 100), store.summarize("CUST001", START, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints());
+        assertEquals(Map.of(), store.summarize("CUST002", START, END, RewardRulePlan.DEFAULT).getMonthlyRewardPoints());
+
+        RewardColumnStore restored = store();
+        restored.load();
+        assertEquals(2L, restored.stats().get("restoredTransactions"), "The snapshot was rewritten without the dropped rows");
+        assertEquals(2L, restored.stats().get("transactions"));
+    }
+
+    @Test
+    void testUnreadableSnapshotFallsBackToFullLoad() throws IOException {
+        Path file = snapshotDir.resolve("columns.bin");
+        rewardProperties.getColumnStore().setSnapshotFile(file.toString());
+        RewardColumnStore written = store();
+        written.load();
+        written.writeSnapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        RewardColumnStore restored = store();
+        assertEquals(5, restored.load(), "A truncated snapshot is ignored");
+        assertEquals(0L, restored.stats().get("restoredTransactions"));
+        assertEquals(5L, restored.stats().get("transactions"));
+        assertEquals(250, restored.summarize("CUST002", START, END, RewardRulePlan.DEFAULT).getTotalRewardPoints());
+    }
+
+    @Test
+    void testCorruptedSnapshotFallsBackToFullLoad() throws IOException {
+        Path file = snapshotDir.resolve("columns.bin");
+        rewardProperties.getColumnStore().setSnapshotFile(file.toString());
+        RewardColumnStore written = store();
+        written.load();
+        written.writeSnapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[64] ^= 1; // First day of the first customer, after the header
+        Files.write(file, bytes);
+
+        RewardColumnStore restored = store();
+        assertEquals(5, restored.load(), "A snapshot that fails its checksum is ignored");
+        assertEquals(0L, restored.stats().get("restoredTransactions"));
+        assertEquals(250, restored.summarize("CUST002", START, END, RewardRulePlan.DEFAULT).getTotalRewardPoints());
+    }
+
+    private RewardColumnStore store() {
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findViewsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int chunkSize = invocation.<Pageable>getArgument(1).getPageSize();
+            return table.stream()
+                    .filter(view -> view.getId() > afterId)
+                    .sorted(Comparator.comparingLong(TransactionView::getId)) // Like the query's "order by t.id"
+                    .limit(chunkSize)
+                    .toList();
+        });
+        return new RewardColumnStore(transactionRepository, rewardRuleService, rewardProperties, clock);
+    }
+
+    private void advance(Duration duration) {
+        nowMillis[0] += duration.toMillis();
+    }
+}
@@ -0,0 +1,269 @@
+package com.retailer.rewards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.RewardEvent;
+import com.retailer.rewards.entity.RewardEventRelayOffset;
+import com.retailer.rewards.event.FileRewardEventSink;
+import com.retailer.rewards.event.QueueRewardEventSink;
+import com.retailer.rewards.event.RewardEventSink;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.RewardEventRelayOffsetRepository;
+import com.retailer.rewards.repository.RewardEventRepository;
+import com.retailer.rewards.repository.RewardRuleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the reward event outbox, its change feed and the relay to the file and queue sinks.
+ * Runs against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class RewardEventServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-04-15T10:00:00Z");
+
+    @Autowired
+    private RewardEventRepository eventRepository;
+
+    @Autowired
+    private RewardEventRelayOffsetRepository offsetRepository;
+
+    @Autowired
+    private RewardRuleRepository ruleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path sinkDir;
+
+    private RewardProperties rewardProperties;
+
+    private RewardService rewardService;
+
+    private FileRewardEventSink fileSink;
+
+    private QueueRewardEventSink queueSink;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        rewardProperties = new RewardProperties();
+        rewardProperties.getEvents().setEnabled(true);
+        rewardProperties.getEvents().setSettleTime(Duration.ZERO);
+        rewardProperties.getEvents().setRelayBatchSize(2); // Several batches for the events below
+        rewardProperties.getEvents().setFileSink(sinkDir.resolve("events.ndjson").toString());
+        rewardProperties.getEvents().setQueueCapacity(10);
+        RewardRuleService rewardRuleService = new RewardRuleService(ruleRepository, new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties)), null, event -> { });
+        rewardService = new RewardService(null, null, null, null, null, null, null, null, rewardRuleService, null, null,
+                rewardProperties);
+        fileSink = new FileRewardEventSink(new ObjectMapper().findAndRegisterModules(), rewardProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        queueSink = new QueueRewardEventSink(rewardProperties);
+    }
+
+    @Test
+    void testRecordedTransactionsWriteEvents() {
+        RewardEventService service = service(NOW);
+        rewardProperties.getEvents().setEnabled(false);
+        record(service, 1, "CUST001", 120_00, LocalDate.of(2025, 1, 15));
+        assertEquals(0, eventRepository.count(), "Disabled");
+
+        rewardProperties.getEvents().setEnabled(true);
+        record(service, 2, "CUST001", 120_00, LocalDate.of(2025, 1, 15));
+        record(service, 3, "CUST001", 40_00, LocalDate.of(2025, 2, 10)); // No points, no event
+        record(service, 4, "CUST002", 200_00, LocalDate.of(2025, 2, 1));
+        record(service, 5, "CUST001", 75_00, LocalDate.of(2025, 3, 20));
+
+        List<RewardEvent> events = service.changes(0, 10);
+        assertEquals(List.of(2L, 4L, 5L), events.stream().map(RewardEvent::getTransactionId).toList());
+        RewardEvent first = events.get(0);
+        assertEquals("CUST001", first.getCustomerId());
+        assertEquals("2025-01", first.getRewardMonth());
+        assertEquals(90, first.getPoints());
+        assertNotNull(first.getCreatedAt(), "Stamped by the database on insert");
+
+        assertEquals(events.subList(0, 2), service.changes(0, 2));
+        assertEquals(events.subList(1, 3), service.changes(first.getId(), 10));
+        assertEquals(List.of(), service.changes(events.get(2).getId(), 10));
+    }
+
+    @Test
+    void testFeedWaitsForMissingEventsUntilSettled() {
+        rewardProperties.getEvents().setSettleTime(Duration.ofSeconds(5));
+        RewardEventService service = service(NOW);
+        for (int i = 1; i <= 3; i++) {
+            record(service, i, "CUST001", 120_00, LocalDate.of(2025, i, 1));
+        }
+        List<RewardEvent> events = eventRepository.findAll().stream().sorted((a, b) -> Long.compare(a.getId(), b.getId())).toList();
+        long since = events.get(0).getId() - 1;
+        eventRepository.delete(events.get(1)); // Its transaction has not committed yet, or rolled back
+        eventRepository.flush();
+
+        assertEquals(List.of(events.get(0)), service.changes(since, 10), "The event after the gap may be followed by a late one");
+
+        age(5);
+        assertEquals(List.of(events.get(0), events.get(2)), service.changes(since, 10),
+                "An event older than the settle time means the missing one rolled back");
+    }
+
+    @Test
+    void testRelayPublishesEventsThatCommitLate() {
+        rewardProperties.getEvents().setSettleTime(Duration.ofSeconds(5));
+        RewardEventService service = service(NOW);
+        for (int i = 1; i <= 3; i++) {
+            record(service, i, "CUST001", 120_00, LocalDate.of(2025, i, 1));
+        }
+        List<RewardEvent> events = eventRepository.findAll().stream().sorted((a, b) -> Long.compare(a.getId(), b.getId())).toList();
+        for (String sink : List.of("file", "queue")) { // Ids rolled back by other tests are not waited for
+            offsetRepository.save(new RewardEventRelayOffset(sink, events.get(0).getId() - 1, null));
+        }
+        RewardEvent late = events.get(1);
+        eventRepository.delete(late);
+        eventRepository.flush();
+
+        assertEquals(events.get(2).getId(), service.relay().get("queue"));
+        assertEquals(Set.of(late.getId()), offsetRepository.findById("queue").orElseThrow().getMissedEventIds());
+
+        jdbcTemplate.update("insert into reward_event (id, customer_id, reward_month, points, transaction_id, created_at)"
+                + " values (?, ?, ?, ?, ?, current_timestamp)", late.getId(), late.getCustomerId(), late.getRewardMonth(),
+                late.getPoints(), late.getTransactionId()); // Commits after the relay passed it
+        service.relay();
+        assertEquals(List.of(1L, 3L, 2L), queueSink.getQueue().stream().map(RewardEvent::getTransactionId).toList());
+        assertTrue(offsetRepository.findById("queue").orElseThrow().getMissedEventIds().isEmpty());
+
+        record(service, 4, "CUST001", 120_00, LocalDate.of(2025, 4, 1));
+        record(service, 5, "CUST001", 120_00, LocalDate.of(2025, 5, 1));
+        RewardEvent rolledBack = eventRepository.findAll().stream().filter(event -> event.getTransactionId() == 4).findFirst().orElseThrow();
+        eventRepository.delete(rolledBack);
+        eventRepository.flush();
+        service.relay();
+        assertEquals(Set.of(rolledBack.getId()), offsetRepository.findById("queue").orElseThrow().getMissedEventIds());
+
+        age(5);
+        service.relay();
+        assertTrue(offsetRepository.findById("queue").orElseThrow().getMissedEventIds().isEmpty(),
+                "Forgotten once an event after it is older than the settle time");
+        assertEquals(List.of(1L, 3L, 2L, 5L), queueSink.getQueue().stream().map(RewardEvent::getTransactionId).toList());
+    }
+
+    @Test
+    void testRelayPublishesEachEventOncePerSink() throws IOException {
+        RewardEventService service = service(NOW);
+        for (int i = 1; i <= 5; i++) {
+            record(service, i, "CUST00" + i, (50 + i * 10) * 100L, LocalDate.of(2025, i, 1));
+        }
+        long lastId = service.changes(0, 10).get(4).getId();
+
+        assertEquals(Map.of("file", lastId, "queue", lastId), service.relay());
+        assertEquals(Map.of("file", lastId, "queue", lastId), service.relay(), "Nothing new to publish");
+        assertEquals(lastId, offsetRepository.findById("file").orElseThrow().getLastEventId());
+
+        record(service, 6, "CUST006", 110_00, LocalDate.of(2025, 6, 1));
+        service.relay();
+        List<String> lines = Files.readAllLines(sinkDir.resolve("events.ndjson"));
+        assertEquals(6, lines.size());
+        assertTrue(lines.get(5).contains("\"customerId\":\"CUST006\"") && lines.get(5).contains("\"points\":70"), lines.get(5));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), queueSink.getQueue().stream().map(RewardEvent::getTransactionId).toList());
+    }
+
+    @Test
+    void testFailingSinkKeepsItsPosition() {
+        RewardEventService service = service(NOW);
+        for (int i = 1; i <= 3; i++) {
+            record(service, i, "CUST001", 120_00, LocalDate.of(2025, i, 1));
+        }
+        long lastId = service.changes(0, 10).get(2).getId();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        List<RewardEvent> published = new ArrayList<>();
+        RewardEventSink flakySink = new RewardEventSink() {
+            @Override
+            public String getName() {
+                return "flaky";
+            }
+
+            @Override
+            public void publish(List<RewardEvent> events) {
+                if (failing.get()) {
+                    throw new IllegalStateException("Broker unavailable");
+                }
+                published.addAll(events);
+            }
+        };
+        service = new RewardEventService(eventRepository, offsetRepository, rewardService, List.of(fileSink, flakySink),
+                rewardProperties, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        Map<String, Long> positions = service.relay();
+        assertEquals(lastId, positions.get("file"), "Other sinks are not held back");
+        assertEquals(0L, positions.get("flaky"));
+        assertEquals(1.0, meterRegistry.get("rewards.events.relay.failures").tag("sink", "flaky").counter().count());
+
+        failing.set(false);
+        assertEquals(lastId, service.relay().get("flaky"), "The failed batch is offered again on the next run");
+        assertEquals(List.of(1L, 2L, 3L), published.stream().map(RewardEvent::getTransactionId).toList());
+    }
+
+    @Test
+    void testFullQueueHoldsBackRelay() {
+        rewardProperties.getEvents().setQueueCapacity(3);
+        rewardProperties.getEvents().setQueueOfferTimeout(Duration.ZERO);
+        queueSink = new QueueRewardEventSink(rewardProperties);
+        queueSink.getQueue().add(new RewardEvent()); // Left by a consumer that fell behind
+        RewardEventService service = service(NOW);
+        for (int i = 1; i <= 5; i++) {
+            record(service, i, "CUST001", 120_00, LocalDate.of(2025, i, 1));
+        }
+        List<RewardEvent> events = service.changes(0, 10);
+
+        assertEquals(events.get(1).getId(), service.relay().get("queue"), "Only the first batch fits");
+        assertEquals(1.0, meterRegistry.get("rewards.events.relay.failures").tag("sink", "queue").counter().count());
+
+        queueSink.getQueue().clear(); // The consumer catches up
+        assertEquals(events.get(4).getId(), service.relay().get("queue"));
+        assertEquals(List.of(3L, 4L, 5L), queueSink.getQueue().stream().map(RewardEvent::getTransactionId).toList(),
+                "No event is dropped");
+    }
+
+    private RewardEventService service(Instant now) {
+        return new RewardEventService(eventRepository, offsetRepository, rewardService, List.of(fileSink, queueSink),
+                rewardProperties, meterRegistry, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    /** Moves every event back in time, as if the database clock had moved on. */
+    private void age(int seconds) {
+        jdbcTemplate.update("update reward_event set created_at = timestampadd(second, ?, created_at)", -seconds);
+    }
+
+    private static void record(RewardEventService service, long transactionId, String customerId, long amountCents,
+                               LocalDate transactionDate) {
+        service.onTransactionRecorded(new TransactionRecordedEvent(transactionId, customerId, amountCents, transactionDate));
+    }
+}
@@ -0,0 +1,130 @@
+package com.retailer.rewards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardJob;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.exception.RewardJobNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the RewardJobService class.
+ * Uses Mockito to mock the RewardService, with pages of two customers.
+ */
+
+public class RewardJobServiceTest {
+
+    @Mock
+    private RewardService rewardService;
+
+    @TempDir
+    Path resultDir;
+
+    private final CountDownLatch firstPageReleased = new CountDownLatch(1);
+
+    private RewardJobService rewardJobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getPagination().setDefaultLimit(2);
+        rewardProperties.getJobs().setResultDir(resultDir.toString());
+        rewardJobService = new RewardJobService(rewardService, new ObjectMapper(), rewardProperties);
+
+        when(rewardService.calculateRewardsForCustomerPage(isNull(), eq(2), any())).thenAnswer(invocation -> {
+            assertTrue(firstPageReleased.await(5, TimeUnit.SECONDS), "First page was never released");
+            invocation.getArgument(2, IntConsumer.class).accept(5);
+            return List.of(summary("CUST001", 120), summary("CUST002", 90));
+        });
+        when(rewardService.calculateRewardsForCustomerPage(eq("CUST002"), eq(2), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, IntConsumer.class).accept(1);
+            return List.of(summary("CUST003", 25));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        rewardJobService.shutdown();
+    }
+
+    /**
+     * Requests made while a job runs share it; the finished job reports progress and its result file.
+     */
+    @Test
+    void testSubmit_coalescesOntoRunningJobAndWritesResult() throws Exception {
+        RewardJob job = rewardJobService.submit();
+        assertSame(job, rewardJobService.submit(), "Identical request should join the running job");
+
+        firstPageReleased.countDown();
+        awaitFinished(job);
+
+        assertEquals(RewardJob.Status.COMPLETED, job.getStatus());
+        assertEquals(6, job.getRowsProcessed());
+        assertEquals(3, job.getCustomersDone());
+        assertEquals("/rewards/jobs/" + job.getId() + "/result", job.getResultUrl());
+        List<String> lines = Files.readAllLines(job.getResultFile());
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"customerId\":\"CUST001\""));
+        verify(rewardService, times(1)).calculateRewardsForCustomerPage(isNull(), eq(2), any());
+
+        RewardJob next = rewardJobService.submit();
+        assertNotEquals(job.getId(), next.getId(), "A finished job should not absorb new requests");
+    }
+
+    /**
+     * A failing page fails the job with its message instead of killing the job thread.
+     */
+    @Test
+    void testSubmit_failureIsReported() throws Exception {
+        doThrow(new IllegalArgumentException("boom"))
+                .when(rewardService).calculateRewardsForCustomerPage(isNull(), eq(2), any());
+
+        RewardJob job = rewardJobService.submit();
+        awaitFinished(job);
+
+        assertEquals(RewardJob.Status.FAILED, job.getStatus());
+        assertEquals("boom", job.getError());
+        assertNull(job.getResultUrl());
+    }
+
+    @Test
+    void testGetJob_unknownId() {
+        assertThrows(RewardJobNotFoundException.class, () -> rewardJobService.getJob("missing"));
+    }
+
+    private static RewardSummary summary(String customerId, int points) {
+        RewardSummary summary = new RewardSummary(customerId);
+        summary.addPoints("2025-01", points);
+        return summary;
+    }
+
+    private static void awaitFinished(RewardJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "Job did not finish in time");
+    }
+}
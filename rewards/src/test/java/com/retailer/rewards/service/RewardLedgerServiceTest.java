@@ -0,0 +1,184 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.LedgerDiscrepancy;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.CustomerMonthlyPoints;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.CustomerMonthlyPointsRepository;
+import com.retailer.rewards.repository.CustomerRepository;
+import com.retailer.rewards.repository.RewardLedgerStateRepository;
+import com.retailer.rewards.repository.RewardRuleRepository;
+import com.retailer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the ledger updates made as transactions are recorded, with each writer in its own committed
+ * database transaction. Runs against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RewardLedgerServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 10);
+
+    @Autowired
+    private CustomerMonthlyPointsRepository ledgerRepository;
+
+    @Autowired
+    private RewardLedgerStateRepository ledgerStateRepository;
+
+    @Autowired
+    private RewardRuleRepository ruleRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private RewardLedgerService rewardLedgerService;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getLedger().setEnabled(true);
+        RewardRuleService rewardRuleService = new RewardRuleService(ruleRepository, new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties)), null, event -> { });
+        RewardService rewardService = new RewardService(null, null, null, null, null, null, null, null, rewardRuleService, null, null,
+                rewardProperties);
+        rewardLedgerService = new RewardLedgerService(transactionRepository, ledgerRepository, ledgerStateRepository, rewardService,
+                rewardRuleService, rewardProperties, new JdbcTemplate(dataSource), transactionManager);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerStateRepository.deleteAllInBatch();
+        ledgerRepository.deleteAllInBatch();
+        transactionRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testConcurrentFirstTransactionsOfMonthBothCount() throws Exception {
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        // The first writer holds its new ledger row uncommitted while the second one records its transaction
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            record(1, 120_00);
+            firstWritten.countDown();
+            sleep(300);
+        }));
+        assertTrue(firstWritten.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status ->
+                record(2, 75_00)));
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        List<CustomerMonthlyPoints> rows = ledgerRepository.findByCustomerIdAndRewardMonthBetween("CUST001", "2025-05", "2025-05");
+        assertEquals(1, rows.size());
+        assertEquals(115, rows.get(0).getPoints());
+        assertEquals(2, rows.get(0).getTransactionCount());
+    }
+
+    @Test
+    void testLaterTransactionsOfMonthAddToTheRow() {
+        for (int i = 1; i <= 3; i++) {
+            long id = i;
+            transactionTemplate.executeWithoutResult(status -> record(id, 120_00));
+        }
+        CustomerMonthlyPoints row = ledgerRepository.findByCustomerIdAndRewardMonthBetween("CUST001", "2025-05", "2025-05").get(0);
+        assertEquals(270, row.getPoints());
+        assertEquals(3, row.getTransactionCount());
+    }
+
+    /**
+     * A row holding the right points but the wrong transaction count is reported with both counts.
+     */
+    @Test
+    void testVerifyReportsTransactionCountMismatch() {
+        Customer customer = customerRepository.save(new Customer("CUST001", "Alice"));
+        transactionRepository.save(new Transaction(customer, 120.00, DATE));
+        ledgerRepository.save(new CustomerMonthlyPoints("CUST001", "2025-05", 90, 2));
+
+        List<LedgerDiscrepancy> discrepancies = rewardLedgerService.verify();
+
+        assertEquals(1, discrepancies.size());
+        LedgerDiscrepancy discrepancy = discrepancies.get(0);
+        assertEquals("2025-05", discrepancy.getRewardMonth());
+        assertEquals(90, discrepancy.getLedgerPoints());
+        assertEquals(90, discrepancy.getExpectedPoints());
+        assertEquals(2, discrepancy.getLedgerTransactionCount());
+        assertEquals(1, discrepancy.getExpectedTransactionCount());
+    }
+
+    /**
+     * A transaction recorded while the ledger is rebuilt keeps its points: the rebuild waits for the row
+     * the transaction holds and reads the transaction once it has committed.
+     */
+    @Test
+    void testRebuildKeepsTransactionRecordedConcurrently() throws Exception {
+        Customer customer = customerRepository.save(new Customer("CUST001", "Alice"));
+        transactionRepository.save(new Transaction(customer, 120.00, DATE));
+        ledgerRepository.save(new CustomerMonthlyPoints("CUST001", "2025-05", 0, 0)); // Stale until the rebuild
+
+        CountDownLatch written = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            Transaction transaction = transactionRepository.save(new Transaction(customer, 120.00, DATE));
+            record(transaction.getId(), 120_00);
+            written.countDown();
+            sleep(300);
+        }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+
+        assertEquals(1, rewardLedgerService.rebuild());
+        writer.get(10, TimeUnit.SECONDS);
+        CustomerMonthlyPoints row = ledgerRepository.findByCustomerIdAndRewardMonthBetween("CUST001", "2025-05", "2025-05").get(0);
+        assertEquals(90 + 90, row.getPoints());
+        assertEquals(2, row.getTransactionCount());
+        assertTrue(rewardLedgerService.verify().isEmpty());
+    }
+
+    private void record(long transactionId, long amountCents) {
+        rewardLedgerService.onTransactionRecorded(new TransactionRecordedEvent(transactionId, "CUST001", amountCents, DATE));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property tests for the integer points kernel: for every amount checked, the cents kernel, its bulk variants
+ * and the dollar API agree with the floating-point implementation they replaced.
+ */
+
+public class RewardPointsTest {
+
+    private static final int MAX_DOLLARS = 100_000;
+    private static final int[] BOUNDARY_OFFSETS_CENTS = {-1, 0, 1, 99};
+
+    @Test
+    void testKernelMatchesDoubleImplementationAroundEveryWholeDollar() {
+        for (long dollars = 0; dollars <= MAX_DOLLARS; dollars++) {
+            for (int offset : BOUNDARY_OFFSETS_CENTS) {
+                long amountCents = dollars * 100 + offset;
+                if (amountCents < 0) {
+                    continue;
+                }
+                double amount = Money.toDollars(amountCents);
+                int expected = doubleFloorPoints(amount);
+                assertEquals(expected, RewardPoints.forCents(amountCents), "Kernel mismatch at " + amountCents + " cents");
+                assertEquals(expected, pointsOf(amount), "Dollar API mismatch at $" + amount);
+            }
+        }
+    }
+
+    @Test
+    void testTierBoundaries() {
+        assertEquals(0, RewardPoints.forCents(5000));
+        assertEquals(0, RewardPoints.forCents(5099));
+        assertEquals(1, RewardPoints.forCents(5100));
+        assertEquals(50, RewardPoints.forCents(10000));
+        assertEquals(50, RewardPoints.forCents(10099));
+        assertEquals(52, RewardPoints.forCents(10100));
+        assertEquals(0, RewardPoints.forCents(-15000), "Refunds earn no points");
+    }
+
+    @Test
+    void testBulkVariantsMatchScalarKernel() {
+        Random random = new Random(42);
+        int count = 100_003; // Not a multiple of any vector width, so the loop tail is covered
+        int[] intAmounts = new int[count];
+        long[] longAmounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            intAmounts[i] = random.nextInt(1_000_000);
+            longAmounts[i] = intAmounts[i];
+        }
+        int[] intPoints = new int[count];
+        int[] longPoints = new int[count];
+
+        RewardPoints.forCents(intAmounts, intPoints);
+        RewardPoints.forCents(longAmounts, longPoints);
+
+        for (int i = 0; i < count; i++) {
+            int expected = RewardPoints.forCents(longAmounts[i]);
+            assertEquals(expected, intPoints[i], "int[] mismatch at " + longAmounts[i] + " cents");
+            assertEquals(expected, longPoints[i], "long[] mismatch at " + longAmounts[i] + " cents");
+        }
+    }
+
+    private static int pointsOf(double amount) {
+        return RewardPoints.forCents(Money.toCents(amount));
+    }
+
+    /** RewardService.calculatePoints before amounts were held in cents. */
+    private static int doubleFloorPoints(double amount) {
+        int points = 0;
+        int dollars = (int) Math.floor(amount);
+        if (dollars > 100) {
+            points += (dollars - 100) * 2;
+        }
+        if (dollars > 50) {
+            int dollarsBetween50And100 = Math.min(dollars, 100) - 50;
+            if (dollarsBetween50And100 > 0) {
+                points += dollarsBetween50And100;
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,182 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.exception.CustomerNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RewardQueryCoalescer class.
+ */
+
+public class RewardQueryCoalescerTest {
+
+    private static final LocalDate Q1_START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate Q1_END = LocalDate.of(2025, 3, 31);
+
+    private RewardQueryCoalescer rewardQueryCoalescer;
+
+    private ExecutorService executor;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        rewardQueryCoalescer = new RewardQueryCoalescer(new RewardProperties()); // Enabled by default
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Concurrent calls for the same customer and period share the result of a single load.
+     */
+    @Test
+    void testGet_concurrentIdenticalCallsShareOneLoad() throws Exception {
+        RewardSummary loaded = new RewardSummary("CUST001");
+        Future<RewardSummary> leader = submit("CUST001", this::blockingLoad, loaded);
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        List<Future<RewardSummary>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(submit("CUST001", this::blockingLoad, new RewardSummary("CUST001")));
+        }
+        awaitCollapsed(5);
+        releaseLoad.countDown();
+
+        assertSame(loaded, leader.get(5, TimeUnit.SECONDS));
+        for (Future<RewardSummary> follower : followers) {
+            assertSame(loaded, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1L, rewardQueryCoalescer.stats().get("executed"));
+        assertEquals(0L, rewardQueryCoalescer.stats().get("inFlight"));
+    }
+
+    /**
+     * Callers waiting on a failed load receive the loader's own exception.
+     */
+    @Test
+    void testGet_failurePropagatesToFollowers() throws Exception {
+        Future<RewardSummary> leader = executor.submit(() -> rewardQueryCoalescer.get("CUST999", Q1_START, Q1_END, () -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            throw new CustomerNotFoundException("Customer with ID 'CUST999' not found.");
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        Future<RewardSummary> follower = submit("CUST999", this::blockingLoad, new RewardSummary("CUST999"));
+        awaitCollapsed(1);
+        releaseLoad.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CustomerNotFoundException.class, leaderError.getCause());
+        assertInstanceOf(CustomerNotFoundException.class, followerError.getCause());
+    }
+
+    /**
+     * A call made after a load has finished runs its own load, so results are never reused past the in-flight window.
+     */
+    @Test
+    void testGet_sequentialCallsAreNotCached() {
+        get("CUST001");
+        get("CUST001");
+
+        assertEquals(2, loads.get());
+        assertEquals(0L, rewardQueryCoalescer.stats().get("collapsed"));
+    }
+
+    /**
+     * A transaction of the customer inside the period detaches the running load, so later callers start a new one.
+     */
+    @Test
+    void testTransactionRecorded_laterCallersDoNotJoinRunningLoad() throws Exception {
+        Future<RewardSummary> leader = submit("CUST001", this::blockingLoad, new RewardSummary("CUST001"));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        rewardQueryCoalescer.invalidate("CUST001", LocalDate.of(2025, 2, 14));
+        get("CUST001");
+        releaseLoad.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, loads.get());
+        assertEquals(0L, rewardQueryCoalescer.stats().get("collapsed"));
+    }
+
+    /**
+     * Every call runs its own load when coalescing is disabled.
+     */
+    @Test
+    void testGet_disabled() {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getCoalescing().setEnabled(false);
+        rewardQueryCoalescer = new RewardQueryCoalescer(rewardProperties);
+
+        get("CUST001");
+        get("CUST001");
+
+        assertEquals(2, loads.get());
+        assertEquals(0L, rewardQueryCoalescer.stats().get("executed"));
+    }
+
+    private RewardSummary get(String customerId) {
+        return rewardQueryCoalescer.get(customerId, Q1_START, Q1_END, () -> {
+            loads.incrementAndGet();
+            return new RewardSummary(customerId);
+        });
+    }
+
+    private Future<RewardSummary> submit(String customerId, Function<RewardSummary, RewardSummary> load,
+                                         RewardSummary result) {
+        Supplier<RewardSummary> loader = () -> load.apply(result);
+        return executor.submit(() -> rewardQueryCoalescer.get(customerId, Q1_START, Q1_END, loader));
+    }
+
+    private RewardSummary blockingLoad(RewardSummary result) {
+        loads.incrementAndGet();
+        loadStarted.countDown();
+        await(releaseLoad);
+        return result;
+    }
+
+    private void awaitCollapsed(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rewardQueryCoalescer.stats().get("collapsed") < expected) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not join the in-flight load");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
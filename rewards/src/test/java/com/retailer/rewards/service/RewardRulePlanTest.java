@@ -0,0 +1,113 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.entity.RewardRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RewardRulePlan class.
+ */
+
+public class RewardRulePlanTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 15);
+
+    @Test
+    void testDefaultPlanMatchesBuiltInTiers() {
+        RewardRulePlan explicit = RewardRulePlan.compile(List.of(RewardRule.tier(null, 100, 2), RewardRule.tier(null, 50, 1)), 1);
+        for (long amountCents = 0; amountCents <= 100_000; amountCents += 7) {
+            int expected = RewardPoints.forCents(amountCents);
+            assertEquals(expected, RewardRulePlan.DEFAULT.points(amountCents), "Default plan mismatch at " + amountCents);
+            assertEquals(expected, RewardRulePlan.DEFAULT.points(amountCents, DATE, "GOLD"));
+            assertEquals(expected, explicit.points(amountCents, DATE, null), "Explicit tiers mismatch at " + amountCents);
+        }
+    }
+
+    /**
+     * Only a plan of the built-in tiers alone delegates to RewardPoints; the evaluated tiers give the same points.
+     */
+    @Test
+    void testOnlyBuiltInTiersDelegateToRewardPoints() {
+        RewardRulePlan neutralMultiplier = RewardRulePlan.compile(List.of(RewardRule.multiplier(null, 100, null, null)), 1);
+
+        assertTrue(RewardRulePlan.DEFAULT.isBuiltIn());
+        assertTrue(RewardRulePlan.compile(List.of(RewardRule.tier(null, 100, 2), RewardRule.tier(null, 50, 1)), 1).isBuiltIn());
+        assertFalse(neutralMultiplier.isBuiltIn());
+        assertFalse(RewardRulePlan.compile(List.of(RewardRule.tier("GOLD", 50, 1)), 1).isBuiltIn());
+        assertFalse(RewardRulePlan.compile(List.of(RewardRule.tier(null, 50, 1)), 1).isBuiltIn());
+        for (long amountCents = 0; amountCents <= 100_000; amountCents += 7) {
+            assertEquals(RewardPoints.forCents(amountCents), neutralMultiplier.points(amountCents, DATE, null),
+                    "Evaluated tiers mismatch at " + amountCents);
+        }
+    }
+
+    @Test
+    void testAdditionalTierRaisesRateAboveItsThreshold() {
+        RewardRulePlan plan = RewardRulePlan.compile(List.of(
+                RewardRule.tier(null, 50, 1), RewardRule.tier(null, 100, 2), RewardRule.tier(null, 200, 3)), 1);
+
+        assertEquals(250, plan.points(200_00));
+        assertEquals(253, plan.points(201_99), "Only whole dollars above the threshold count");
+        assertEquals(50 + 200 + 300, plan.points(300_00));
+    }
+
+    @Test
+    void testSegmentTiersReplaceDefaultTiersForThatSegmentOnly() {
+        RewardRulePlan plan = RewardRulePlan.compile(List.of(RewardRule.tier("GOLD", 20, 2)), 1);
+
+        assertEquals(160, plan.points(100_00, DATE, "GOLD"));
+        assertEquals(50, plan.points(100_00, DATE, "SILVER"), "Other segments keep the built-in tiers");
+        assertEquals(50, plan.points(100_00, DATE, null));
+    }
+
+    @Test
+    void testPromotionAppliesOnItsDatesInclusive() {
+        RewardRulePlan plan = RewardRulePlan.compile(List.of(
+                RewardRule.multiplier(null, 300, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31))), 1);
+
+        assertEquals(50, plan.points(100_00, LocalDate.of(2025, 2, 28), null));
+        assertEquals(150, plan.points(100_00, LocalDate.of(2025, 3, 1), null));
+        assertEquals(150, plan.points(100_00, LocalDate.of(2025, 3, 31), null));
+        assertEquals(50, plan.points(100_00, LocalDate.of(2025, 4, 1), null));
+        assertEquals(50, plan.points(100_00), "The amount-only calculation ignores multipliers");
+    }
+
+    @Test
+    void testHighestMatchingMultiplierWins() {
+        RewardRulePlan plan = RewardRulePlan.compile(List.of(
+                RewardRule.multiplier(null, 150, null, null),
+                RewardRule.multiplier("GOLD", 250, null, null),
+                RewardRule.multiplier("GOLD", 200, DATE, DATE)), 1);
+
+        assertEquals(125, plan.points(100_01, DATE, "GOLD"));
+        assertEquals(75, plan.points(100_01, DATE, "SILVER"));
+        assertEquals(1, plan.points(51_00, DATE, null), "Multiplied points are rounded down");
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RewardRulePlan.compile(List.of(RewardRule.tier(null, 50, 1), RewardRule.tier(null, 50, 2)), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> RewardRulePlan.compile(List.of(RewardRule.tier(null, -1, 1)), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> RewardRulePlan.compile(List.of(RewardRule.multiplier(null, 200, DATE, DATE.minusDays(1))), 1));
+        assertThrows(IllegalArgumentException.class, () -> RewardRulePlan.compile(List.of(new RewardRule()), 1));
+        // A duplicate threshold in a different segment is a separate tier
+        assertDoesNotThrow(() -> RewardRulePlan.compile(List.of(RewardRule.tier(null, 50, 1), RewardRule.tier("GOLD", 50, 2)), 1));
+    }
+
+    @Test
+    void testSameRulesInAnyOrderHaveTheSameFingerprint() {
+        List<RewardRule> rules = List.of(RewardRule.tier(null, 50, 1), RewardRule.multiplier("GOLD", 200, null, null));
+        RewardRulePlan plan = RewardRulePlan.compile(rules, 1);
+
+        assertTrue(plan.hasSameRules(List.of(rules.get(1), rules.get(0))));
+        assertFalse(plan.hasSameRules(List.of(rules.get(0))));
+        assertTrue(RewardRulePlan.DEFAULT.hasSameRules(List.of()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.entity.RewardRule;
+import com.retailer.rewards.event.RewardRulesChangedEvent;
+import com.retailer.rewards.exception.InvalidRequestException;
+import com.retailer.rewards.repository.RewardRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the RewardRuleService class, including reloads under concurrent evaluation.
+ */
+
+public class RewardRuleServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 15);
+
+    private RewardRuleRepository ruleRepository;
+
+    private RewardSummaryCache rewardSummaryCache;
+
+    private RewardRuleService rewardRuleService;
+
+    private List<Object> publishedEvents;
+
+    @BeforeEach
+    void setUp() {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getCache().setEnabled(true);
+        ruleRepository = mock(RewardRuleRepository.class);
+        rewardSummaryCache = new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties));
+        publishedEvents = new ArrayList<>();
+        rewardRuleService = new RewardRuleService(ruleRepository, rewardSummaryCache, null, publishedEvents::add);
+    }
+
+    @Test
+    void testReloadSwapsPlanOnlyWhenRulesChange() {
+        when(ruleRepository.findAll()).thenReturn(List.of());
+        assertSame(RewardRulePlan.DEFAULT, rewardRuleService.reload(), "An empty table keeps the built-in plan");
+
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.multiplier(null, 200, null, null)));
+        RewardRulePlan doubled = rewardRuleService.reload();
+        assertEquals(1, doubled.getVersion());
+        assertEquals(100, rewardRuleService.plan().points(100_00, DATE, null));
+
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.multiplier(null, 200, null, null)));
+        assertSame(doubled, rewardRuleService.reload(), "Unchanged rules should not create a new version");
+    }
+
+    @Test
+    void testReloadPublishesOnlyChangesAfterTheFirstLoad() {
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.tier(null, 10, 1)));
+        rewardRuleService.reload(); // Startup
+        rewardRuleService.reload();
+        assertTrue(publishedEvents.isEmpty(), "Neither the first load nor an unchanged reload is a change");
+
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.tier(null, 20, 1)));
+        rewardRuleService.reload();
+        assertEquals(1, publishedEvents.size());
+        assertEquals(2, ((RewardRulesChangedEvent) publishedEvents.get(0)).getPlanVersion());
+    }
+
+    @Test
+    void testReloadInvalidatesCachedSummaries() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<RewardSummary> loader = () -> {
+            loads.incrementAndGet();
+            return new RewardSummary("CUST001");
+        };
+        rewardSummaryCache.get("CUST001", DATE, DATE, loader);
+        rewardSummaryCache.get("CUST001", DATE, DATE, loader);
+        assertEquals(1, loads.get());
+
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.tier(null, 10, 1)));
+        rewardRuleService.reload();
+
+        rewardSummaryCache.get("CUST001", DATE, DATE, loader);
+        assertEquals(2, loads.get(), "The summary should be recomputed with the new rules");
+    }
+
+    @Test
+    void testInvalidRulesKeepPreviousPlan() {
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.tier(null, 10, 1)));
+        RewardRulePlan valid = rewardRuleService.reload();
+
+        when(ruleRepository.findAll()).thenReturn(List.of(RewardRule.tier(null, 10, 1), RewardRule.tier(null, 10, 2)));
+        assertThrows(IllegalArgumentException.class, () -> rewardRuleService.reload());
+        rewardRuleService.scheduledReload(); // Logs and keeps going
+
+        assertSame(valid, rewardRuleService.plan());
+    }
+
+    @Test
+    void testReplaceRejectsInvalidRulesAsBadRequest() {
+        assertThrows(InvalidRequestException.class, () -> rewardRuleService.replaceRules(
+                List.of(RewardRule.tier(null, 10, 1), RewardRule.tier(null, 10, 2))));
+        assertSame(RewardRulePlan.DEFAULT, rewardRuleService.plan());
+    }
+
+    @Test
+    void testEvaluationsDuringReloadsSeeOneWholePlan() throws Exception {
+        // Two rule sets whose points differ for every sample amount, so a mix of both would show up
+        List<RewardRule> single = List.of(RewardRule.tier(null, 0, 1));
+        List<RewardRule> tripled = List.of(RewardRule.tier(null, 0, 1), RewardRule.multiplier(null, 300, null, null));
+        long[] amountsCents = {1_00, 49_99, 75_00, 100_01, 250_00, 1_000_00};
+
+        int readers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(readers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    int evaluations = 0;
+                    while (running.get()) {
+                        RewardRulePlan plan = rewardRuleService.plan();
+                        for (long amountCents : amountsCents) {
+                            long dollars = amountCents / 100;
+                            int points = plan.points(amountCents, DATE, null);
+                            if (plan.getVersion() == 0) {
+                                assertEquals(RewardPoints.forCents(amountCents), points);
+                            } else if (plan.getRules().size() == 1) {
+                                assertEquals(dollars, points);
+                            } else {
+                                assertEquals(dollars * 3, points);
+                            }
+                            evaluations++;
+                        }
+                    }
+                    return evaluations;
+                }));
+            }
+
+            started.await();
+            for (int i = 0; i < 200; i++) {
+                when(ruleRepository.findAll()).thenReturn(i % 2 == 0 ? single : tripled);
+                rewardRuleService.reload();
+            }
+            running.set(false);
+
+            for (Future<Integer> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS) > 0);
+            }
+            assertEquals(200, rewardRuleService.plan().getVersion(), "Every change should be a new version");
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,24 +1,50 @@
 package com.retailer.rewards.service;
 
+import com.retailer.rewards.config.RewardProperties;
 import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.dto.TransactionView;
 import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.CustomerMonthlyPoints;
+import com.retailer.rewards.entity.RewardLedgerState;
 import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.event.TransactionRecordedEvent;
 import com.retailer.rewards.exception.CustomerNotFoundException; // Import the exception
+import com.retailer.rewards.repository.CustomerMonthlyPointsRepository;
+import com.retailer.rewards.repository.CustomerRepository;
+import com.retailer.rewards.repository.RewardLedgerStateRepository;
+import com.retailer.rewards.repository.RewardMonthCloseRepository;
+import com.retailer.rewards.repository.RewardMonthSnapshotRepository;
 import com.retailer.rewards.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -31,6 +57,42 @@ public class RewardServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CustomerMonthlyPointsRepository ledgerRepository;
+
+    @Mock
+    private RewardLedgerStateRepository ledgerStateRepository;
+
+    @Mock
+    private RewardMonthSnapshotRepository snapshotRepository;
+
+    @Mock
+    private RewardMonthCloseRepository monthCloseRepository;
+
+    @Spy
+    private RewardProperties rewardProperties = new RewardProperties();
+
+    @Spy
+    private RewardQueryCoalescer rewardQueryCoalescer = new RewardQueryCoalescer(new RewardProperties());
+
+    @Spy
+    private RewardSummaryCache rewardSummaryCache = new RewardSummaryCache(new RewardProperties(), rewardQueryCoalescer); // Disabled by default
+
+    @Spy
+    private RewardRuleService rewardRuleService = new RewardRuleService(null, rewardSummaryCache, null,
+            event -> { }); // Built-in tiers
+
+    @Spy
+    private RewardColumnStore rewardColumnStore = new RewardColumnStore(null, rewardRuleService, new RewardProperties()); // Disabled by default
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private RewardMetrics rewardMetrics = new RewardMetrics(meterRegistry);
+
     @InjectMocks
     private RewardService rewardService;
 
@@ -58,6 +120,9 @@ public class RewardServiceTest {
         assertEquals(90, rewardService.calculatePoints(120.00), "Amount $120.00 should yield 90 points"); // (1*50) + (2*20) = 50 + 40 = 90
         assertEquals(150, rewardService.calculatePoints(150.00), "Amount $150.00 should yield 150 points"); // (1*50) + (2*50) = 50 + 100 = 150
         assertEquals(250, rewardService.calculatePoints(200.00), "Amount $200.00 should yield 250 points"); // (1*50) + (2*100) = 50 + 200 = 250
+
+        // Fractions of a cent are dropped, like fractions of a dollar
+        assertEquals(50, rewardService.calculatePoints(100.999), "Amount $100.999 should yield 50 points");
     }
 
     /**
@@ -79,7 +144,7 @@ public class RewardServiceTest {
                 new Transaction(cust3, 100.00, LocalDate.of(2025, 3, 10)), // CUST003: 50 points (1*50)
                 new Transaction(cust1, 150.00, LocalDate.of(2025, 3, 25))  // CUST001: 150 points (50 + 2*50)
         );
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        when(transactionRepository.findAllViews()).thenReturn(views(transactions));
 
         // Call the service method
         List<RewardSummary> summaries = rewardService.calculateRewardsForAllCustomers();
@@ -129,7 +194,7 @@ public class RewardServiceTest {
      */
     @Test
     void testCalculateRewardsForAllCustomers_noTransactions() {
-        when(transactionRepository.findAll()).thenReturn(Collections.emptyList());
+        when(transactionRepository.findAllViews()).thenReturn(Collections.emptyList());
 
         List<RewardSummary> summaries = rewardService.calculateRewardsForAllCustomers();
 
@@ -137,12 +202,108 @@ public class RewardServiceTest {
         assertTrue(summaries.isEmpty(), "Should return an empty list when no transactions");
     }
 
+    /**
+     * Test calculateRewardsForAllCustomers records its time, the rows read and the points computed.
+     */
+    @Test
+    void testCalculateRewardsForAllCustomers_recordsMetrics() {
+        Customer cust1 = new Customer("CUST001", "Alice");
+        Customer cust2 = new Customer("CUST002", "Bob");
+        when(transactionRepository.findAllViews()).thenReturn(views(Arrays.asList(
+                new Transaction(cust1, 120.00, LocalDate.of(2025, 1, 15)), // 90 points
+                new Transaction(cust2, 200.00, LocalDate.of(2025, 2, 1)),  // 250 points
+                new Transaction(cust1, 40.00, LocalDate.of(2025, 2, 10))   // 0 points
+        )));
+
+        rewardService.calculateRewardsForAllCustomers();
+
+        assertEquals(1, meterRegistry.get("rewards.calculate.all").tag("mode", "in-memory").timer().count());
+        assertEquals(1, meterRegistry.get("rewards.aggregation").tag("mode", "in-memory").timer().count());
+        assertEquals(3.0, meterRegistry.get("rewards.query.rows").tag("query", "findAllViews").summary().totalAmount());
+        assertEquals(2.0, meterRegistry.get("rewards.calculate.all.summaries").tag("mode", "in-memory").summary().totalAmount());
+        assertEquals(340.0, meterRegistry.get("rewards.points.computed").tag("calculation", "all").counter().count());
+    }
+
+    /**
+     * Test calculateRewardsForAllCustomers in streaming mode produces the same summaries as the in-memory mode.
+     */
+    @Test
+    void testCalculateRewardsForAllCustomers_streamingModeMatchesInMemory() {
+        Customer cust1 = new Customer("CUST001", "Alice");
+        Customer cust2 = new Customer("CUST002", "Bob");
+
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(cust1, 120.00, LocalDate.of(2025, 1, 15)), // CUST001: 90 points
+                new Transaction(cust2, 200.00, LocalDate.of(2025, 2, 1)),  // CUST002: 250 points
+                new Transaction(cust1, 40.00, LocalDate.of(2025, 2, 10)),  // CUST001: 0 points
+                new Transaction(cust1, 150.00, LocalDate.of(2025, 3, 25))  // CUST001: 150 points
+        );
+        when(transactionRepository.findAllViews()).thenReturn(views(transactions));
+        when(transactionRepository.streamAll(anyInt())).thenAnswer(invocation -> views(transactions).stream());
+
+        List<RewardSummary> inMemory = rewardService.calculateRewardsForAllCustomers();
+
+        rewardProperties.getAggregation().setMode(AggregationMode.STREAMING);
+        List<RewardSummary> streamed = rewardService.calculateRewardsForAllCustomers();
+
+        assertEquals(inMemory.size(), streamed.size(), "Both modes should return the same number of customers");
+        for (RewardSummary expected : inMemory) {
+            RewardSummary actual = streamed.stream()
+                    .filter(s -> s.getCustomerId().equals(expected.getCustomerId()))
+                    .findFirst()
+                    .orElse(null);
+            assertNotNull(actual);
+            assertEquals(expected.getTotalRewardPoints(), actual.getTotalRewardPoints());
+            assertEquals(expected.getMonthlyRewardPoints(), actual.getMonthlyRewardPoints());
+        }
+    }
+
+    /**
+     * Test calculateRewardsForAllCustomers in parallel mode produces the same summaries as the in-memory mode
+     * when the transactions are split across many ranges and threads.
+     */
+    @Test
+    void testCalculateRewardsForAllCustomers_parallelModeMatchesInMemory() {
+        Random random = new Random(7);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            customers.add(new Customer(String.format("CUST%03d", i), "Customer " + i));
+        }
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            transactions.add(new Transaction(customers.get(random.nextInt(customers.size())),
+                    random.nextInt(25_000) / 100.0, LocalDate.of(2024, 1, 1).plusDays(random.nextInt(730))));
+        }
+        when(transactionRepository.findAllViews()).thenReturn(views(transactions));
+
+        Map<String, RewardSummary> inMemory = rewardService.calculateRewardsForAllCustomers().stream()
+                .collect(Collectors.toMap(RewardSummary::getCustomerId, Function.identity()));
+
+        rewardProperties.getAggregation().setMode(AggregationMode.PARALLEL);
+        rewardProperties.getAggregation().setParallelism(4);
+        try {
+            List<RewardSummary> parallel = rewardService.calculateRewardsForAllCustomers();
+
+            assertEquals(inMemory.size(), parallel.size(), "Both modes should return the same number of customers");
+            for (RewardSummary actual : parallel) {
+                RewardSummary expected = inMemory.get(actual.getCustomerId());
+                assertNotNull(expected);
+                assertEquals(expected.getTotalRewardPoints(), actual.getTotalRewardPoints());
+                assertEquals(expected.getMonthlyRewardPoints(), actual.getMonthlyRewardPoints());
+            }
+        } finally {
+            rewardService.shutdown();
+        }
+    }
+
     /**
      * Test calculateRewardsForCustomerInPeriod for a specific customer and period.
      */
     @Test
     void testCalculateRewardsForCustomerInPeriod_found() {
         Customer cust1 = new Customer("CUST001", "Alice");
+        cust1.setId(1L);
+        when(customerRepository.findByCustomerId("CUST001")).thenReturn(Optional.of(cust1));
         LocalDate startDate = LocalDate.of(2025, 1, 1);
         LocalDate endDate = LocalDate.of(2025, 3, 31);
 
@@ -152,8 +313,8 @@ public class RewardServiceTest {
                 new Transaction(cust1, 40.00, LocalDate.of(2025, 2, 10)),  // 0 points
                 new Transaction(cust1, 150.00, LocalDate.of(2025, 3, 25))  // 150 points
         );
-        when(transactionRepository.findByCustomer_CustomerIdAndTransactionDateBetween("CUST001", startDate, endDate))
-                .thenReturn(cust1Transactions);
+        when(transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(1L, startDate, endDate))
+                .thenReturn(views(cust1Transactions));
 
         RewardSummary summary = rewardService.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate);
 
@@ -178,8 +339,10 @@ public class RewardServiceTest {
         String expectedErrorMessage = String.format("Customer with ID '%s' not found or has no transactions for the period: %s to %s",
                 customerId, startDate.format(DateTimeFormatter.ISO_LOCAL_DATE), endDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
 
-
-        when(transactionRepository.findByCustomer_CustomerIdAndTransactionDateBetween(customerId, startDate, endDate))
+        Customer cust1 = new Customer(customerId, "Alice");
+        cust1.setId(1L);
+        when(customerRepository.findByCustomerId(customerId)).thenReturn(Optional.of(cust1));
+        when(transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(1L, startDate, endDate))
                 .thenReturn(Collections.emptyList());
 
         // Assert that CustomerNotFoundException is thrown
@@ -202,8 +365,7 @@ public class RewardServiceTest {
         String expectedErrorMessage = String.format("Customer with ID '%s' not found or has no transactions for the period: %s to %s",
                 customerId, startDate.format(DateTimeFormatter.ISO_LOCAL_DATE), endDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
 
-        when(transactionRepository.findByCustomer_CustomerIdAndTransactionDateBetween(customerId, startDate, endDate))
-                .thenReturn(Collections.emptyList());
+        when(customerRepository.findByCustomerId(customerId)).thenReturn(Optional.empty());
 
         // Assert that CustomerNotFoundException is thrown
         CustomerNotFoundException thrown = assertThrows(CustomerNotFoundException.class, () -> {
@@ -211,5 +373,102 @@ public class RewardServiceTest {
         });
 
         assertEquals(expectedErrorMessage, thrown.getMessage());
+        verifyNoInteractions(transactionRepository);
+        assertEquals(1, meterRegistry.get("rewards.calculate.period").tag("outcome", "not-found").timer().count());
+        assertEquals(0, meterRegistry.get("rewards.calculate.period").tag("outcome", "found").timer().count());
+    }
+
+    /**
+     * A transaction committed while a period query is in flight is seen by the next query: the query neither
+     * joins the running load nor lets that load be cached, so the stale result is never served again.
+     */
+    @Test
+    void testCalculateRewardsForCustomerInPeriod_commitDuringInFlightLoadIsNotServedStale() throws Exception {
+        RewardProperties cachingProperties = new RewardProperties();
+        cachingProperties.getCache().setEnabled(true); // Coalescing is enabled by default
+        RewardQueryCoalescer coalescer = new RewardQueryCoalescer(cachingProperties);
+        RewardSummaryCache cache = new RewardSummaryCache(cachingProperties, coalescer);
+        RewardService service = new RewardService(transactionRepository, customerRepository, ledgerRepository, ledgerStateRepository,
+                snapshotRepository, monthCloseRepository, cache, coalescer, rewardRuleService, rewardColumnStore, rewardMetrics, cachingProperties);
+
+        Customer cust1 = new Customer("CUST001", "Alice");
+        cust1.setId(1L);
+        when(customerRepository.findByCustomerId("CUST001")).thenReturn(Optional.of(cust1));
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 3, 31);
+        List<TransactionView> before = views(Collections.singletonList(new Transaction(cust1, 120.00, LocalDate.of(2025, 1, 15))));
+        List<TransactionView> after = views(Arrays.asList(
+                new Transaction(cust1, 120.00, LocalDate.of(2025, 1, 15)),
+                new Transaction(cust1, 150.00, LocalDate.of(2025, 2, 14))));
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(1L, startDate, endDate)).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() > 1) {
+                return after;
+            }
+            loadStarted.countDown(); // The first load read the table before the commit, then stalls
+            assertTrue(releaseLoad.await(5, TimeUnit.SECONDS));
+            return before;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<RewardSummary> parked = executor.submit(() -> service.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+            // What the AFTER_COMMIT listener runs once the new transaction is committed
+            cache.onTransactionRecorded(new TransactionRecordedEvent(2L, "CUST001", 150_00, LocalDate.of(2025, 2, 14)));
+
+            assertEquals(90 + 150, service.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate).getTotalRewardPoints());
+            releaseLoad.countDown();
+            assertEquals(90, parked.get(5, TimeUnit.SECONDS).getTotalRewardPoints());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(90 + 150, service.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate).getTotalRewardPoints());
+        assertEquals(2, loads.get(), "The last query should be served from the cached post-commit load");
+        assertEquals(0L, coalescer.stats().get("collapsed"));
+    }
+
+    /**
+     * Test calculateRewardsForCustomerInPeriod in ledger mode reads complete months from the ledger
+     * and only the partially covered month from transactions.
+     */
+    @Test
+    void testCalculateRewardsForCustomerInPeriod_ledgerMode() {
+        rewardProperties.getAggregation().setMode(AggregationMode.LEDGER);
+        when(ledgerStateRepository.findById(RewardLedgerState.ID))
+                .thenReturn(Optional.of(new RewardLedgerState(RewardRulePlan.DEFAULT.getRulesHash(), Instant.now())));
+        Customer cust1 = new Customer("CUST001", "Alice");
+        cust1.setId(1L);
+        when(customerRepository.findByCustomerId("CUST001")).thenReturn(Optional.of(cust1));
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 3, 20);
+
+        when(ledgerRepository.findByCustomerIdAndRewardMonthBetween("CUST001", "2025-01", "2025-02"))
+                .thenReturn(Arrays.asList(
+                        new CustomerMonthlyPoints("CUST001", "2025-01", 115, 2),
+                        new CustomerMonthlyPoints("CUST001", "2025-02", 0, 1)));
+        when(transactionRepository.findViewsByCustomerDbIdAndTransactionDateBetween(1L, LocalDate.of(2025, 3, 1), endDate))
+                .thenReturn(views(Collections.singletonList(new Transaction(cust1, 150.00, LocalDate.of(2025, 3, 15)))));
+
+        RewardSummary summary = rewardService.calculateRewardsForCustomerInPeriod("CUST001", startDate, endDate);
+
+        assertEquals(115 + 150, summary.getTotalRewardPoints());
+        assertEquals(3, summary.getMonthlyRewardPoints().size());
+        assertEquals(0, summary.getMonthlyRewardPoints().get("2025-02"));
+        assertEquals(150, summary.getMonthlyRewardPoints().get("2025-03"));
+    }
+
+    /**
+     * Maps transactions to the views the repository returns to the reward calculation.
+     */
+    private static List<TransactionView> views(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(t -> new TransactionView(t.getId(), t.getCustomer().getCustomerId(), t.getAmountCents(), t.getTransactionDate()))
+                .toList();
     }
 }
\ No newline at end of file
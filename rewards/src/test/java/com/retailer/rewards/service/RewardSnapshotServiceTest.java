@@ -0,0 +1,107 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.entity.RewardMonthClose;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.RewardMonthCloseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the month close rows written as late transactions are recorded, with each writer in its own
+ * committed database transaction. Runs against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RewardSnapshotServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 1, 20); // Before the clock's month
+
+    @Autowired
+    private RewardMonthCloseRepository monthCloseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RewardSnapshotService rewardSnapshotService;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getSnapshot().setEnabled(true);
+        rewardSnapshotService = new RewardSnapshotService(null, null, monthCloseRepository, null, rewardProperties,
+                transactionManager, Clock.fixed(LocalDate.of(2025, 4, 15).atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monthCloseRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testConcurrentLateTransactionsInUnclosedMonthBothCommit() throws Exception {
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        // The first writer holds its new close row uncommitted while the second one records its transaction
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            record(1);
+            firstWritten.countDown();
+            sleep(300);
+        }));
+        assertTrue(firstWritten.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status ->
+                record(2)));
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        List<RewardMonthClose> rows = monthCloseRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals("2025-01", rows.get(0).getRewardMonth());
+        assertTrue(rows.get(0).isDirty());
+    }
+
+    @Test
+    void testLateTransactionMarksCleanMonthDirty() {
+        monthCloseRepository.save(new RewardMonthClose("2025-01", null, false));
+
+        transactionTemplate.executeWithoutResult(status -> record(1));
+
+        assertTrue(monthCloseRepository.findById("2025-01").orElseThrow().isDirty());
+    }
+
+    private void record(long transactionId) {
+        rewardSnapshotService.onTransactionRecorded(new TransactionRecordedEvent(transactionId, "CUST001", 120_00, DATE));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.RewardSummary;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RewardSummaryCache class.
+ */
+
+public class RewardSummaryCacheTest {
+
+    private static final LocalDate Q1_START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate Q1_END = LocalDate.of(2025, 3, 31);
+    private static final LocalDate Q2_START = LocalDate.of(2025, 4, 1);
+    private static final LocalDate Q2_END = LocalDate.of(2025, 6, 30);
+
+    private RewardSummaryCache rewardSummaryCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getCache().setEnabled(true);
+        rewardSummaryCache = new RewardSummaryCache(rewardProperties, new RewardQueryCoalescer(rewardProperties));
+    }
+
+    /**
+     * A repeated request for the same customer and period is served from the cache.
+     */
+    @Test
+    void testGet_hitAfterMiss() {
+        RewardSummary first = get("CUST001", Q1_START, Q1_END);
+        RewardSummary second = get("CUST001", Q1_START, Q1_END);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1L, rewardSummaryCache.stats().get("hits"));
+        assertEquals(1L, rewardSummaryCache.stats().get("misses"));
+    }
+
+    /**
+     * A transaction only invalidates the cached periods of its customer that contain its date.
+     */
+    @Test
+    void testTransactionRecorded_invalidatesOnlyMatchingRanges() {
+        get("CUST001", Q1_START, Q1_END);
+        get("CUST001", Q2_START, Q2_END);
+        get("CUST002", Q1_START, Q1_END);
+
+        rewardSummaryCache.onTransactionRecorded(new TransactionRecordedEvent(1L, "CUST001", 12000L, LocalDate.of(2025, 2, 14)));
+
+        get("CUST001", Q1_START, Q1_END); // Reloaded
+        get("CUST001", Q2_START, Q2_END); // Still cached
+        get("CUST002", Q1_START, Q1_END); // Still cached
+        assertEquals(4, loads.get());
+        assertEquals(1L, rewardSummaryCache.stats().get("invalidations"));
+    }
+
+    /**
+     * Dropping old transactions invalidates every cached period.
+     */
+    @Test
+    void testTransactionsDropped_invalidatesEverything() {
+        get("CUST001", Q1_START, Q1_END);
+        get("CUST002", Q2_START, Q2_END);
+
+        rewardSummaryCache.onTransactionsDropped(new TransactionsDroppedEvent(Q2_START));
+
+        get("CUST001", Q1_START, Q1_END);
+        get("CUST002", Q2_START, Q2_END);
+        assertEquals(4, loads.get());
+    }
+
+    /**
+     * A summary computed while a transaction of the same customer was recorded is not cached,
+     * because it may not include that transaction.
+     */
+    @Test
+    void testGet_doesNotCacheLoadOverlappingWrite() {
+        rewardSummaryCache.get("CUST001", Q1_START, Q1_END, () -> {
+            rewardSummaryCache.invalidate("CUST001", LocalDate.of(2025, 1, 10));
+            return new RewardSummary("CUST001");
+        });
+
+        get("CUST001", Q1_START, Q1_END);
+        assertEquals(1, loads.get(), "The overlapping load should not have been cached");
+    }
+
+    /**
+     * Nothing is cached when the cache is disabled.
+     */
+    @Test
+    void testGet_disabled() {
+        rewardSummaryCache = new RewardSummaryCache(new RewardProperties(), new RewardQueryCoalescer(new RewardProperties()));
+
+        get("CUST001", Q1_START, Q1_END);
+        get("CUST001", Q1_START, Q1_END);
+
+        assertEquals(2, loads.get());
+    }
+
+    private RewardSummary get(String customerId, LocalDate startDate, LocalDate endDate) {
+        return rewardSummaryCache.get(customerId, startDate, endDate, () -> {
+            loads.incrementAndGet();
+            return new RewardSummary(customerId);
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.retailer.rewards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.BatchIngestResult;
+import com.retailer.rewards.entity.Customer;
+import com.retailer.rewards.entity.Transaction;
+import com.retailer.rewards.event.TransactionRecordedEvent;
+import com.retailer.rewards.repository.CustomerRepository;
+import com.retailer.rewards.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TransactionIngestService against an embedded H2 database in MySQL mode.
+ */
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class TransactionIngestServiceTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    private TransactionIngestService transactionIngestService;
+
+    @BeforeEach
+    void setUp() {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getIngest().setBatchSize(2); // Force several chunks
+        transactionIngestService = new TransactionIngestService(customerRepository, new ConcurrentMapCacheManager(), new JdbcTemplate(dataSource),
+                transactionManager, publishedEvents::add, new ObjectMapper(), new RewardMetrics(new SimpleMeterRegistry()), rewardProperties);
+
+        customerRepository.save(new Customer("CUST001", "Alice"));
+        customerRepository.save(new Customer("CUST002", "Bob"));
+        customerRepository.flush();
+    }
+
+    /**
+     * Valid rows are inserted while invalid ones are reported with their position.
+     */
+    @Test
+    void testIngestNdjson_reportsFailedRowsWithoutAbortingBatch() throws Exception {
+        String body = "{\"customerId\":\"CUST001\",\"amount\":120.00,\"transactionDate\":\"2025-01-15\"}\n" +
+                "{\"customerId\":\"NONEXISTENT\",\"amount\":10.00,\"transactionDate\":\"2025-01-15\"}\n" +
+                "{\"customerId\":\"CUST002\",\"amount\":75.00,\"transactionDate\":\"2025-02-01\"}\n" +
+                "not json\n" +
+                "\n" +
+                "{\"customerId\":\"CUST002\",\"amount\":60.00,\"transactionDate\":\"2025-13-01\"}\n" +
+                "{\"customerId\":\"CUST001\",\"amount\":200.00,\"transactionDate\":\"2025-03-10\"}\n";
+
+        BatchIngestResult result = transactionIngestService.ingestNdjson(stream(body));
+
+        assertEquals(6, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(3, result.getFailures().size());
+        assertEquals(2, result.getFailures().get(0).getRow());
+        assertEquals("Customer with ID 'NONEXISTENT' not found.", result.getFailures().get(0).getMessage());
+        assertEquals(4, result.getFailures().get(1).getRow());
+        assertEquals(5, result.getFailures().get(2).getRow());
+
+        assertEquals(3, transactionRepository.count());
+        assertEquals(3, publishedEvents.size(), "One event per inserted row");
+        assertTrue(publishedEvents.stream().allMatch(e -> e instanceof TransactionRecordedEvent));
+    }
+
+    /**
+     * A JSON array body is ingested the same way.
+     */
+    @Test
+    void testIngestJsonArray() throws Exception {
+        String body = "[{\"customerId\":\"CUST001\",\"amount\":120.00,\"transactionDate\":\"2025-01-15\"}," +
+                "{\"customerId\":\"CUST002\",\"transactionDate\":\"2025-01-15\"}," +
+                "{\"customerId\":\"CUST002\",\"amount\":75.01,\"transactionDate\":\"2025-02-01\"}," +
+                "{\"customerId\":\"CUST001\",\"amount\":50.999,\"transactionDate\":\"2025-02-01\"}]";
+
+        BatchIngestResult result = transactionIngestService.ingestJsonArray(stream(body));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(1, result.getFailures().size());
+        assertEquals("amount is required.", result.getFailures().get(0).getMessage());
+        assertEquals(List.of(5099L, 7501L, 12000L), transactionRepository.findAll().stream()
+                .map(Transaction::getAmountCents).sorted().toList(), "Amounts should be stored as exact cents, without fractions of a cent");
+    }
+
+    /**
+     * An array element that does not bind is reported as a failed row; the other elements are still ingested.
+     */
+    @Test
+    void testIngestJsonArray_reportsElementsThatDoNotBind() throws Exception {
+        String body = "[{\"customerId\":\"CUST001\",\"amount\":120.00,\"transactionDate\":\"2025-01-15\"}," +
+                "{\"customerId\":\"CUST002\",\"amount\":75.00,\"transactionDate\":\"2025-01-16\"}," +
+                "{\"customerId\":\"CUST002\",\"amount\":\"lots\",\"transactionDate\":\"2025-02-01\"}," +
+                "{\"customerId\":\"CUST001\",\"amount\":10.00,\"transactionDate\":[2025,2,1]}," +
+                "{\"customerId\":\"CUST001\",\"amount\":200.00,\"transactionDate\":\"2025-03-10\"}]";
+
+        BatchIngestResult result = transactionIngestService.ingestJsonArray(stream(body));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(3, result.getFailures().get(0).getRow());
+        assertEquals("CUST002", result.getFailures().get(0).getCustomerId());
+        assertTrue(result.getFailures().get(0).getMessage().startsWith("Invalid transaction: "));
+        assertEquals(4, result.getFailures().get(1).getRow());
+        assertEquals(3, transactionRepository.count());
+    }
+
+    /**
+     * A row whose TransactionRecordedEvent listener throws is reported as failed; the other rows,
+     * including those of its chunk, are still inserted and the result is returned.
+     */
+    @Test
+    void testIngestNdjson_reportsRowsWhoseListenerFails() throws Exception {
+        RewardProperties rewardProperties = new RewardProperties();
+        rewardProperties.getIngest().setBatchSize(2);
+        transactionIngestService = new TransactionIngestService(customerRepository, new ConcurrentMapCacheManager(), new JdbcTemplate(dataSource),
+                transactionManager, event -> {
+                    if (((TransactionRecordedEvent) event).getCustomerId().equals("CUST002")) {
+                        throw new IllegalStateException("Listener failed");
+                    }
+                    publishedEvents.add(event);
+                }, new ObjectMapper(), new RewardMetrics(new SimpleMeterRegistry()), rewardProperties);
+        String body = "{\"customerId\":\"CUST001\",\"amount\":120.00,\"transactionDate\":\"2025-01-15\"}\n" +
+                "{\"customerId\":\"CUST002\",\"amount\":75.00,\"transactionDate\":\"2025-02-01\"}\n" +
+                "{\"customerId\":\"CUST001\",\"amount\":200.00,\"transactionDate\":\"2025-03-10\"}\n";
+
+        BatchIngestResult result = transactionIngestService.ingestNdjson(stream(body));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(2, result.getFailures().get(0).getRow());
+        assertEquals("Insert failed: Listener failed", result.getFailures().get(0).getMessage());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
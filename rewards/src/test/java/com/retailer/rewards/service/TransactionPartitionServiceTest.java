@@ -0,0 +1,182 @@
+package com.retailer.rewards.service;
+
+import com.retailer.rewards.config.RewardProperties;
+import com.retailer.rewards.dto.PartitionMaintenanceResult;
+import com.retailer.rewards.dto.TransactionPartition;
+import com.retailer.rewards.event.TransactionsDroppedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TransactionPartitionService class.
+ * Uses Mockito to mock the JdbcTemplate and a fixed clock on 2025-06-15.
+ */
+
+public class TransactionPartitionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RewardProperties rewardProperties;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    private TransactionPartitionService transactionPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rewardProperties = new RewardProperties();
+        rewardProperties.getPartitioning().setEnabled(true);
+        rewardProperties.getPartitioning().setMonthsAhead(2);
+        Clock clock = Clock.fixed(Instant.parse("2025-06-15T12:00:00Z"), ZoneOffset.UTC);
+        transactionPartitionService = new TransactionPartitionService(jdbcTemplate, rewardProperties, publishedEvents::add, clock);
+    }
+
+    /**
+     * The catch-all partition is split into the missing months up to two months ahead.
+     */
+    @Test
+    void testMaintain_addsUpcomingMonthsBeforeMaxValue() {
+        givenPartitions(
+                new TransactionPartition("p202504", LocalDate.of(2025, 5, 1), 100),
+                new TransactionPartition("p202505", LocalDate.of(2025, 6, 1), 100),
+                new TransactionPartition("pmax", null, 0));
+
+        PartitionMaintenanceResult result = transactionPartitionService.maintain();
+
+        assertEquals(Arrays.asList("p202506", "p202507", "p202508"), result.getCreated());
+        verify(jdbcTemplate).execute("alter table transaction reorganize partition pmax into (" +
+                "partition p202506 values less than ('2025-07-01'), " +
+                "partition p202507 values less than ('2025-08-01'), " +
+                "partition p202508 values less than ('2025-09-01'), " +
+                "partition pmax values less than (maxvalue))");
+        assertTrue(result.getDropped().isEmpty(), "No retention configured");
+    }
+
+    /**
+     * Nothing is altered when partitions already reach far enough ahead.
+     */
+    @Test
+    void testMaintain_upToDate() {
+        givenPartitions(
+                new TransactionPartition("p202507", LocalDate.of(2025, 8, 1), 100),
+                new TransactionPartition("p202508", LocalDate.of(2025, 9, 1), 0),
+                new TransactionPartition("pmax", null, 0));
+
+        PartitionMaintenanceResult result = transactionPartitionService.maintain();
+
+        assertTrue(result.getCreated().isEmpty());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    /**
+     * Partitions entirely before the retention horizon are archived, then dropped.
+     */
+    @Test
+    void testMaintain_archivesAndDropsExpiredPartitions() {
+        rewardProperties.getPartitioning().setRetentionMonths(3); // Keeps 2025-03 onwards
+        givenPartitions(
+                new TransactionPartition("p202501", LocalDate.of(2025, 2, 1), 100),
+                new TransactionPartition("p202502", LocalDate.of(2025, 3, 1), 100),
+                new TransactionPartition("p202503", LocalDate.of(2025, 4, 1), 100),
+                new TransactionPartition("p202508", LocalDate.of(2025, 9, 1), 0),
+                new TransactionPartition("pmax", null, 0));
+
+        PartitionMaintenanceResult result = transactionPartitionService.maintain();
+
+        assertEquals(Arrays.asList("p202501", "p202502"), result.getArchived());
+        assertEquals(Arrays.asList("p202501", "p202502"), result.getDropped());
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update("insert ignore into transaction_archive select * from transaction partition (p202501)");
+        inOrder.verify(jdbcTemplate).execute("alter table transaction drop partition p202501");
+        verify(jdbcTemplate, never()).execute("alter table transaction drop partition p202503");
+
+        assertEquals(1, publishedEvents.size());
+        assertEquals(LocalDate.of(2025, 3, 1), ((TransactionsDroppedEvent) publishedEvents.get(0)).getBefore(),
+                "Derived data before the first kept day should be dropped too");
+    }
+
+    /**
+     * Without archiving, expired partitions are only dropped.
+     */
+    @Test
+    void testMaintain_dropsWithoutArchive() {
+        rewardProperties.getPartitioning().setRetentionMonths(3);
+        rewardProperties.getPartitioning().setArchive(false);
+        givenPartitions(
+                new TransactionPartition("p202501", LocalDate.of(2025, 2, 1), 100),
+                new TransactionPartition("p202508", LocalDate.of(2025, 9, 1), 0),
+                new TransactionPartition("pmax", null, 0));
+
+        PartitionMaintenanceResult result = transactionPartitionService.maintain();
+
+        assertEquals(Collections.singletonList("p202501"), result.getDropped());
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    /**
+     * Maintenance does nothing on a table that has not been converted.
+     */
+    @Test
+    void testMaintain_unpartitionedTable() {
+        givenPartitions();
+
+        PartitionMaintenanceResult result = transactionPartitionService.maintain();
+
+        assertTrue(result.getCreated().isEmpty());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    /**
+     * Scheduled maintenance is skipped unless partitioning is enabled.
+     */
+    @Test
+    void testScheduledMaintenance_disabled() {
+        rewardProperties.getPartitioning().setEnabled(false);
+        transactionPartitionService.scheduledMaintenance();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Maintenance requested directly, e.g. through the endpoint, does not touch partitions unless partitioning is enabled.
+     */
+    @Test
+    void testMaintain_disabled() {
+        rewardProperties.getPartitioning().setEnabled(false);
+        rewardProperties.getPartitioning().setRetentionMonths(3);
+
+        PartitionMaintenanceResult result = transactionPartitionService.maintain();
+
+        assertTrue(result.getDropped().isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+        assertTrue(publishedEvents.isEmpty());
+    }
+
+    private void givenPartitions(TransactionPartition... partitions) {
+        List<TransactionPartition> list = Arrays.asList(partitions);
+        when(jdbcTemplate.query(eq(TransactionPartitionService.LIST_PARTITIONS_SQL),
+                ArgumentMatchers.<RowMapper<TransactionPartition>>any())).thenReturn(list);
+    }
+}
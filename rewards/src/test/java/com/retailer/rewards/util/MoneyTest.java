@@ -0,0 +1,42 @@
+package com.retailer.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dollar and cents conversions of Money.
+ */
+
+public class MoneyTest {
+
+    @Test
+    void testEveryCentValueRoundTrips() {
+        for (long amountCents = -100_000; amountCents <= 10_000_000; amountCents++) {
+            assertEquals(amountCents, Money.toCents(Money.toDollars(amountCents)), "Round trip failed at " + amountCents + " cents");
+        }
+    }
+
+    @Test
+    void testToCentsIsExactForInexactDoubles() {
+        assertEquals(5099, Money.toCents(50.99)); // 50.99 * 100 is 5098.999... in binary floating point
+        assertEquals(10001, Money.toCents(100.01));
+        assertEquals(29, Money.toCents(0.29));
+        assertEquals(123_456_789_012_345_67L, Money.toCents(123_456_789_012_345.67)); // Beyond the fast path
+    }
+
+    @Test
+    void testToCentsDropsFractionsOfACent() {
+        assertEquals(10099, Money.toCents(100.999));
+        assertEquals(5099, Money.toCents(50.9999999));
+        assertEquals(0, Money.toCents(0.001));
+        assertEquals(-1, Money.toCents(-0.019));
+    }
+
+    @Test
+    void testToCentsRejectsNonNumbers() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(1e18));
+    }
+}